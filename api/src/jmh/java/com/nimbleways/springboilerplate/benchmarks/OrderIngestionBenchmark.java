@@ -0,0 +1,95 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.Application;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.dto.product.OrderIngestionResponse;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.ingestion.OrderIngestionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders ingested per second from a newline-delimited JSON stream of {@value #ORDERS} orders of three products each,
+ * against an in-memory H2 database, created only or created and processed in the transaction of their chunk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderIngestionBenchmark {
+
+    private static final int ORDERS = 10_000;
+    private static final int PRODUCTS = 100;
+    private static final int STOCK = Integer.MAX_VALUE / 2;
+
+    @Param({"false", "true"})
+    public boolean process;
+
+    private ConfigurableApplicationContext applicationContext;
+    private OrderIngestionService service;
+    private byte[] stream;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        applicationContext = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:ingestion;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        service = applicationContext.getBean(OrderIngestionService.class);
+
+        var products = new ArrayList<Product>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product(null, 10, STOCK, ProductType.NORMAL, "Product " + i, null, null, null));
+        }
+        var productIds = applicationContext.getBean(ProductRepository.class).saveAll(products).stream()
+                .map(Product::getId)
+                .toList();
+        var random = ThreadLocalRandom.current();
+        var body = new StringBuilder();
+        for (int i = 0; i < ORDERS; i++) {
+            body.append("{\"productIds\": [").append(productIds.get(random.nextInt(PRODUCTS)))
+                    .append(", ").append(productIds.get(random.nextInt(PRODUCTS)))
+                    .append(", ").append(productIds.get(random.nextInt(PRODUCTS)))
+                    .append("]}\n");
+        }
+        stream = body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public OrderIngestionResponse ingest() {
+        return service.ingest(new ByteArrayInputStream(stream), process);
+    }
+}
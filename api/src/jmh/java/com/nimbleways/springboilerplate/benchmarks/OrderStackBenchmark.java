@@ -0,0 +1,128 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.Application;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load comparison of the blocking stack (Spring MVC, JPA and JDBC) and the {@code reactive} profile (WebFlux and
+ * R2DBC): many concurrent clients call {@code POST /orders/processBatch} with one order on an embedded server backed
+ * by Postgres, started with Testcontainers. The batch endpoint is used because it is not idempotent, so every call
+ * takes stock on both stacks. Throughput and the sampled latency distribution (p99 included) are reported for each
+ * stack. Both stacks pool {@value #CONNECTIONS} connections, Hikari's default, the reactive one through
+ * {@code r2dbc-postgresql}, whose I/O runs on the event loops. Requires a Docker daemon and the {@code reactive} Maven
+ * profile: {@code ./mvnw -Pbenchmark,reactive -DskipTests verify}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderStackBenchmark {
+
+    private static final int ORDERS = 1000;
+    private static final int STOCK = Integer.MAX_VALUE / 2;
+    private static final int CONNECTIONS = 10;
+
+    @Param({"blocking", "reactive"})
+    public String stack;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext applicationContext;
+    private HttpClient client;
+    private URI batchUri;
+    private List<String> bodies;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+        postgres.start();
+        var builder = new SpringApplicationBuilder(Application.class);
+        if ("reactive".equals(stack)) {
+            builder.profiles("reactive");
+        }
+        // as arguments, which override application.yml; the builder's properties are only defaults
+        applicationContext = builder.run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.datasource.driver-class-name=" + postgres.getDriverClassName(),
+                "--spring.datasource.hikari.maximum-pool-size=" + CONNECTIONS,
+                "--spring.r2dbc.url=r2dbc:pool:postgresql://" + postgres.getHost() + ":"
+                        + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/"
+                        + postgres.getDatabaseName() + "?initialSize=" + CONNECTIONS + "&maxSize=" + CONNECTIONS,
+                "--spring.jpa.database-platform=org.hibernate.dialect.PostgreSQL10Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+        var port = ((WebServerApplicationContext) applicationContext).getWebServer().getPort();
+
+        var productRepository = applicationContext.getBean(ProductRepository.class);
+        var orderRepository = applicationContext.getBean(OrderRepository.class);
+        var products = new HashSet<>(productRepository.saveAll(List.of(
+                new Product(null, 10, STOCK, ProductType.NORMAL, "Cable", null, null, null),
+                new Product(null, 10, STOCK, ProductType.NORMAL, "Dongle", null, null, null))));
+        bodies = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            var order = new Order();
+            order.setItems(products);
+            bodies.add("{\"orderIds\": [" + orderRepository.save(order).getId() + "]}");
+        }
+        batchUri = URI.create("http://localhost:" + port + "/api/orders/processBatch");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            applicationContext.close();
+        } finally {
+            postgres.stop();
+        }
+    }
+
+    @Benchmark
+    public int processBatch() throws IOException, InterruptedException {
+        var body = bodies.get(ThreadLocalRandom.current().nextInt(ORDERS));
+        var request = HttpRequest.newBuilder(batchUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,124 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.Application;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.OrderProcessingService;
+import com.nimbleways.springboilerplate.utils.JdbcRoundTrips;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link OrderProcessingService#processOrder} against an in-memory H2 database, including the
+ * transaction, the order load and the stock updates. Stock is large enough never to run out during a run.
+ * <p>
+ * {@code writes} selects the stock engine: conditional updates, one statement per item, versioned entities
+ * flushed in JDBC batches, or compare-and-set updates sent as one JDBC batch. The {@code statements} and
+ * {@code batches} counters total the JDBC executions of each iteration that go through the Hibernate session;
+ * divided by {@code orders} they give the round trips per order. The optimistic engine reads and writes stock
+ * through {@code JdbcTemplate}, so its two round trips per order are not counted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessOrderBenchmark {
+
+    private static final int STOCK = Integer.MAX_VALUE / 2;
+
+    @Param({"1", "10", "100", "1000"})
+    public int items;
+
+    @Param({"conditional", "versioned", "optimistic"})
+    public String writes;
+
+    private ConfigurableApplicationContext applicationContext;
+    private OrderProcessingService service;
+    private Long orderId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        applicationContext = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--stock.writes=" + writes,
+                        "--" + JdbcRoundTrips.PROPERTY);
+        service = applicationContext.getBean(OrderProcessingService.class);
+
+        var productRepository = applicationContext.getBean(ProductRepository.class);
+        var now = LocalDate.now();
+        var products = new ArrayList<Product>(items);
+        for (int i = 0; i < items; i++) {
+            products.add(switch (i % 3) {
+                case 0 -> new Product(null, 10, STOCK, ProductType.NORMAL, "Normal " + i, null, null, null);
+                case 1 -> new Product(null, 10, STOCK, ProductType.SEASONAL, "Seasonal " + i, null,
+                        now.minusDays(30), now.plusDays(30));
+                default -> new Product(null, 10, STOCK, ProductType.EXPIRABLE, "Expirable " + i, now.plusDays(30), null, null);
+            });
+        }
+        var order = new Order();
+        order.setItems(new HashSet<>(productRepository.saveAll(products)));
+        orderId = applicationContext.getBean(OrderRepository.class).save(order).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public Order processOrder(RoundTrips roundTrips) {
+        long statements = JdbcRoundTrips.statements();
+        long batches = JdbcRoundTrips.batches();
+        var order = service.processOrder(orderId);
+        roundTrips.statements += JdbcRoundTrips.statements() - statements;
+        roundTrips.batches += JdbcRoundTrips.batches() - batches;
+        roundTrips.orders++;
+        return order;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+
+        public long statements;
+        public long batches;
+        public long orders;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            batches = 0;
+            orders = 0;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
+import com.nimbleways.springboilerplate.services.catalog.ProductAvailabilityIndex;
+import com.nimbleways.springboilerplate.services.strategy.ExpirableProductStrategy;
+import com.nimbleways.springboilerplate.services.strategy.NormalProductStrategy;
+import com.nimbleways.springboilerplate.services.strategy.SeasonalProductStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single {@code process} call per strategy, in memory, for the in-stock and out-of-stock branches.
+ * Runs are dated to a fixed day, so results do not depend on when the benchmark runs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductStrategyBenchmark {
+
+    @Param({"true", "false"})
+    public boolean inStock;
+
+    private NormalProductStrategy normalStrategy;
+    private SeasonalProductStrategy seasonalStrategy;
+    private ExpirableProductStrategy expirableStrategy;
+    private ProcessingContext context;
+
+    private ProductMetadata normalProduct;
+    private ProductMetadata seasonalProduct;
+    private ProductMetadata expirableProduct;
+
+    @Setup
+    public void setUp() {
+        normalStrategy = new NormalProductStrategy();
+        seasonalStrategy = new SeasonalProductStrategy(new ProductAvailabilityIndex());
+        expirableStrategy = new ExpirableProductStrategy(new ProductAvailabilityIndex());
+        boolean decremented = inStock;
+        var now = LocalDate.of(2024, 6, 1);
+        context = new ProcessingContext(product -> decremented, now);
+
+        normalProduct = new ProductMetadata(1L, ProductType.NORMAL, "Cable", 10, null, null, null);
+        seasonalProduct = new ProductMetadata(2L, ProductType.SEASONAL, "Melon", 10, null, now.minusDays(10), now.plusDays(30));
+        expirableProduct = new ProductMetadata(3L, ProductType.EXPIRABLE, "Milk", 10, now.plusDays(30), null, null);
+    }
+
+    @Benchmark
+    public ProcessingOutcome normal() {
+        var outcome = normalStrategy.process(normalProduct, context);
+        context.notifications().clear();
+        return outcome;
+    }
+
+    @Benchmark
+    public ProcessingOutcome seasonal() {
+        var outcome = seasonalStrategy.process(seasonalProduct, context);
+        context.notifications().clear();
+        return outcome;
+    }
+
+    @Benchmark
+    public ProcessingOutcome expirable() {
+        var outcome = expirableStrategy.process(expirableProduct, context);
+        context.notifications().clear();
+        return outcome;
+    }
+}
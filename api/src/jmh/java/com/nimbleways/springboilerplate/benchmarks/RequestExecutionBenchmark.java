@@ -0,0 +1,105 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.Application;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load comparison of the {@code execution.mode} settings: many concurrent clients call
+ * {@code POST /orders/{id}/processOrder} on an embedded server backed by H2. Throughput and the sampled latency
+ * distribution (p99 included) are reported for each mode. On JDK 17 {@code virtual} fails to start, so only the
+ * {@code platform} row is measured there; for the comparison, run Maven on JDK 21 with
+ * {@code -Dmaven.compiler.release=17 -Djacoco.skip=true}. Point
+ * {@code spring.datasource.*} at Postgres through {@code -Djmh.args="-jvmArgs -Dspring.datasource.url=..."}
+ * to measure against a networked database.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestExecutionBenchmark {
+
+    private static final int ORDERS = 1000;
+    private static final int STOCK = Integer.MAX_VALUE / 2;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    private ConfigurableApplicationContext applicationContext;
+    private HttpClient client;
+    private List<URI> orderUris;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        applicationContext = new SpringApplicationBuilder(Application.class)
+                .run(
+                        "--execution.mode=" + mode,
+                        "--server.port=0",
+                        "--spring.datasource.url=" + System.getProperty("spring.datasource.url",
+                                "jdbc:h2:mem:requests;DB_CLOSE_DELAY=-1"),
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        var port = ((WebServerApplicationContext) applicationContext).getWebServer().getPort();
+
+        var productRepository = applicationContext.getBean(ProductRepository.class);
+        var orderRepository = applicationContext.getBean(OrderRepository.class);
+        var products = new HashSet<>(productRepository.saveAll(List.of(
+                new Product(null, 10, STOCK, ProductType.NORMAL, "Cable", null, null, null),
+                new Product(null, 10, STOCK, ProductType.NORMAL, "Dongle", null, null, null))));
+        orderUris = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            var order = new Order();
+            order.setItems(products);
+            var id = orderRepository.save(order).getId();
+            orderUris.add(URI.create("http://localhost:" + port + "/api/orders/" + id + "/processOrder"));
+        }
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public int processOrder() throws IOException, InterruptedException {
+        var uri = orderUris.get(ThreadLocalRandom.current().nextInt(ORDERS));
+        var request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,101 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.nimbleways.springboilerplate.dto.ErrorResponse;
+import com.nimbleways.springboilerplate.dto.product.ProcessBatchRequest;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The bodies of the order endpoints in JSON and in CBOR, mapped as {@code CborCodecConfig} maps them: a batch
+ * response of {@code batchSize} orders and an error are written into one reused buffer, and a batch request is read
+ * back. Each trial prints the size of the bodies, the scores give their CPU cost; run with {@code -prof gc} for the
+ * allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseCodecBenchmark {
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    @Param({"1", "100"})
+    public int batchSize;
+
+    private ObjectWriter batchResponseWriter;
+    private ObjectWriter errorWriter;
+    private ObjectReader batchRequestReader;
+
+    private List<ProcessOrderResponse> batchResponse;
+    private ErrorResponse error;
+    private byte[] batchRequest;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+
+    @Setup
+    public void setUp() throws IOException {
+        var builder = Jackson2ObjectMapperBuilder.json();
+        ObjectMapper mapper = format.equals("cbor") ? builder.factory(new CBORFactory()).build() : builder.build();
+        batchResponseWriter = mapper.writerFor(new TypeReference<List<ProcessOrderResponse>>() { });
+        errorWriter = mapper.writerFor(ErrorResponse.class);
+        batchRequestReader = mapper.readerFor(ProcessBatchRequest.class);
+
+        batchResponse = new ArrayList<>(batchSize);
+        var orderIds = new ArrayList<Long>(batchSize);
+        for (long id = 1_000_000; id < 1_000_000 + batchSize; id++) {
+            batchResponse.add(new ProcessOrderResponse(id));
+            orderIds.add(id);
+        }
+        error = new ErrorResponse(404, "Order Not Found", "Order not found with id: 1000000");
+        batchRequest = mapper.writeValueAsBytes(new ProcessBatchRequest(orderIds));
+
+        System.out.println();
+        System.out.println("[" + format + ", " + batchSize + "] batch response: " + writeBatchResponse() + " bytes, error: "
+                + writeError() + " bytes, batch request: " + batchRequest.length + " bytes");
+    }
+
+    @Benchmark
+    public int writeBatchResponse() throws IOException {
+        return write(batchResponseWriter, batchResponse);
+    }
+
+    @Benchmark
+    public int writeError() throws IOException {
+        return write(errorWriter, error);
+    }
+
+    @Benchmark
+    public ProcessBatchRequest readBatchRequest() throws IOException {
+        return batchRequestReader.readValue(batchRequest);
+    }
+
+    private int write(ObjectWriter writer, Object body) throws IOException {
+        buffer.reset();
+        writer.writeValue(buffer, body);
+        return buffer.size();
+    }
+}
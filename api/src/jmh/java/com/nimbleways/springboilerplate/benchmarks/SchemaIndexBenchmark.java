@@ -0,0 +1,183 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.Application;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The processing queries against Postgres, started with Testcontainers, on the schema of the Liquibase changelog
+ * ({@code indexes=changelog}) or on the same schema without what {@code 0002-order-processing-indexes}
+ * and {@code 0004-products-by-name} add ({@code indexes=none}): the indexes on {@code products.type} and
+ * {@code products.name}, and the products fillfactor.
+ * <p>
+ * Each trial prints the {@code EXPLAIN (ANALYZE, BUFFERS)} plan of every processing query on the seeded data, and at
+ * its end the share of products updates Postgres applied as heap-only tuples. The benchmarks time the load of the
+ * products with a window, which the availability index runs on every rebuild, the lookup of a product by name, and
+ * a batch of stock decrements.
+ * Requires a Docker daemon.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaIndexBenchmark {
+
+    private static final int PRODUCTS = 200_000;
+    private static final int ORDERS = 100_000;
+    private static final int ITEMS_PER_ORDER = 5;
+    private static final int DECREMENTS = 10;
+    private static final Set<ProductType> WINDOWED = EnumSet.of(ProductType.SEASONAL, ProductType.EXPIRABLE);
+
+    private static final List<String> PLANNED_QUERIES = List.of(
+            "SELECT id, type, name, lead_time, expiry_date, season_start_date, season_end_date FROM products "
+                    + "WHERE type IN ('SEASONAL', 'EXPIRABLE')",
+            "SELECT id, name FROM products WHERE name = 'Product 4242' LIMIT 1",
+            "SELECT o.id FROM orders o WHERE o.id > 0 "
+                    + "AND NOT EXISTS (SELECT 1 FROM processed_orders p WHERE p.order_id = o.id) ORDER BY o.id",
+            "SELECT o.id, i.product_id FROM orders o LEFT JOIN order_items i ON i.order_id = o.id "
+                    + "WHERE o.id IN (1, 2, 3, 4, 5, 6, 7, 8, 9, 10)",
+            "SELECT id, available FROM products WHERE id IN (1, 2, 3, 4, 5, 6, 7, 8, 9, 10)",
+            "UPDATE products SET available = available - 1, version = version + 1 WHERE id = 42 AND available >= 1");
+
+    /**
+     * Every tenth product has a window, as in a catalog where most products are sold all year round.
+     */
+    private static final String SEED_PRODUCTS_SQL = "INSERT INTO products "
+            + "(id, lead_time, available, type, name, expiry_date, season_start_date, season_end_date, version) "
+            + "SELECT n, 10, 1000000000, "
+            + "CASE n % 20 WHEN 0 THEN 'SEASONAL' WHEN 10 THEN 'EXPIRABLE' ELSE 'NORMAL' END, 'Product ' || n, "
+            + "CASE n % 20 WHEN 10 THEN current_date + 30 END, "
+            + "CASE n % 20 WHEN 0 THEN current_date - 30 END, "
+            + "CASE n % 20 WHEN 0 THEN current_date + 30 END, 0 "
+            + "FROM generate_series(1, ?) n";
+    private static final String SEED_ORDERS_SQL = "INSERT INTO orders (id) SELECT n FROM generate_series(1, ?) n";
+    private static final String SEED_ITEMS_SQL = "INSERT INTO order_items (order_id, product_id) "
+            + "SELECT o, ((o * 7919 + i * 104729) % ?) + 1 FROM generate_series(1, ?) o, generate_series(1, ?) i "
+            + "ON CONFLICT DO NOTHING";
+    /**
+     * All but the last hundredth of the orders were processed, as in a backlog catching up.
+     */
+    private static final String SEED_PROCESSED_SQL = "INSERT INTO processed_orders (order_id, processed_at) "
+            + "SELECT n, now() FROM generate_series(1, ?) n";
+
+    @Param({"none", "changelog"})
+    public String indexes;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext applicationContext;
+    private ProductRepository productRepository;
+    private ProductStockRepository productStockRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+        postgres.start();
+        // as arguments, which override application.yml; the builder's properties are only defaults
+        applicationContext = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--spring.datasource.driver-class-name=" + postgres.getDriverClassName(),
+                        "--spring.jpa.database-platform=org.hibernate.dialect.PostgreSQL10Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        productRepository = applicationContext.getBean(ProductRepository.class);
+        productStockRepository = applicationContext.getBean(ProductStockRepository.class);
+        jdbcTemplate = applicationContext.getBean(JdbcTemplate.class);
+        var transactions = applicationContext.getBean(TransactionTemplate.class);
+
+        if (indexes.equals("none")) {
+            jdbcTemplate.execute("DROP INDEX idx_products_type");
+            jdbcTemplate.execute("DROP INDEX idx_products_name");
+            jdbcTemplate.execute("ALTER TABLE products RESET (fillfactor)");
+        }
+        jdbcTemplate.update(SEED_PRODUCTS_SQL, PRODUCTS);
+        jdbcTemplate.update(SEED_ORDERS_SQL, ORDERS);
+        jdbcTemplate.update(SEED_ITEMS_SQL, PRODUCTS, ORDERS, ITEMS_PER_ORDER);
+        jdbcTemplate.update(SEED_PROCESSED_SQL, ORDERS - ORDERS / 100);
+        jdbcTemplate.execute("VACUUM ANALYZE");
+
+        System.out.println();
+        for (var query : PLANNED_QUERIES) {
+            System.out.println("[" + indexes + "] " + query);
+            // ANALYZE runs the statement; roll the update back so every trial starts from the same data
+            transactions.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + query, String.class)
+                        .forEach(line -> System.out.println("    " + line));
+                status.setRollbackOnly();
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            // the statistics collector reports with a delay of up to half a second
+            jdbcTemplate.execute("SELECT pg_sleep(1)");
+            var updates = jdbcTemplate.queryForMap(
+                    "SELECT n_tup_upd, n_tup_hot_upd FROM pg_stat_user_tables WHERE relname = 'products'");
+            System.out.println();
+            System.out.println("[" + indexes + "] products updates: " + updates.get("n_tup_upd")
+                    + ", heap-only: " + updates.get("n_tup_hot_upd"));
+        } finally {
+            applicationContext.close();
+            postgres.stop();
+        }
+    }
+
+    @Benchmark
+    public List<ProductMetadata> loadProductsWithWindow() {
+        return productRepository.findMetadataByTypeIn(WINDOWED);
+    }
+
+    @Benchmark
+    public Optional<Product> findProductByName() {
+        return productRepository.findFirstByName("Product " + ThreadLocalRandom.current().nextInt(1, PRODUCTS + 1));
+    }
+
+    @Benchmark
+    public void decrementStock() {
+        var random = ThreadLocalRandom.current();
+        var decrements = new HashMap<Long, Integer>(DECREMENTS * 2);
+        while (decrements.size() < DECREMENTS) {
+            decrements.put(random.nextLong(1, PRODUCTS + 1), 1);
+        }
+        productStockRepository.decrementAll(decrements);
+    }
+}
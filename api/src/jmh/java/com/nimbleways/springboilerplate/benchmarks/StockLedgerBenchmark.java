@@ -0,0 +1,73 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.repositories.StockLedgerCheckpointRepository;
+import com.nimbleways.springboilerplate.services.stock.ledger.StockLedger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@value #THREADS} threads taking and giving back units of one hot product in the stock ledger, with its counter
+ * in a single compare-and-set cell or striped across several. The numbers only stand for production contention on
+ * a machine with at least as many cores as threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(StockLedgerBenchmark.THREADS)
+@State(Scope.Benchmark)
+public class StockLedgerBenchmark {
+
+    static final int THREADS = 8;
+    private static final long HOT = 1L;
+
+    @Param({"1", "8"})
+    public int stripes;
+
+    private StockLedger ledger;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var products = new ProductStockRepository(null) {
+            @Override
+            public Map<Long, Integer> findAvailable(Collection<Long> productIds) {
+                return Map.of(HOT, Integer.MAX_VALUE);
+            }
+        };
+        // the journal and checkpoints are only touched by commits and flushes, which are not measured
+        ledger = StockLedger.create("benchmark", Files.createTempDirectory("stock-ledger"), stripes, products,
+                Stubs.repository(StockLedgerCheckpointRepository.class, Map.of()),
+                TransactionOperations.withoutTransaction());
+        ledger.preload(List.of(HOT));
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        boolean taken = ledger.tryReserve(HOT);
+        if (taken) {
+            ledger.release(HOT);
+        }
+        return taken;
+    }
+}
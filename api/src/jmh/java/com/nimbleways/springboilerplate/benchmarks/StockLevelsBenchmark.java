@@ -0,0 +1,102 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.Application;
+import com.nimbleways.springboilerplate.domain.catalog.StockLevel;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A poll of the stock levels over {@value #PRODUCTS} products in an in-memory H2 database, summed by a query as a
+ * dashboard would without {@link ProductStockLevels} or read from its snapshot, and what keeping the snapshot adds to
+ * a run that took stock of one product.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StockLevelsBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    /**
+     * Every tenth product has a window, as in {@link SchemaIndexBenchmark}.
+     */
+    private static final String SEED_PRODUCTS_SQL = "INSERT INTO products "
+            + "(id, lead_time, available, type, name, expiry_date, season_start_date, season_end_date, version) "
+            + "SELECT x, 10, MOD(x, 50), "
+            + "CASE MOD(x, 20) WHEN 0 THEN 'SEASONAL' WHEN 10 THEN 'EXPIRABLE' ELSE 'NORMAL' END, 'Product ' || x, "
+            + "CASE MOD(x, 20) WHEN 10 THEN DATEADD('DAY', MOD(x, 365), CURRENT_DATE) END, "
+            + "CASE MOD(x, 20) WHEN 0 THEN CURRENT_DATE END, "
+            + "CASE MOD(x, 20) WHEN 0 THEN DATEADD('DAY', MOD(x, 365), CURRENT_DATE) END, 0 "
+            + "FROM SYSTEM_RANGE(1, ?)";
+    private static final String LEVELS_SQL = "SELECT type, "
+            + "YEAR(COALESCE(expiry_date, season_end_date)) closing_year, "
+            + "MONTH(COALESCE(expiry_date, season_end_date)) closing_month, "
+            + "COUNT(*) products, SUM(available) available, "
+            + "SUM(CASE WHEN available <= 0 THEN 1 ELSE 0 END) out_of_stock "
+            + "FROM products GROUP BY type, closing_year, closing_month";
+
+    private ConfigurableApplicationContext applicationContext;
+    private JdbcTemplate jdbcTemplate;
+    private ProductStockLevels stockLevels;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        applicationContext = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:levels;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        jdbcTemplate = applicationContext.getBean(JdbcTemplate.class);
+        jdbcTemplate.update(SEED_PRODUCTS_SQL, PRODUCTS);
+        stockLevels = applicationContext.getBean(ProductStockLevels.class);
+        // the levels loaded at startup, before the seed
+        stockLevels.load(applicationContext.getBean(ProductStockRepository.class)::forEachProduct);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> query() {
+        return jdbcTemplate.queryForList(LEVELS_SQL);
+    }
+
+    @Benchmark
+    public List<StockLevel> snapshot() {
+        return stockLevels.snapshot();
+    }
+
+    @Benchmark
+    public List<StockLevel> recordDecrement() {
+        stockLevels.recordDecrements(Map.of(ThreadLocalRandom.current().nextLong(1, PRODUCTS + 1), 1));
+        return stockLevels.snapshot();
+    }
+}
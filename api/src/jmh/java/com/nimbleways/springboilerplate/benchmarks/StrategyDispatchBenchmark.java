@@ -0,0 +1,116 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.config.ProductCacheProperties;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
+import com.nimbleways.springboilerplate.domain.strategy.ProductProcessingStrategy;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.repositories.OrderItemRef;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.services.catalog.ProductMetadataCache;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import com.nimbleways.springboilerplate.services.implementations.OrderProcessingService;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.notification.NotificationOutbox;
+import com.nimbleways.springboilerplate.services.processing.SequentialItemProcessor;
+import com.nimbleways.springboilerplate.services.stock.DatabaseStockEngine;
+import com.nimbleways.springboilerplate.services.stock.ImmediateStockGateway;
+import com.nimbleways.springboilerplate.services.stock.StockRetryPolicy;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategy lookup and iteration in {@link OrderProcessingService#processOrder} with the database and the
+ * strategies stubbed out, so only the service's own per-item overhead is measured, product metadata cache
+ * lookups included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StrategyDispatchBenchmark {
+
+    private static final ProductType[] TYPES = ProductType.values();
+
+    @Param({"1", "10", "100", "1000"})
+    public int items;
+
+    private OrderProcessingService service;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        var order = new Order(1L, null);
+        var products = new ArrayList<ProductMetadata>(items);
+        var itemRefs = new ArrayList<OrderItemRef>(items);
+        for (long id = 1; id <= items; id++) {
+            var type = TYPES[(int) (id % TYPES.length)];
+            products.add(new ProductMetadata(id, type, "Product " + id, 10, null, null, null));
+            itemRefs.add(new OrderItemRef(order, id));
+        }
+
+        var strategies = new ProductStrategyRegistry(Arrays.stream(TYPES)
+                .map(type -> consumingStrategy(type, blackhole))
+                .toList());
+        OrderRepository orderRepository = Stubs.repository(OrderRepository.class,
+                Map.of("findItemRefsByOrderIdIn", args -> itemRefs));
+        ProductRepository productRepository = Stubs.repository(ProductRepository.class,
+                Map.of("findMetadataByIdIn", args -> products));
+        var registry = new SimpleMeterRegistry();
+        var productMetadataCache = new ProductMetadataCache(productRepository,
+                new ProductCacheProperties(items, Duration.ofHours(1)), registry);
+
+        var metrics = new OrderProcessingMetrics(registry);
+        var stockEngine = new DatabaseStockEngine(new ImmediateStockGateway(productRepository),
+                new ProductStockRepository(null), metrics);
+
+        service = new OrderProcessingService(orderRepository, productMetadataCache, strategies,
+                new SequentialItemProcessor(), stockEngine,
+                new StockRetryPolicy(1, Duration.ZERO, Duration.ZERO, metrics),
+                new NotificationOutbox(events -> { }), new ProductStockLevels(), metrics, Clock.systemDefaultZone());
+    }
+
+    @Benchmark
+    public Order dispatch() {
+        return service.processOrder(1L);
+    }
+
+    private static ProductProcessingStrategy consumingStrategy(ProductType type, Blackhole blackhole) {
+        return new ProductProcessingStrategy() {
+            @Override
+            public ProductType type() {
+                return type;
+            }
+
+            @Override
+            public ProcessingOutcome process(ProductMetadata product, ProcessingContext context) {
+                blackhole.consume(product);
+                return ProcessingOutcome.DECREMENTED;
+            }
+        };
+    }
+}
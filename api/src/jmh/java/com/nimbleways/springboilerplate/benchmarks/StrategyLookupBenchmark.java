@@ -0,0 +1,98 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.strategy.ProductProcessingStrategy;
+import com.nimbleways.springboilerplate.services.catalog.ProductAvailabilityIndex;
+import com.nimbleways.springboilerplate.services.strategy.ExpirableProductStrategy;
+import com.nimbleways.springboilerplate.services.strategy.NormalProductStrategy;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+import com.nimbleways.springboilerplate.services.strategy.SeasonalProductStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategy resolution alone, over a shuffled sequence of product types: the former string-keyed bean map
+ * against an {@link EnumMap} and the ordinal-indexed {@link ProductStrategyRegistry}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StrategyLookupBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    private Map<String, ProductProcessingStrategy> byName;
+    private EnumMap<ProductType, ProductProcessingStrategy> byEnum;
+    private ProductStrategyRegistry registry;
+
+    private String[] typeNames;
+    private ProductType[] types;
+
+    @Setup
+    public void setUp() {
+        var availabilityIndex = new ProductAvailabilityIndex();
+        List<ProductProcessingStrategy> strategies = List.of(new NormalProductStrategy(),
+                new SeasonalProductStrategy(availabilityIndex), new ExpirableProductStrategy(availabilityIndex));
+        byName = new HashMap<>();
+        byEnum = new EnumMap<>(ProductType.class);
+        for (var strategy : strategies) {
+            byName.put(strategy.type().name(), strategy);
+            byEnum.put(strategy.type(), strategy);
+        }
+        registry = new ProductStrategyRegistry(strategies);
+
+        var values = ProductType.values();
+        var random = ThreadLocalRandom.current();
+        types = new ProductType[LOOKUPS];
+        typeNames = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            types[i] = values[random.nextInt(values.length)];
+            // a fresh string per item, as it would come out of a result set
+            typeNames[i] = new String(types[i].name());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void stringMap(Blackhole blackhole) {
+        for (var typeName : typeNames) {
+            blackhole.consume(byName.get(typeName));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void enumMap(Blackhole blackhole) {
+        for (var type : types) {
+            blackhole.consume(byEnum.get(type));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void ordinalArray(Blackhole blackhole) {
+        for (var type : types) {
+            blackhole.consume(registry.get(type));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Minimal repository stubs for benchmarks, without the per-call overhead of a mocking framework.
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            var answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+            }
+            return answer.apply(args);
+        });
+        return type.cast(stub);
+    }
+}
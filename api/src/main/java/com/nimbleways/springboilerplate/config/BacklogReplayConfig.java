@@ -0,0 +1,27 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.nimbleways.springboilerplate.services.backlog.BacklogReplayJob;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BacklogReplayProperties.class)
+public class BacklogReplayConfig {
+
+    /**
+     * Replays the backlog synchronously after startup; a failed chunk fails the startup, so a command-line run
+     * with {@code --spring.main.web-application-type=none} exits with an error and resumes on the next run.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "orders.backlog.run-on-startup", havingValue = "true")
+    public ApplicationRunner backlogReplayRunner(BacklogReplayJob backlogReplayJob,
+                                                 BacklogReplayProperties properties) {
+        if (properties.afterOrderId() == null) {
+            throw new IllegalStateException("orders.backlog.after-order-id must name the last order before the backlog");
+        }
+        return args -> backlogReplayJob.run(properties.job(), properties.afterOrderId());
+    }
+}
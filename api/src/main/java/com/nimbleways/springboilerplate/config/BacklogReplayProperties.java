@@ -0,0 +1,28 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param chunkSize        orders processed and checkpointed per transaction
+ * @param fetchSize        rows the pending-order cursor pulls from the database per round trip
+ * @param chunkAttempts    attempts per chunk when some of its orders get processed concurrently by the API
+ * @param progressInterval minimum delay between two progress log lines
+ * @param job              checkpoint key of the replay run on startup
+ * @param afterOrderId     last order before the backlog replayed on startup, required with {@code runOnStartup}
+ * @param runOnStartup     replay the backlog once the application has started, e.g. from the command line
+ */
+@ConstructorBinding
+@ConfigurationProperties("orders.backlog")
+public record BacklogReplayProperties(
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("1000") int fetchSize,
+        @DefaultValue("3") int chunkAttempts,
+        @DefaultValue("10s") Duration progressInterval,
+        @DefaultValue("backlog") String job,
+        Long afterOrderId,
+        @DefaultValue("false") boolean runOnStartup) {
+}
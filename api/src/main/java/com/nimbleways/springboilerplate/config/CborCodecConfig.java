@@ -0,0 +1,31 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Reads and writes {@code application/cbor} next to JSON, as chosen by the request's {@code Content-Type} and
+ * {@code Accept} headers; JSON stays the default. The codecs of the reactive stack are in
+ * {@code ReactiveCborCodecConfig}, built with the {@code reactive} Maven profile.
+ * <p>
+ * The CBOR mappers come from Boot's {@link Jackson2ObjectMapperBuilder}, so they register the same modules and
+ * honour the same {@code spring.jackson.*} settings as the JSON one. Bodies are generated straight onto the
+ * response stream with the buffers Jackson recycles per thread, so encoding a response allocates little beyond
+ * the objects written. No mapper is exposed as a bean, which would make Boot back off its JSON one.
+ */
+@Configuration
+public class CborCodecConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+    }
+
+    static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.createXmlMapper(false).factory(new CBORFactory()).build();
+    }
+}
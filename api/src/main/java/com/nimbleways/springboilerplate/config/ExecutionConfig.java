@@ -0,0 +1,82 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chooses the threads that serve order requests and run the work around order processing.
+ * <p>
+ * Virtual threads are looked up reflectively so the same build runs on JDK 17 and 21. On a JDK without them,
+ * {@code virtual} fails startup rather than quietly serving from platform threads. Requests then get a new virtual
+ * thread each, rather than a pooled one.
+ */
+@Configuration
+@EnableConfigurationProperties(ExecutionProperties.class)
+public class ExecutionConfig {
+
+    private static final String MODE_PROPERTY = "execution.mode";
+
+    @Bean
+    public ThreadFactory processingThreadFactory(ExecutionProperties properties) {
+        return threadFactory(properties.mode(), "order-processing-");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequestExecutor() {
+        var executor = virtualThreadPerTaskExecutor("http-request-");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    static ThreadFactory threadFactory(ExecutionProperties.Mode mode, String prefix) {
+        return mode == ExecutionProperties.Mode.VIRTUAL ? virtualThreadFactory(prefix) : platformThreadFactory(prefix);
+    }
+
+    /**
+     * @return an executor starting a new virtual thread per task
+     * @throws IllegalStateException before JDK 21
+     */
+    static ExecutorService virtualThreadPerTaskExecutor(String prefix) {
+        var factory = virtualThreadFactory(prefix);
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads without a thread-per-task executor", e);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException before JDK 21
+     */
+    static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = Class.forName("java.lang.Thread$Builder$OfVirtual")
+                    .getMethod("name", String.class, long.class)
+                    .invoke(builder, prefix, 0L);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(MODE_PROPERTY + "=virtual needs Java 21 or later, this is Java "
+                    + Runtime.version().feature(), e);
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory(String prefix) {
+        var counter = new AtomicLong();
+        return runnable -> {
+            var thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param mode {@code platform} keeps Tomcat's worker pool and platform background threads, {@code virtual} runs
+ *             each HTTP request and the processing background work on its own virtual thread, and fails startup
+ *             before JDK 21
+ */
+@ConstructorBinding
+@ConfigurationProperties("execution")
+public record ExecutionProperties(@DefaultValue("platform") Mode mode) {
+
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+}
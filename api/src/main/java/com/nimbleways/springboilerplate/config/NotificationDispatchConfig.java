@@ -0,0 +1,36 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.nimbleways.springboilerplate.services.metrics.ProcessingTracer;
+import com.nimbleways.springboilerplate.services.notification.BatchingNotificationDispatcher;
+import com.nimbleways.springboilerplate.services.notification.DirectNotificationDispatcher;
+import com.nimbleways.springboilerplate.services.notification.NotificationSink;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadFactory;
+
+@Configuration
+@EnableConfigurationProperties(NotificationDispatchProperties.class)
+public class NotificationDispatchConfig {
+
+    private static final String MODE_PROPERTY = "notifications.dispatch.mode";
+
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = "direct", matchIfMissing = true)
+    public DirectNotificationDispatcher directNotificationDispatcher(NotificationSink sink) {
+        return new DirectNotificationDispatcher(sink);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = "batching")
+    public BatchingNotificationDispatcher batchingNotificationDispatcher(NotificationSink sink,
+                                                                         ProcessingTracer tracer,
+                                                                         NotificationDispatchProperties properties,
+                                                                         ThreadFactory processingThreadFactory,
+                                                                         MeterRegistry registry) {
+        return new BatchingNotificationDispatcher(sink, tracer, properties, processingThreadFactory, registry);
+    }
+}
@@ -0,0 +1,31 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param mode         {@code direct} sends on the committing thread, {@code batching} queues for the background dispatcher
+ * @param capacity     maximum number of queued events before producers are held back
+ * @param window       how long the dispatcher collects events into one coalesced batch
+ * @param offerTimeout how long a producer waits for queue space, per dispatched list, before dropping what is left
+ * @param maxAttempts  sink calls per event before it is given up
+ * @param retryBackoff pause before the first retry, doubled on each further attempt
+ */
+@ConstructorBinding
+@ConfigurationProperties("notifications.dispatch")
+public record NotificationDispatchProperties(
+        @DefaultValue("direct") Mode mode,
+        @DefaultValue("10000") int capacity,
+        @DefaultValue("1s") Duration window,
+        @DefaultValue("50ms") Duration offerTimeout,
+        @DefaultValue("3") int maxAttempts,
+        @DefaultValue("100ms") Duration retryBackoff) {
+
+    public enum Mode {
+        DIRECT,
+        BATCHING
+    }
+}
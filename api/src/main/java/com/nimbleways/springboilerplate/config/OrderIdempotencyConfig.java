@@ -0,0 +1,9 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(OrderIdempotencyProperties.class)
+public class OrderIdempotencyConfig {
+}
@@ -0,0 +1,18 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param cacheSize number of processed order ids remembered in memory; older ones are answered from the database
+ * @param cacheTtl  how long a processed order id is remembered in memory
+ */
+@ConstructorBinding
+@ConfigurationProperties("orders.idempotency")
+public record OrderIdempotencyProperties(
+        @DefaultValue("100000") long cacheSize,
+        @DefaultValue("1h") Duration cacheTtl) {
+}
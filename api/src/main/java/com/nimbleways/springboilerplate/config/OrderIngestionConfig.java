@@ -0,0 +1,34 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbleways.springboilerplate.repositories.OrderIngestionRepository;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.services.catalog.ProductMetadataCache;
+import com.nimbleways.springboilerplate.services.implementations.OrderProcessingService;
+import com.nimbleways.springboilerplate.services.ingestion.OrderIngestionService;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(OrderIngestionProperties.class)
+public class OrderIngestionConfig {
+
+    @Bean
+    public OrderIngestionService orderIngestionService(OrderIngestionRepository orderIngestionRepository,
+                                                       ProductMetadataCache productMetadataCache,
+                                                       OrderProcessingService orderProcessingService,
+                                                       ProcessedOrderRepository processedOrderRepository,
+                                                       TransactionTemplate transactionTemplate,
+                                                       OrderProcessingMetrics metrics,
+                                                       ObjectMapper objectMapper,
+                                                       Clock clock,
+                                                       OrderIngestionProperties properties) {
+        return new OrderIngestionService(orderIngestionRepository, productMetadataCache, orderProcessingService,
+                processedOrderRepository, transactionTemplate, metrics, objectMapper, clock, properties.chunkSize());
+    }
+}
@@ -0,0 +1,15 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param chunkSize orders of a stream read, inserted and, if asked, processed in one transaction; bounds the memory
+ *                  a stream takes and how long it locks products, however long it is
+ */
+@ConstructorBinding
+@ConfigurationProperties("orders.ingestion")
+public record OrderIngestionProperties(
+        @DefaultValue("1000") int chunkSize) {
+}
@@ -0,0 +1,41 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.nimbleways.springboilerplate.services.processing.ItemProcessor;
+import com.nimbleways.springboilerplate.services.processing.ParallelItemProcessor;
+import com.nimbleways.springboilerplate.services.processing.SequentialItemProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.util.concurrent.ThreadFactory;
+
+@Configuration
+@EnableConfigurationProperties(OrderProcessingProperties.class)
+public class OrderProcessingConfig {
+
+    private static final String MODE_PROPERTY = "orders.processing.mode";
+
+    /**
+     * The clock each processing run takes its date from; tests and benchmarks replace it with a fixed one.
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = "sequential", matchIfMissing = true)
+    public ItemProcessor sequentialItemProcessor() {
+        return new SequentialItemProcessor();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = "parallel")
+    public ItemProcessor parallelItemProcessor(OrderProcessingProperties properties,
+                                               ThreadFactory processingThreadFactory) {
+        return new ParallelItemProcessor(properties.parallelism(), properties.parallelThreshold(),
+                processingThreadFactory);
+    }
+}
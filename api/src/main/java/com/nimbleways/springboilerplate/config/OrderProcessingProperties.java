@@ -0,0 +1,23 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param mode              whether the items of an order are run through their strategies one by one or in parallel
+ * @param parallelism       partitions, and threads, an order's items are spread over in parallel mode
+ * @param parallelThreshold orders with fewer items are processed on the calling thread even in parallel mode
+ */
+@ConstructorBinding
+@ConfigurationProperties("orders.processing")
+public record OrderProcessingProperties(
+        @DefaultValue("sequential") Mode mode,
+        @DefaultValue("4") int parallelism,
+        @DefaultValue("32") int parallelThreshold) {
+
+    public enum Mode {
+        SEQUENTIAL,
+        PARALLEL
+    }
+}
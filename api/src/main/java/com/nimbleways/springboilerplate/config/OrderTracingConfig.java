@@ -0,0 +1,31 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.nimbleways.springboilerplate.services.metrics.ConnectionWaitTrackingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(OrderTracingProperties.class)
+public class OrderTracingConfig {
+
+    /**
+     * Wraps every {@link DataSource} so traced calls see how long they waited for a connection. The pool itself stays
+     * reachable through {@code unwrap}, which is how its gauges get bound.
+     */
+    @Bean
+    public static BeanPostProcessor connectionWaitTracking() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionWaitTrackingDataSource)) {
+                    return new ConnectionWaitTrackingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
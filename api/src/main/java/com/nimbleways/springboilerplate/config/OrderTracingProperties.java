@@ -0,0 +1,16 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param slowThreshold {@code processOrder} calls taking at least this long log their full trace
+ */
+@ConstructorBinding
+@ConfigurationProperties("orders.tracing")
+public record OrderTracingProperties(
+        @DefaultValue("500ms") Duration slowThreshold) {
+}
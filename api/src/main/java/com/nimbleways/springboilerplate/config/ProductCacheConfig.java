@@ -0,0 +1,60 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.services.catalog.ProductAvailabilityIndex;
+import com.nimbleways.springboilerplate.services.catalog.ProductMetadataCache;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevelsRefresher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.util.EnumSet;
+import java.util.concurrent.ThreadFactory;
+
+@Configuration
+@EnableConfigurationProperties({ProductCacheProperties.class, ProductStockLevelsProperties.class})
+public class ProductCacheConfig {
+
+    @Bean
+    public ProductMetadataCache productMetadataCache(ProductRepository productRepository,
+                                                     ProductCacheProperties properties,
+                                                     MeterRegistry registry) {
+        return new ProductMetadataCache(productRepository, properties, registry);
+    }
+
+    /**
+     * Starts from the windows of every product that has one; later changes come through the entity listener.
+     */
+    @Bean
+    public ProductAvailabilityIndex productAvailabilityIndex(ProductRepository productRepository, Clock clock) {
+        var index = new ProductAvailabilityIndex(clock);
+        productRepository.findMetadataByTypeIn(EnumSet.of(ProductType.SEASONAL, ProductType.EXPIRABLE))
+                .forEach(index::put);
+        return index;
+    }
+
+    /**
+     * Starts from the stock of every product; later changes are reported by the writes themselves, and the
+     * refresher loads it all again now and then to catch up with other instances.
+     */
+    @Bean
+    public ProductStockLevels productStockLevels(ProductStockRepository productStockRepository) {
+        var levels = new ProductStockLevels();
+        levels.load(productStockRepository::forEachProduct);
+        return levels;
+    }
+
+    @Bean
+    public ProductStockLevelsRefresher productStockLevelsRefresher(ProductStockLevels productStockLevels,
+                                                                   ProductStockRepository productStockRepository,
+                                                                   ProductStockLevelsProperties properties,
+                                                                   ThreadFactory processingThreadFactory) {
+        return new ProductStockLevelsRefresher(productStockLevels, productStockRepository::forEachProduct,
+                properties.refreshInterval(), processingThreadFactory);
+    }
+}
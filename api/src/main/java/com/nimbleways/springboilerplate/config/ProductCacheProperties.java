@@ -0,0 +1,18 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maximumSize      number of products kept; beyond it the least valuable entries are evicted
+ * @param expireAfterWrite how long an entry is trusted, bounding staleness after changes made outside JPA
+ */
+@ConstructorBinding
+@ConfigurationProperties("products.cache")
+public record ProductCacheProperties(
+        @DefaultValue("100000") long maximumSize,
+        @DefaultValue("10m") Duration expireAfterWrite) {
+}
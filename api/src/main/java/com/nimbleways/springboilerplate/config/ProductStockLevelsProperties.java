@@ -0,0 +1,17 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param refreshInterval delay between two loads of the stock levels from every product, bounding how far they
+ *                        drift from the stock other instances take; 0 turns the loads off
+ */
+@ConstructorBinding
+@ConfigurationProperties("products.stock-levels")
+public record ProductStockLevelsProperties(
+        @DefaultValue("1m") Duration refreshInterval) {
+}
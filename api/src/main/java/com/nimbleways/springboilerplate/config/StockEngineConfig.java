@@ -0,0 +1,77 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.repositories.StockLedgerCheckpointRepository;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.stock.DatabaseStockEngine;
+import com.nimbleways.springboilerplate.services.stock.ImmediateStockGateway;
+import com.nimbleways.springboilerplate.services.stock.OptimisticStockEngine;
+import com.nimbleways.springboilerplate.services.stock.StockRetryPolicy;
+import com.nimbleways.springboilerplate.services.stock.VersionedStockEngine;
+import com.nimbleways.springboilerplate.services.stock.ledger.LedgerStockEngine;
+import com.nimbleways.springboilerplate.services.stock.ledger.StockLedger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.ThreadFactory;
+
+@Configuration
+@EnableConfigurationProperties({StockLedgerProperties.class, StockRetryProperties.class})
+public class StockEngineConfig {
+
+    private static final String LEDGER_PROPERTY = "stock.ledger.enabled";
+
+    @Bean
+    @ConditionalOnExpression("!${stock.ledger.enabled:false} and '${stock.writes:conditional}' == 'conditional'")
+    public DatabaseStockEngine databaseStockEngine(ImmediateStockGateway immediateStockGateway,
+                                                   ProductStockRepository productStockRepository,
+                                                   OrderProcessingMetrics metrics) {
+        return new DatabaseStockEngine(immediateStockGateway, productStockRepository, metrics);
+    }
+
+    @Bean
+    @ConditionalOnExpression("!${stock.ledger.enabled:false} and '${stock.writes:conditional}' == 'versioned'")
+    public VersionedStockEngine versionedStockEngine(ProductRepository productRepository,
+                                                     EntityManager entityManager,
+                                                     OrderProcessingMetrics metrics) {
+        return new VersionedStockEngine(productRepository, entityManager, metrics);
+    }
+
+    @Bean
+    @ConditionalOnExpression("!${stock.ledger.enabled:false} and '${stock.writes:conditional}' == 'optimistic'")
+    public OptimisticStockEngine optimisticStockEngine(ProductStockRepository productStockRepository,
+                                                       OrderProcessingMetrics metrics) {
+        return new OptimisticStockEngine(productStockRepository, metrics);
+    }
+
+    @Bean
+    public StockRetryPolicy stockRetryPolicy(StockRetryProperties properties, OrderProcessingMetrics metrics) {
+        return new StockRetryPolicy(properties.maxAttempts(), properties.initialBackoff(), properties.maxBackoff(),
+                metrics);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = LEDGER_PROPERTY, havingValue = "true")
+    public StockLedger stockLedger(StockLedgerProperties properties,
+                                   ProductStockRepository productStockRepository,
+                                   StockLedgerCheckpointRepository checkpointRepository,
+                                   TransactionTemplate transactionTemplate) {
+        return StockLedger.create(properties.name(), properties.journalDirectory(), properties.stripes(),
+                productStockRepository, checkpointRepository, transactionTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = LEDGER_PROPERTY, havingValue = "true")
+    public LedgerStockEngine ledgerStockEngine(StockLedger stockLedger,
+                                               StockLedgerProperties properties,
+                                               ThreadFactory processingThreadFactory,
+                                               OrderProcessingMetrics metrics) {
+        return new LedgerStockEngine(stockLedger, properties.flushInterval(), processingThreadFactory, metrics);
+    }
+}
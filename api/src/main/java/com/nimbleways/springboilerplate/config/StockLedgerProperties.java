@@ -0,0 +1,26 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param enabled          serve stock from the in-memory ledger instead of the {@code products} table
+ * @param name             journal file prefix and checkpoint key, unique per ledger sharing a database
+ * @param journalDirectory local directory of the append-only journal, which must survive a restart
+ * @param flushInterval    delay between two flushes of the journaled deltas to the database
+ * @param stripes          cells each product's counter is split into, a power of two; 1 keeps a single counter,
+ *                         each further cell costs a cache line per product touched
+ */
+@ConstructorBinding
+@ConfigurationProperties("stock.ledger")
+public record StockLedgerProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("products") String name,
+        @DefaultValue("stock-ledger") Path journalDirectory,
+        @DefaultValue("1s") Duration flushInterval,
+        @DefaultValue("8") int stripes) {
+}
@@ -0,0 +1,65 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.repositories.StockReservationRepository;
+import com.nimbleways.springboilerplate.services.catalog.ProductMetadataCache;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.stock.ledger.LedgerStockHolds;
+import com.nimbleways.springboilerplate.services.stock.ledger.StockLedger;
+import com.nimbleways.springboilerplate.services.stock.reservation.DatabaseStockHolds;
+import com.nimbleways.springboilerplate.services.stock.reservation.ReservationSweeper;
+import com.nimbleways.springboilerplate.services.stock.reservation.StockHolds;
+import com.nimbleways.springboilerplate.services.stock.reservation.StockReservations;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.concurrent.ThreadFactory;
+
+@Configuration
+@EnableConfigurationProperties(StockReservationProperties.class)
+public class StockReservationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "stock.ledger.enabled", havingValue = "false", matchIfMissing = true)
+    public DatabaseStockHolds databaseStockHolds(ProductStockRepository productStockRepository) {
+        return new DatabaseStockHolds(productStockRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "stock.ledger.enabled", havingValue = "true")
+    public LedgerStockHolds ledgerStockHolds(StockLedger stockLedger) {
+        return new LedgerStockHolds(stockLedger);
+    }
+
+    @Bean
+    public StockReservations stockReservations(OrderRepository orderRepository,
+                                               ProcessedOrderRepository processedOrderRepository,
+                                               ProductMetadataCache productMetadataCache,
+                                               ProductStrategyRegistry strategies,
+                                               StockHolds stockHolds,
+                                               StockReservationRepository reservationRepository,
+                                               ProductStockLevels stockLevels,
+                                               TransactionTemplate transactionTemplate,
+                                               OrderProcessingMetrics metrics,
+                                               Clock clock,
+                                               StockReservationProperties properties) {
+        return new StockReservations(orderRepository, processedOrderRepository, productMetadataCache, strategies,
+                stockHolds, reservationRepository, stockLevels, transactionTemplate, metrics, clock, properties.ttl(),
+                properties.batchSize());
+    }
+
+    @Bean
+    public ReservationSweeper reservationSweeper(StockReservations stockReservations,
+                                                 StockReservationProperties properties,
+                                                 ThreadFactory processingThreadFactory) {
+        return new ReservationSweeper(stockReservations, properties.sweepInterval(), processingThreadFactory);
+    }
+}
@@ -0,0 +1,20 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param ttl           how long stock stays held for an order that is not confirmed
+ * @param sweepInterval delay between two passes applying confirmed reservations and releasing expired ones
+ * @param batchSize     reservations applied, or released, per transaction
+ */
+@ConstructorBinding
+@ConfigurationProperties("stock.reservations")
+public record StockReservationProperties(
+        @DefaultValue("5m") Duration ttl,
+        @DefaultValue("1s") Duration sweepInterval,
+        @DefaultValue("1000") int batchSize) {
+}
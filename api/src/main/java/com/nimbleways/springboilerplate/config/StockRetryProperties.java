@@ -0,0 +1,20 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maxAttempts    writes of a run's stock before its conflicting products fail it, the first one included
+ * @param initialBackoff upper bound of the random pause before the first retry, doubled on each further one
+ * @param maxBackoff     cap on that upper bound; the pause is spent inside the run's transaction
+ */
+@ConstructorBinding
+@ConfigurationProperties("stock.retry")
+public record StockRetryProperties(
+        @DefaultValue("4") int maxAttempts,
+        @DefaultValue("5ms") Duration initialBackoff,
+        @DefaultValue("100ms") Duration maxBackoff) {
+}
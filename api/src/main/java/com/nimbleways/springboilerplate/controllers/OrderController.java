@@ -1,26 +1,83 @@
 package com.nimbleways.springboilerplate.controllers;
 
+import com.nimbleways.springboilerplate.dto.product.CreateOrderRequest;
+import com.nimbleways.springboilerplate.dto.product.CreateOrderResponse;
+import com.nimbleways.springboilerplate.dto.product.OrderIngestionResponse;
+import com.nimbleways.springboilerplate.dto.product.ProcessBatchRequest;
 import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
-import com.nimbleways.springboilerplate.services.implementations.OrderProcessingService;
+import com.nimbleways.springboilerplate.dto.product.ReservationResponse;
+import com.nimbleways.springboilerplate.services.implementations.IdempotentOrderProcessor;
+import com.nimbleways.springboilerplate.services.ingestion.OrderIngestionService;
+import com.nimbleways.springboilerplate.services.stock.reservation.StockReservations;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.validation.Valid;
+import java.io.InputStream;
+import java.util.List;
+
 @RestController
 @RequestMapping("/orders")
+@Profile("!reactive")
 public class OrderController {
 
-    private final OrderProcessingService orderProcessingService;
+    private final IdempotentOrderProcessor idempotentOrderProcessor;
+    private final StockReservations stockReservations;
+    private final OrderIngestionService orderIngestionService;
+
+    public OrderController(IdempotentOrderProcessor idempotentOrderProcessor,
+                           StockReservations stockReservations,
+                           OrderIngestionService orderIngestionService) {
+        this.idempotentOrderProcessor = idempotentOrderProcessor;
+        this.stockReservations = stockReservations;
+        this.orderIngestionService = orderIngestionService;
+    }
+
+    /**
+     * Creates one order, and processes it in the same transaction if {@code process} is set.
+     */
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CreateOrderResponse> create(@Valid @RequestBody CreateOrderRequest request,
+                                                      @RequestParam(defaultValue = "false") boolean process) {
+        var orderId = orderIngestionService.create(request, process);
+        return ResponseEntity.status(HttpStatus.CREATED).body(new CreateOrderResponse(orderId, process));
+    }
 
-    public OrderController(OrderProcessingService orderProcessingService) {
-        this.orderProcessingService = orderProcessingService;
+    /**
+     * Creates the orders of a newline-delimited JSON stream, one order per line, committed a chunk at a time; a
+     * failed stream answers with the orders created before the failure.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<OrderIngestionResponse> ingest(InputStream body,
+                                                         @RequestParam(defaultValue = "false") boolean process) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(orderIngestionService.ingest(body, process));
     }
 
     @PostMapping("/{orderId}/processOrder")
     public ResponseEntity<ProcessOrderResponse> processOrder(@PathVariable Long orderId) {
-        var order = orderProcessingService.processOrder(orderId);
-        return ResponseEntity.ok(new ProcessOrderResponse(order.getId()));
+        return ResponseEntity.ok(idempotentOrderProcessor.processOrder(orderId));
+    }
+
+    @PostMapping("/processBatch")
+    public ResponseEntity<List<ProcessOrderResponse>> processBatch(@Valid @RequestBody ProcessBatchRequest request) {
+        return ResponseEntity.ok(idempotentOrderProcessor.processOrders(request.orderIds()));
+    }
+
+    @PostMapping("/{orderId}/reserve")
+    public ResponseEntity<ReservationResponse> reserve(@PathVariable Long orderId) {
+        return ResponseEntity.ok(ReservationResponse.of(stockReservations.reserve(orderId)));
+    }
+
+    @PostMapping("/{orderId}/confirm")
+    public ResponseEntity<ReservationResponse> confirm(@PathVariable Long orderId) {
+        return ResponseEntity.ok(ReservationResponse.of(stockReservations.confirm(orderId)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import com.nimbleways.springboilerplate.dto.product.ProductWindowResponse;
+import com.nimbleways.springboilerplate.dto.product.StockLevelResponse;
+import com.nimbleways.springboilerplate.services.catalog.ProductAvailabilityIndex;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/products")
+public class ProductController {
+
+    private final ProductAvailabilityIndex availabilityIndex;
+    private final ProductStockLevels stockLevels;
+
+    public ProductController(ProductAvailabilityIndex availabilityIndex, ProductStockLevels stockLevels) {
+        this.availabilityIndex = availabilityIndex;
+        this.stockLevels = stockLevels;
+    }
+
+    /**
+     * Products that expire, or whose season ends, within the next {@code days} days, soonest first.
+     */
+    @GetMapping("/closing")
+    public ResponseEntity<List<ProductWindowResponse>> closing(@RequestParam(defaultValue = "7") int days) {
+        return ResponseEntity.ok(availabilityIndex.closingWithin(availabilityIndex.today(), days).stream()
+                .map(ProductWindowResponse::of)
+                .toList());
+    }
+
+    /**
+     * Units available by product type and by the month products expire or their season ends, as of the last
+     * committed stock change.
+     */
+    @GetMapping("/stock")
+    public ResponseEntity<List<StockLevelResponse>> stock() {
+        return ResponseEntity.ok(stockLevels.snapshot().stream()
+                .map(StockLevelResponse::of)
+                .toList());
+    }
+}
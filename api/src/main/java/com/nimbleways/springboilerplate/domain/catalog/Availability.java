@@ -0,0 +1,16 @@
+package com.nimbleways.springboilerplate.domain.catalog;
+
+/**
+ * Where a product stands on a given day with respect to the window it can be sold in: before its expiry date,
+ * or within its season. Products without a window are always {@link #DELIVERABLE}.
+ */
+public enum Availability {
+    /** On or past its expiry date. */
+    EXPIRED,
+    /** Before its season starts, or on or after the day it ends. */
+    OUT_OF_SEASON,
+    /** Within its window, but a restock ordered today would arrive once the window has closed. */
+    SELLABLE,
+    /** Within its window, and a restock ordered today would arrive before it closes. */
+    DELIVERABLE
+}
@@ -0,0 +1,37 @@
+package com.nimbleways.springboilerplate.domain.catalog;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Product;
+
+import java.time.LocalDate;
+
+/**
+ * The rarely changing part of a {@link Product}: everything the strategies read except the stock counter,
+ * which only the {@link com.nimbleways.springboilerplate.domain.stock.StockGateway} knows about.
+ */
+public record ProductMetadata(
+        Long id,
+        ProductType type,
+        String name,
+        Integer leadTime,
+        LocalDate expiryDate,
+        LocalDate seasonStartDate,
+        LocalDate seasonEndDate) {
+
+    public static ProductMetadata of(Product product) {
+        return new ProductMetadata(product.getId(), product.getType(), product.getName(), product.getLeadTime(),
+                product.getExpiryDate(), product.getSeasonStartDate(), product.getSeasonEndDate());
+    }
+
+    /**
+     * @return the day the product stops being sellable, its expiry date or the end of its season, or {@code null}
+     * for a product sold all year round
+     */
+    public LocalDate closes() {
+        return switch (type) {
+            case NORMAL -> null;
+            case SEASONAL -> seasonEndDate;
+            case EXPIRABLE -> expiryDate;
+        };
+    }
+}
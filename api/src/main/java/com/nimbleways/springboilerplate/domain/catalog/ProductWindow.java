@@ -0,0 +1,11 @@
+package com.nimbleways.springboilerplate.domain.catalog;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+
+import java.time.LocalDate;
+
+/**
+ * The day a product stops being sellable: its expiry date, or the end of its season.
+ */
+public record ProductWindow(Long productId, ProductType type, String name, LocalDate closes) {
+}
@@ -0,0 +1,16 @@
+package com.nimbleways.springboilerplate.domain.catalog;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+
+import java.time.YearMonth;
+
+/**
+ * The stock of the products of one type whose window closes in the same month; {@code closing} is {@code null} for
+ * products sold all year round.
+ *
+ * @param products   number of products in the level
+ * @param available  units available over all of them
+ * @param outOfStock number of them with no unit left
+ */
+public record StockLevel(ProductType type, YearMonth closing, long products, long available, long outOfStock) {
+}
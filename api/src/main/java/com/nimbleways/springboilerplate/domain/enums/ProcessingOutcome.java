@@ -0,0 +1,12 @@
+package com.nimbleways.springboilerplate.domain.enums;
+
+/**
+ * What happened to a single order item. Every outcome except {@link #DECREMENTED} goes with exactly one
+ * customer notification event.
+ */
+public enum ProcessingOutcome {
+    DECREMENTED,
+    DELAYED,
+    OUT_OF_STOCK,
+    EXPIRED
+}
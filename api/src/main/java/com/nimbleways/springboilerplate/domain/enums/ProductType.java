@@ -1,5 +1,10 @@
 package com.nimbleways.springboilerplate.domain.enums;
 
+/**
+ * Product types with a processing strategy. Adding one takes a constant here and a
+ * {@link com.nimbleways.springboilerplate.domain.strategy.ProductProcessingStrategy} bean returning it from
+ * {@code type()}; the application refuses to start while a type has no strategy.
+ */
 public enum ProductType {
     NORMAL,
     SEASONAL,
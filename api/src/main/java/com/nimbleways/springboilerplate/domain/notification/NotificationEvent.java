@@ -0,0 +1,28 @@
+package com.nimbleways.springboilerplate.domain.notification;
+
+import java.time.LocalDate;
+
+/**
+ * A customer notification requested while processing an order. Two events are equal when they would
+ * produce the same notification, which is what the dispatcher coalesces on.
+ */
+public record NotificationEvent(Kind kind, String productName, Integer leadTime, LocalDate expiryDate) {
+
+    public enum Kind {
+        DELAY,
+        OUT_OF_STOCK,
+        EXPIRATION
+    }
+
+    public static NotificationEvent delay(int leadTime, String productName) {
+        return new NotificationEvent(Kind.DELAY, productName, leadTime, null);
+    }
+
+    public static NotificationEvent outOfStock(String productName) {
+        return new NotificationEvent(Kind.OUT_OF_STOCK, productName, null, null);
+    }
+
+    public static NotificationEvent expiration(String productName, LocalDate expiryDate) {
+        return new NotificationEvent(Kind.EXPIRATION, productName, null, expiryDate);
+    }
+}
@@ -0,0 +1,17 @@
+package com.nimbleways.springboilerplate.domain.stock;
+
+import java.util.Set;
+
+/**
+ * A gateway whose {@link #complete()} writes every product it can and fails with a
+ * {@link com.nimbleways.springboilerplate.exceptions.StockConflictException} naming only the products that changed
+ * concurrently. Those can be read again and their items processed again, without giving up the rest of the run.
+ */
+public interface RetryableStockGateway extends StockGateway {
+
+    /**
+     * Drops what the run took from the given products and starts them again from their current stock, so the
+     * next {@link #complete()} only writes what their items take once processed again.
+     */
+    void reload(Set<Long> productIds);
+}
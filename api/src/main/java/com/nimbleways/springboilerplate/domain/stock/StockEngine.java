@@ -0,0 +1,21 @@
+package com.nimbleways.springboilerplate.domain.stock;
+
+import java.util.Collection;
+
+/**
+ * Hands out the {@link StockGateway} of each processing run. A gateway serves a single run; only batch
+ * gateways may be called from several threads of that run.
+ */
+public interface StockEngine {
+
+    /**
+     * @param productIds the products of the order, for engines that read their stock up front
+     */
+    StockGateway forOrder(Collection<Long> productIds);
+
+    /**
+     * @param productIds every product the batch may take stock from, so their stock can be read up front
+     * @return a gateway that may be called concurrently for the run's items, and writes when the run completes
+     */
+    StockGateway forBatch(Collection<Long> productIds);
+}
@@ -0,0 +1,20 @@
+package com.nimbleways.springboilerplate.domain.stock;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+
+public interface StockGateway {
+
+    /**
+     * Takes one unit of the product out of stock.
+     *
+     * @return {@code true} when a unit was taken, {@code false} when the product is out of stock
+     */
+    boolean tryDecrement(ProductMetadata product);
+
+    /**
+     * Called once the run has been through every item, still inside its transaction, to write whatever
+     * the gateway kept pending.
+     */
+    default void complete() {
+    }
+}
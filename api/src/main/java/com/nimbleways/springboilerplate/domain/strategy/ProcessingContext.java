@@ -0,0 +1,33 @@
+package com.nimbleways.springboilerplate.domain.strategy;
+
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.domain.stock.StockGateway;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State shared by every item of a single processing run (one order or one batch of orders).
+ * {@code today} is read from the clock once, when the run starts, so every item of the run is processed as of
+ * the same day even if the run straddles midnight.
+ * Notifications are only collected here; they are sent once the run's transaction has committed.
+ */
+public record ProcessingContext(StockGateway stock, LocalDate today, List<NotificationEvent> notifications) {
+
+    public ProcessingContext(StockGateway stock, LocalDate today) {
+        this(stock, today, new ArrayList<>());
+    }
+
+    /**
+     * A context sharing this run's stock and date that collects the notifications of a single item, so they can be
+     * merged back in item order, or dropped when the item has to be processed again.
+     */
+    public ProcessingContext forItem() {
+        return new ProcessingContext(stock, today, new ArrayList<>(1));
+    }
+
+    public void enqueue(NotificationEvent event) {
+        notifications.add(event);
+    }
+}
@@ -1,7 +1,15 @@
 package com.nimbleways.springboilerplate.domain.strategy;
 
-import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
 
 public interface ProductProcessingStrategy {
-    void process(Product product);
+
+    /**
+     * The product type this strategy handles; exactly one strategy bean must exist per {@link ProductType}.
+     */
+    ProductType type();
+
+    ProcessingOutcome process(ProductMetadata product, ProcessingContext context);
 }
@@ -0,0 +1,11 @@
+package com.nimbleways.springboilerplate.dto.product;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * An order to create, by the ids of its products; a product listed twice is ordered once.
+ */
+public record CreateOrderRequest(@NotEmpty List<@NotNull Long> productIds) {
+}
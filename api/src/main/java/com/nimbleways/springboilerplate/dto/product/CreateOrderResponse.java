@@ -0,0 +1,7 @@
+package com.nimbleways.springboilerplate.dto.product;
+
+/**
+ * @param processed whether the order was processed in the transaction that created it
+ */
+public record CreateOrderResponse(Long id, boolean processed) {
+}
@@ -0,0 +1,20 @@
+package com.nimbleways.springboilerplate.dto.product;
+
+import com.nimbleways.springboilerplate.dto.ErrorResponse;
+import lombok.Getter;
+
+/**
+ * The error that stopped a stream of orders, with the orders created before it: a client resumes the stream after
+ * its first {@code orders} lines.
+ */
+@Getter
+public class OrderIngestionErrorResponse extends ErrorResponse {
+    private final long orders;
+    private final long items;
+
+    public OrderIngestionErrorResponse(int status, String title, String message, OrderIngestionResponse ingested) {
+        super(status, title, message);
+        this.orders = ingested.orders();
+        this.items = ingested.items();
+    }
+}
@@ -0,0 +1,9 @@
+package com.nimbleways.springboilerplate.dto.product;
+
+/**
+ * @param orders    orders created from the stream
+ * @param items     order items created from the stream
+ * @param processed whether the orders were processed in the transaction that created them
+ */
+public record OrderIngestionResponse(long orders, long items, boolean processed) {
+}
@@ -0,0 +1,8 @@
+package com.nimbleways.springboilerplate.dto.product;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+public record ProcessBatchRequest(@NotEmpty List<@NotNull Long> orderIds) {
+}
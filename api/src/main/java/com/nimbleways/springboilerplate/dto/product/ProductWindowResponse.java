@@ -0,0 +1,13 @@
+package com.nimbleways.springboilerplate.dto.product;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductWindow;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+
+import java.time.LocalDate;
+
+public record ProductWindowResponse(Long id, ProductType type, String name, LocalDate closes) {
+
+    public static ProductWindowResponse of(ProductWindow window) {
+        return new ProductWindowResponse(window.productId(), window.type(), window.name(), window.closes());
+    }
+}
@@ -0,0 +1,15 @@
+package com.nimbleways.springboilerplate.dto.product;
+
+import com.nimbleways.springboilerplate.services.stock.reservation.Reservation;
+
+import java.time.Instant;
+
+/**
+ * @param confirmed whether the stock will be taken; it is taken asynchronously, shortly after confirmation
+ */
+public record ReservationResponse(Long id, Instant expiresAt, boolean confirmed) {
+
+    public static ReservationResponse of(Reservation reservation) {
+        return new ReservationResponse(reservation.orderId(), reservation.expiresAt(), reservation.isConfirmed());
+    }
+}
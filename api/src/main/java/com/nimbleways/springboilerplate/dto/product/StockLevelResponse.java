@@ -0,0 +1,14 @@
+package com.nimbleways.springboilerplate.dto.product;
+
+import com.nimbleways.springboilerplate.domain.catalog.StockLevel;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+
+import java.time.YearMonth;
+
+public record StockLevelResponse(ProductType type, YearMonth closing, long products, long available, long outOfStock) {
+
+    public static StockLevelResponse of(StockLevel level) {
+        return new StockLevelResponse(level.type(), level.closing(), level.products(), level.available(),
+                level.outOfStock());
+    }
+}
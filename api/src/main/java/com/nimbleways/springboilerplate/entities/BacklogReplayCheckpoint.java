@@ -0,0 +1,32 @@
+package com.nimbleways.springboilerplate.entities;
+
+import lombok.*;
+
+import java.time.Instant;
+
+import javax.persistence.*;
+
+/**
+ * Progress of a backlog replay job: orders up to {@code lastOrderId} are done. Written in the transaction of
+ * each chunk, so a resumed job starts right after the last committed chunk.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "backlog_replay_checkpoints")
+public class BacklogReplayCheckpoint {
+    @Id
+    @Column(name = "job")
+    private String job;
+
+    @Column(name = "last_order_id", nullable = false)
+    private Long lastOrderId;
+
+    @Column(name = "processed_orders", nullable = false)
+    private Long processedOrders;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
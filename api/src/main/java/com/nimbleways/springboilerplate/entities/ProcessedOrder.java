@@ -0,0 +1,26 @@
+package com.nimbleways.springboilerplate.entities;
+
+import lombok.*;
+
+import java.time.Instant;
+
+import javax.persistence.*;
+
+/**
+ * Marks an order as processed. Kept apart from {@link Order} so the order entity stays untouched; the primary
+ * key on {@code order_id} is what makes concurrent retries of the same order mutually exclusive.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "processed_orders")
+public class ProcessedOrder {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "processed_at", nullable = false)
+    private Instant processedAt;
+}
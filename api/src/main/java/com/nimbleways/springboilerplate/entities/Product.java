@@ -1,20 +1,29 @@
 package com.nimbleways.springboilerplate.entities;
 
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.services.catalog.ProductMetadataInvalidator;
 import lombok.*;
 
 import java.time.LocalDate;
 
 import javax.persistence.*;
 
+/**
+ * Ids come from a pooled sequence, so inserts can be batched; {@code version} is bumped by every stock write,
+ * whether through dirty checking or through the conditional SQL updates. {@code held} is the part of
+ * {@code available} that pending reservations hold; it is only written by their SQL updates.
+ */
 @Entity
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "products")
+@EntityListeners(ProductMetadataInvalidator.class)
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -24,8 +33,12 @@ public class Product {
     @Column(name = "available")
     private Integer available;
 
+    @Column(name = "held", insertable = false, updatable = false)
+    private Integer held;
+
     @Column(name = "type")
-    private String type;
+    @Convert(converter = ProductTypeConverter.class)
+    private ProductType type;
 
     @Column(name = "name")
     private String name;
@@ -38,4 +51,13 @@ public class Product {
 
     @Column(name = "season_end_date")
     private LocalDate seasonEndDate;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public Product(Long id, Integer leadTime, Integer available, ProductType type, String name,
+                   LocalDate expiryDate, LocalDate seasonStartDate, LocalDate seasonEndDate) {
+        this(id, leadTime, available, null, type, name, expiryDate, seasonStartDate, seasonEndDate, null);
+    }
 }
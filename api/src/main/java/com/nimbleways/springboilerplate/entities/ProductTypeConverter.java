@@ -0,0 +1,24 @@
+package com.nimbleways.springboilerplate.entities;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores {@link ProductType} by name. Reading a row with a type no strategy exists for fails the load,
+ * before any of its items is processed.
+ */
+@Converter
+public class ProductTypeConverter implements AttributeConverter<ProductType, String> {
+
+    @Override
+    public String convertToDatabaseColumn(ProductType type) {
+        return type == null ? null : type.name();
+    }
+
+    @Override
+    public ProductType convertToEntityAttribute(String type) {
+        return type == null ? null : ProductType.fromString(type);
+    }
+}
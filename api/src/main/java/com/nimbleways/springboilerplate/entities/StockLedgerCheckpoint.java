@@ -0,0 +1,24 @@
+package com.nimbleways.springboilerplate.entities;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * Last journal segment of a stock ledger whose deltas are in {@code products}, written in the same
+ * transaction as those deltas so a segment is never applied twice.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "stock_ledger_checkpoints")
+public class StockLedgerCheckpoint {
+    @Id
+    @Column(name = "journal")
+    private String journal;
+
+    @Column(name = "last_segment")
+    private Long lastSegment;
+}
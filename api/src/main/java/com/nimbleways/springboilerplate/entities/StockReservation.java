@@ -0,0 +1,48 @@
+package com.nimbleways.springboilerplate.entities;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.*;
+
+/**
+ * Stock held for one product of an order until the reservation is confirmed or expires. Confirmed rows are
+ * deleted in the same transaction that takes their quantity off {@code products.available}.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(StockReservation.Key.class)
+@Table(name = "stock_reservations")
+public class StockReservation {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "confirmed", nullable = false)
+    private Boolean confirmed;
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long orderId;
+        private Long productId;
+    }
+}
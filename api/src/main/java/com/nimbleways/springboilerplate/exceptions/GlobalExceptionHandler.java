@@ -1,10 +1,15 @@
 package com.nimbleways.springboilerplate.exceptions;
 
 import com.nimbleways.springboilerplate.dto.ErrorResponse;
+import com.nimbleways.springboilerplate.dto.product.OrderIngestionErrorResponse;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebInputException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -19,6 +24,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleReservationNotFound(ReservationNotFoundException ex) {
+        var errorResponse = new ErrorResponse(
+                HttpStatus.NOT_FOUND.value(),
+                "Reservation Not Found",
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(OrderAlreadyProcessedException.class)
+    public ResponseEntity<ErrorResponse> handleOrderAlreadyProcessed(OrderAlreadyProcessedException ex) {
+        var errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "Order Already Processed",
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
         var errorResponse = new ErrorResponse(
@@ -29,6 +54,74 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler({MethodArgumentNotValidException.class, HttpMessageNotReadableException.class,
+            ServerWebInputException.class})
+    public ResponseEntity<ErrorResponse> handleInvalidBody(Exception ex) {
+        var errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Invalid Request",
+                "Request body is missing or invalid"
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(StockConflictException.class)
+    public ResponseEntity<ErrorResponse> handleStockConflict(StockConflictException ex) {
+        var errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "Stock Conflict",
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * A deadlock or lock timeout the database broke by rolling the transaction back: nothing was written, and the
+     * same request can simply be sent again.
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        var errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "Concurrent Update",
+                "The request conflicted with a concurrent one and was rolled back; it can be retried"
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientStock(InsufficientStockException ex) {
+        var errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "Insufficient Stock",
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * A stream of orders stopped part way: answered like its cause, along with the orders created before it.
+     */
+    @ExceptionHandler(OrderIngestionException.class)
+    public ResponseEntity<OrderIngestionErrorResponse> handleOrderIngestion(OrderIngestionException ex) {
+        var cause = ex.getCause();
+        ErrorResponse error;
+        if (cause instanceof IllegalArgumentException e) {
+            error = handleIllegalArgument(e).getBody();
+        } else if (cause instanceof ConcurrencyFailureException e) {
+            error = handleConcurrencyFailure(e).getBody();
+        } else if (cause instanceof StockConflictException e) {
+            error = handleStockConflict(e).getBody();
+        } else if (cause instanceof InsufficientStockException e) {
+            error = handleInsufficientStock(e).getBody();
+        } else {
+            error = handleGenericException(ex).getBody();
+        }
+        var errorResponse = new OrderIngestionErrorResponse(error.getStatus(), error.getTitle(), error.getMessage(),
+                ex.getIngested());
+        return new ResponseEntity<>(errorResponse, HttpStatus.valueOf(error.getStatus()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         var errorResponse = new ErrorResponse(
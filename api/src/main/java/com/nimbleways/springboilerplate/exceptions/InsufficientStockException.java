@@ -0,0 +1,7 @@
+package com.nimbleways.springboilerplate.exceptions;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(Long productId) {
+        super("Not enough stock left to reserve product with id: " + productId);
+    }
+}
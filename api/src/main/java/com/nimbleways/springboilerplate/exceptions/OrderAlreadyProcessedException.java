@@ -0,0 +1,7 @@
+package com.nimbleways.springboilerplate.exceptions;
+
+public class OrderAlreadyProcessedException extends RuntimeException {
+    public OrderAlreadyProcessedException(Long orderId) {
+        super("Order was already processed, id: " + orderId);
+    }
+}
@@ -0,0 +1,24 @@
+package com.nimbleways.springboilerplate.exceptions;
+
+import com.nimbleways.springboilerplate.dto.product.OrderIngestionResponse;
+
+/**
+ * A stream of orders that failed part way: its cause rolled back the chunk it happened in, while the chunks before
+ * it stay committed.
+ */
+public class OrderIngestionException extends RuntimeException {
+
+    private final transient OrderIngestionResponse ingested;
+
+    public OrderIngestionException(OrderIngestionResponse ingested, RuntimeException cause) {
+        super(cause.getMessage(), cause);
+        this.ingested = ingested;
+    }
+
+    /**
+     * @return the orders the committed chunks created, the first lines of the stream
+     */
+    public OrderIngestionResponse getIngested() {
+        return ingested;
+    }
+}
@@ -0,0 +1,7 @@
+package com.nimbleways.springboilerplate.exceptions;
+
+public class ReservationNotFoundException extends RuntimeException {
+    public ReservationNotFoundException(Long orderId) {
+        super("No pending stock reservation for order with id: " + orderId);
+    }
+}
@@ -0,0 +1,35 @@
+package com.nimbleways.springboilerplate.exceptions;
+
+import java.util.Set;
+
+public class StockConflictException extends RuntimeException {
+
+    private final Set<Long> productIds;
+
+    public StockConflictException(Long productId) {
+        super("Stock changed concurrently for product with id: " + productId);
+        this.productIds = Set.of(productId);
+    }
+
+    public StockConflictException(Long productId, Throwable cause) {
+        super("Stock changed concurrently for product with id: " + productId, cause);
+        this.productIds = Set.of(productId);
+    }
+
+    public StockConflictException(Throwable cause) {
+        super("Stock changed concurrently for products of the order", cause);
+        this.productIds = Set.of();
+    }
+
+    public StockConflictException(Set<Long> productIds) {
+        super("Stock changed concurrently for products with ids: " + productIds);
+        this.productIds = Set.copyOf(productIds);
+    }
+
+    /**
+     * @return the products known to have changed concurrently; empty when the writer could not tell which
+     */
+    public Set<Long> getProductIds() {
+        return productIds;
+    }
+}
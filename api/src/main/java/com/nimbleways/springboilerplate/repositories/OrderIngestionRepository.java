@@ -0,0 +1,65 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class OrderIngestionRepository {
+
+    private static final String INSERT_ORDER_SQL = "INSERT INTO orders DEFAULT VALUES";
+    private static final String INSERT_ITEM_SQL = "INSERT INTO order_items (order_id, product_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderIngestionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts {@code count} orders in a single JDBC batch, reading back the ids the database generated.
+     *
+     * @return the ids of the new orders, in insertion order
+     */
+    public List<Long> insertOrders(int count) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (var statement = connection.prepareStatement(INSERT_ORDER_SQL, new String[]{"id"})) {
+                for (int i = 0; i < count; i++) {
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                var ids = new ArrayList<Long>(count);
+                try (var keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != count) {
+                    throw new IllegalStateException("Inserted " + count + " orders but got " + ids.size() + " ids back");
+                }
+                return ids;
+            }
+        });
+    }
+
+    /**
+     * Inserts the items of the given orders in a single JDBC batch, {@code productIds.get(i)} being the products of
+     * {@code orderIds.get(i)}.
+     *
+     * @return the number of items inserted
+     */
+    public int insertItems(List<Long> orderIds, List<? extends Collection<Long>> productIds) {
+        var args = new ArrayList<Object[]>();
+        for (int i = 0; i < orderIds.size(); i++) {
+            for (var productId : productIds.get(i)) {
+                args.add(new Object[]{orderIds.get(i), productId});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, args);
+        return args.size();
+    }
+}
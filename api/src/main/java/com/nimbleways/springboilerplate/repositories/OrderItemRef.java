@@ -0,0 +1,10 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import com.nimbleways.springboilerplate.entities.Order;
+
+/**
+ * One item line of an order, carrying only the product id so product details can come from the metadata cache.
+ * An order without items yields a single ref with a {@code null} product id.
+ */
+public record OrderItemRef(Order order, Long productId) {
+}
@@ -1,11 +1,28 @@
 package com.nimbleways.springboilerplate.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.nimbleways.springboilerplate.entities.Order;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
     Optional<Order> findById(Long orderId);
+
+    /**
+     * Loads the orders and the ids of their products in one statement, leaving {@link Order#getItems()}
+     * uninitialized. Product details are read from the metadata cache instead.
+     */
+    default List<OrderItemRef> findItemRefsByOrderIdIn(Collection<Long> orderIds) {
+        return findOrdersWithProductIds(orderIds).stream()
+                .map(row -> new OrderItemRef((Order) row[0], (Long) row[1]))
+                .toList();
+    }
+
+    @Query("select o, p.id from Order o left join o.items p where o.id in :orderIds")
+    List<Object[]> findOrdersWithProductIds(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -0,0 +1,38 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.util.function.LongConsumer;
+
+@Repository
+public class PendingOrderRepository {
+
+    private static final String PENDING_SQL = "SELECT o.id FROM orders o WHERE o.id > ? "
+            + "AND NOT EXISTS (SELECT 1 FROM processed_orders p WHERE p.order_id = o.id) ORDER BY o.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PendingOrderRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams the ids of the orders above {@code afterOrderId} that were never processed, in ascending order,
+     * through a forward-only cursor holding at most {@code fetchSize} rows at a time.
+     * <p>
+     * Call it inside a transaction: some drivers, PostgreSQL's among them, only honour the fetch size with
+     * auto-commit off and otherwise read the whole result into memory.
+     */
+    public void forEachPendingId(long afterOrderId, int fetchSize, LongConsumer action) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(PENDING_SQL, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, afterOrderId);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(rs.getLong(1)));
+    }
+}
@@ -0,0 +1,66 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public class ProcessedOrderRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO processed_orders (order_id, processed_at) VALUES (?, ?)";
+    private static final String PROCESSED_SQL = "SELECT order_id FROM processed_orders WHERE order_id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProcessedOrderRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Claims the order for processing in the current transaction. A concurrent claim of the same order waits
+     * for this transaction and fails if it commits; a rollback releases the claim.
+     *
+     * @throws DuplicateKeyException if the order was already processed
+     */
+    public void markProcessed(Long orderId, Instant processedAt) {
+        jdbcTemplate.update(INSERT_SQL, orderId, Timestamp.from(processedAt));
+    }
+
+    /**
+     * Claims all given orders in a single JDBC batch, with the same semantics as {@link #markProcessed}.
+     *
+     * @throws DuplicateKeyException if any of the orders was already processed
+     */
+    public void markAllProcessed(Collection<Long> orderIds, Instant processedAt) {
+        var timestamp = Timestamp.from(processedAt);
+        var args = new ArrayList<Object[]>(orderIds.size());
+        for (var orderId : orderIds) {
+            args.add(new Object[]{orderId, timestamp});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    /**
+     * @return the given orders that were already processed
+     */
+    public Set<Long> findProcessedIn(List<Long> orderIds) {
+        var processed = new HashSet<Long>();
+        if (orderIds.isEmpty()) {
+            return processed;
+        }
+        var sql = String.format(PROCESSED_SQL, String.join(",", Collections.nCopies(orderIds.size(), "?")));
+        jdbcTemplate.query(sql, rs -> {
+            processed.add(rs.getLong(1));
+        }, orderIds.toArray());
+        return processed;
+    }
+}
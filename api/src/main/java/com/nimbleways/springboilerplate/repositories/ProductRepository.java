@@ -1,8 +1,15 @@
 package com.nimbleways.springboilerplate.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
 import com.nimbleways.springboilerplate.entities.Product;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -10,4 +17,26 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     Optional<Product> findById(Long productId);
 
     Optional<Product> findFirstByName(String name);
+
+    @Query("select new com.nimbleways.springboilerplate.domain.catalog.ProductMetadata(p.id, p.type, p.name, "
+            + "p.leadTime, p.expiryDate, p.seasonStartDate, p.seasonEndDate) from Product p where p.id in :productIds")
+    List<ProductMetadata> findMetadataByIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query("select new com.nimbleways.springboilerplate.domain.catalog.ProductMetadata(p.id, p.type, p.name, "
+            + "p.leadTime, p.expiryDate, p.seasonStartDate, p.seasonEndDate) from Product p where p.type in :types")
+    List<ProductMetadata> findMetadataByTypeIn(@Param("types") Collection<ProductType> types);
+
+    /**
+     * Takes one unit out of stock in a single conditional statement, so concurrent callers can neither
+     * oversell nor overwrite each other, and never a unit reservations hold. Managed {@link Product} instances are
+     * not refreshed.
+     *
+     * @return 1 if a unit was taken, 0 if the product was out of unheld stock
+     */
+    @Modifying
+    @Query("update Product p set p.available = p.available - 1, p.version = p.version + 1 "
+            + "where p.id = :productId and p.available - p.held > 0")
+    int decrementAvailable(@Param("productId") Long productId);
+
+    List<Product> findAllByIdIn(Collection<Long> productIds);
 }
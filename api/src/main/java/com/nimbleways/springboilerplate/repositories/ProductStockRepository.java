@@ -0,0 +1,236 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+@Repository
+public class ProductStockRepository {
+
+    private static final String DECREMENT_SQL = "UPDATE products SET available = available - ?, "
+            + "version = version + 1 WHERE id = ? AND available - held >= ?";
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE products SET available = available + ?, version = version + 1 WHERE id = ?";
+    // held cannot have changed since the read: every write of it bumps the version too
+    private static final String COMPARE_AND_SET_SQL =
+            "UPDATE products SET available = ? + held, version = version + 1 WHERE id = ? AND version = ?";
+    private static final String HOLD_SQL = "UPDATE products SET held = held + ?, version = version + 1 "
+            + "WHERE id = ? AND available - held >= ?";
+    private static final String TAKE_HELD_SQL = "UPDATE products SET available = available - ?, held = held - ?, "
+            + "version = version + 1 WHERE id = ?";
+    private static final String RELEASE_HELD_SQL =
+            "UPDATE products SET held = held - ?, version = version + 1 WHERE id = ?";
+    private static final String AVAILABLE_SQL = "SELECT id, available - held FROM products WHERE id IN (%s)";
+    private static final String STOCK_SQL = "SELECT id, available - held, version FROM products WHERE id IN (%s)";
+    private static final String HELD_SQL = "SELECT held FROM products WHERE id = ?";
+    private static final String PRODUCTS_SQL = "SELECT id, type, name, lead_time, expiry_date, season_start_date, "
+            + "season_end_date, available FROM products";
+    private static final int IN_LIST_CHUNK = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductStockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reads the stock of the given products that reservations do not hold, in chunks small enough for any
+     * database's IN-list limit.
+     *
+     * @return {@code available - held} keyed by product id; unknown ids are absent
+     */
+    public Map<Long, Integer> findAvailable(Collection<Long> productIds) {
+        var available = new HashMap<Long, Integer>(productIds.size() * 2);
+        queryInChunks(AVAILABLE_SQL, productIds, rs -> {
+            available.put(rs.getLong(1), rs.getInt(2));
+        });
+        return available;
+    }
+
+    /**
+     * Like {@link #findAvailable}, along with the version each row was read at.
+     */
+    public Map<Long, StockVersion> findStock(Collection<Long> productIds) {
+        var stock = new HashMap<Long, StockVersion>(productIds.size() * 2);
+        queryInChunks(STOCK_SQL, productIds, rs -> {
+            stock.put(rs.getLong(1), new StockVersion(rs.getInt(2), rs.getLong(3)));
+        });
+        return stock;
+    }
+
+    /**
+     * Hands over the metadata and stock of every product, one row at a time, so the catalog is never held as a
+     * whole.
+     */
+    public void forEachProduct(BiConsumer<ProductMetadata, Integer> consumer) {
+        jdbcTemplate.query(PRODUCTS_SQL, rs -> {
+            var product = new ProductMetadata(rs.getLong(1), ProductType.fromString(rs.getString(2)), rs.getString(3),
+                    rs.getObject(4, Integer.class), rs.getObject(5, LocalDate.class), rs.getObject(6, LocalDate.class),
+                    rs.getObject(7, LocalDate.class));
+            consumer.accept(product, rs.getInt(8));
+        });
+    }
+
+    /**
+     * @return the stock of the product that reservations hold, or 0 if it does not exist
+     */
+    public int findHeld(Long productId) {
+        return jdbcTemplate.query(HELD_SQL, rs -> rs.next() ? rs.getInt(1) : 0, productId);
+    }
+
+    /**
+     * Applies the decrements, keyed by product id, in a single JDBC batch, for the products whose stock not held
+     * still covers them; the others were changed concurrently and are left untouched.
+     *
+     * @return the ids of the products that no longer had enough stock, and were not decremented
+     */
+    public Set<Long> decrementAll(Map<Long, Integer> decrements) {
+        if (decrements.isEmpty()) {
+            return Set.of();
+        }
+        var entries = inLockOrder(decrements);
+        var args = new ArrayList<Object[]>(entries.size());
+        for (var entry : entries) {
+            args.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+
+        var conflicts = new HashSet<Long>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                conflicts.add(entries.get(i).getKey());
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Holds the given quantities, keyed by product id, in a single JDBC batch, for the products whose stock not
+     * held yet covers them.
+     *
+     * @return the ids of the products that did not have enough stock left, and were not held
+     */
+    public Set<Long> holdAll(Map<Long, Integer> quantities) {
+        var entries = inLockOrder(quantities);
+        var args = new ArrayList<Object[]>(entries.size());
+        for (var entry : entries) {
+            args.add(new Object[]{entry.getValue(), entry.getKey(), entry.getValue()});
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(HOLD_SQL, args);
+
+        var shortProductIds = new HashSet<Long>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                shortProductIds.add(entries.get(i).getKey());
+            }
+        }
+        return shortProductIds;
+    }
+
+    /**
+     * Takes the given held quantities, keyed by product id, off both {@code available} and {@code held} in a single
+     * JDBC batch.
+     */
+    public void takeHeldAll(Map<Long, Integer> quantities) {
+        var args = new ArrayList<Object[]>(quantities.size());
+        for (var entry : inLockOrder(quantities)) {
+            args.add(new Object[]{entry.getValue(), entry.getValue(), entry.getKey()});
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(TAKE_HELD_SQL, args);
+        }
+    }
+
+    /**
+     * Gives the given held quantities, keyed by product id, back to the stock that can be taken, in a single JDBC
+     * batch.
+     */
+    public void releaseHeldAll(Map<Long, Integer> quantities) {
+        var args = new ArrayList<Object[]>(quantities.size());
+        for (var entry : inLockOrder(quantities)) {
+            args.add(new Object[]{entry.getValue(), entry.getKey()});
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(RELEASE_HELD_SQL, args);
+        }
+    }
+
+    /**
+     * Sets the stock of each product, keyed by product id, in a single JDBC batch, provided its row is still at
+     * the expected version. Rows that moved on are left untouched, the others are written and hold their lock
+     * until the transaction ends; nothing waits on a lock taken at read time.
+     *
+     * @return the ids of the products whose row was no longer at the expected version
+     */
+    public Set<Long> compareAndSetAll(Map<Long, StockVersion> updates) {
+        if (updates.isEmpty()) {
+            return Set.of();
+        }
+        var productIds = new ArrayList<Long>(updates.size());
+        var args = new ArrayList<Object[]>(updates.size());
+        for (var entry : inLockOrder(updates)) {
+            productIds.add(entry.getKey());
+            args.add(new Object[]{entry.getValue().available(), entry.getKey(), entry.getValue().version()});
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(COMPARE_AND_SET_SQL, args);
+
+        var conflicts = new HashSet<Long>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                conflicts.add(productIds.get(i));
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Adds each delta, keyed by product id, to the stored stock in a single JDBC batch, without any check:
+     * the caller has already decided that the resulting stock is valid.
+     */
+    public void applyDeltas(Map<Long, Long> deltas) {
+        var args = new ArrayList<Object[]>(deltas.size());
+        for (var entry : inLockOrder(deltas)) {
+            if (entry.getValue() != 0) {
+                args.add(new Object[]{entry.getValue(), entry.getKey()});
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, args);
+        }
+    }
+
+    /**
+     * Every batch writes its rows in ascending id order, so transactions writing overlapping sets of products lock
+     * them in the same order and wait on one another instead of deadlocking.
+     */
+    private static <V> List<Map.Entry<Long, V>> inLockOrder(Map<Long, V> byProductId) {
+        var entries = new ArrayList<>(byProductId.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        return entries;
+    }
+
+    private void queryInChunks(String sqlTemplate, Collection<Long> productIds, RowCallbackHandler handler) {
+        var ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK, ids.size()));
+            var sql = String.format(sqlTemplate, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            jdbcTemplate.query(sql, handler, chunk.toArray());
+        }
+    }
+}
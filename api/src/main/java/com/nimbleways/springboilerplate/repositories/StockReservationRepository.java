@@ -0,0 +1,112 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class StockReservationRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO stock_reservations "
+            + "(order_id, product_id, quantity, expires_at, confirmed) VALUES (?, ?, ?, ?, FALSE)";
+    private static final String CONFIRM_SQL = "UPDATE stock_reservations SET confirmed = TRUE "
+            + "WHERE order_id = ? AND confirmed = FALSE AND expires_at > ?";
+    private static final String SELECT_SQL =
+            "SELECT order_id, product_id, quantity, expires_at, confirmed FROM stock_reservations ";
+    private static final String FIND_SQL = SELECT_SQL + "WHERE order_id = ?";
+    private static final String FIND_CONFIRMED_SQL = SELECT_SQL + "WHERE order_id IN (SELECT DISTINCT order_id "
+            + "FROM stock_reservations WHERE confirmed = TRUE ORDER BY order_id LIMIT ?) ORDER BY order_id";
+    private static final String FIND_EXPIRED_SQL = SELECT_SQL + "WHERE order_id IN (SELECT DISTINCT order_id "
+            + "FROM stock_reservations WHERE confirmed = FALSE AND expires_at <= ? ORDER BY order_id LIMIT ?) "
+            + "ORDER BY order_id";
+    private static final String DELETE_CONFIRMED_SQL =
+            "DELETE FROM stock_reservations WHERE order_id = ? AND confirmed = TRUE";
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM stock_reservations WHERE order_id = ? AND confirmed = FALSE AND expires_at <= ?";
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(
+            rs.getLong(1),
+            rs.getLong(2),
+            rs.getInt(3),
+            rs.getTimestamp(4).toInstant(),
+            rs.getBoolean(5));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockReservationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the quantities held for an order, keyed by product id, in a single JDBC batch.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if the order already has a reservation
+     */
+    public void insertAll(Long orderId, Map<Long, Integer> quantities, Instant expiresAt) {
+        var expiry = Timestamp.from(expiresAt);
+        var args = new ArrayList<Object[]>(quantities.size());
+        quantities.forEach((productId, quantity) -> args.add(new Object[]{orderId, productId, quantity, expiry}));
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    /**
+     * Confirms the reservation of the order, unless it is confirmed already or expired at {@code now}.
+     *
+     * @return whether it was confirmed by this call
+     */
+    public boolean confirm(Long orderId, Instant now) {
+        return jdbcTemplate.update(CONFIRM_SQL, orderId, Timestamp.from(now)) > 0;
+    }
+
+    /**
+     * @return the rows of the order's reservation, empty if it has none
+     */
+    public List<Row> findByOrderId(Long orderId) {
+        return jdbcTemplate.query(FIND_SQL, ROW_MAPPER, orderId);
+    }
+
+    /**
+     * @return the rows of up to {@code limit} confirmed reservations, grouped by order id
+     */
+    public List<Row> findConfirmed(int limit) {
+        return jdbcTemplate.query(FIND_CONFIRMED_SQL, ROW_MAPPER, limit);
+    }
+
+    /**
+     * @return the rows of up to {@code limit} reservations expired unconfirmed at {@code now}, grouped by order id
+     */
+    public List<Row> findExpired(Instant now, int limit) {
+        return jdbcTemplate.query(FIND_EXPIRED_SQL, ROW_MAPPER, Timestamp.from(now), limit);
+    }
+
+    /**
+     * Deletes the confirmed reservations of the given orders in a single JDBC batch.
+     *
+     * @return the rows deleted for each order, in the given order; 0 for a reservation gone meanwhile
+     */
+    public int[] deleteConfirmed(List<Long> orderIds) {
+        var args = new ArrayList<Object[]>(orderIds.size());
+        orderIds.forEach(orderId -> args.add(new Object[]{orderId}));
+        return jdbcTemplate.batchUpdate(DELETE_CONFIRMED_SQL, args);
+    }
+
+    /**
+     * Deletes the reservations of the given orders that expired unconfirmed at {@code now} in a single JDBC batch.
+     *
+     * @return the rows deleted for each order, in the given order; 0 for a reservation confirmed or gone meanwhile
+     */
+    public int[] deleteExpired(List<Long> orderIds, Instant now) {
+        var timestamp = Timestamp.from(now);
+        var args = new ArrayList<Object[]>(orderIds.size());
+        orderIds.forEach(orderId -> args.add(new Object[]{orderId, timestamp}));
+        return jdbcTemplate.batchUpdate(DELETE_EXPIRED_SQL, args);
+    }
+
+    public record Row(Long orderId, Long productId, int quantity, Instant expiresAt, boolean confirmed) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.nimbleways.springboilerplate.repositories;
+
+/**
+ * The stock of a product that reservations do not hold, together with the row version it was read at, or is
+ * expected to be at when written.
+ */
+public record StockVersion(int available, long version) {
+}
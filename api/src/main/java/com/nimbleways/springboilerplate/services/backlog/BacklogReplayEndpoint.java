@@ -0,0 +1,31 @@
+package com.nimbleways.springboilerplate.services.backlog;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code POST /actuator/backlogreplay} with {@code {"job": "<name>", "afterOrderId": <id>}} starts a replay of the
+ * backlog above that order in the background, or resumes the job of that name; {@code GET} reports its progress.
+ */
+@Component
+@Endpoint(id = "backlogreplay")
+public class BacklogReplayEndpoint {
+
+    private final BacklogReplayJob backlogReplayJob;
+
+    public BacklogReplayEndpoint(BacklogReplayJob backlogReplayJob) {
+        this.backlogReplayJob = backlogReplayJob;
+    }
+
+    @ReadOperation
+    public BacklogReplayReport status() {
+        return backlogReplayJob.status();
+    }
+
+    @WriteOperation
+    public BacklogReplayReport start(String job, long afterOrderId) {
+        return backlogReplayJob.start(job, afterOrderId);
+    }
+}
@@ -0,0 +1,234 @@
+package com.nimbleways.springboilerplate.services.backlog;
+
+import com.nimbleways.springboilerplate.config.BacklogReplayProperties;
+import com.nimbleways.springboilerplate.entities.BacklogReplayCheckpoint;
+import com.nimbleways.springboilerplate.repositories.BacklogReplayCheckpointRepository;
+import com.nimbleways.springboilerplate.repositories.PendingOrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.services.backlog.BacklogReplayReport.State;
+import com.nimbleways.springboilerplate.services.implementations.OrderProcessingService;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Processes every order above a given id that was never processed, e.g. the backlog left by an outage.
+ * <p>
+ * The lower bound is mandatory: orders from before the API claimed every order it processed, through
+ * {@code processBatch} among others, have no {@code processed_orders} row either, and replaying them would take
+ * their stock a second time.
+ * <p>
+ * Pending order ids are streamed through a database cursor and processed in chunks, one transaction each, so
+ * memory use depends on the chunk size only. Each chunk claims its orders in {@code processed_orders}, which
+ * keeps the API from processing them a second time, and moves the job's checkpoint forward; a job that stops
+ * resumes after its last committed chunk when run again under the same name.
+ * At most one job runs at a time.
+ */
+@Service
+public class BacklogReplayJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BacklogReplayJob.class);
+
+    private final PendingOrderRepository pendingOrderRepository;
+    private final ProcessedOrderRepository processedOrderRepository;
+    private final BacklogReplayCheckpointRepository checkpointRepository;
+    private final OrderProcessingService orderProcessingService;
+    private final OrderProcessingMetrics metrics;
+    private final BacklogReplayProperties properties;
+    private final ThreadFactory threadFactory;
+    private final TransactionTemplate cursorTransaction;
+    private final TransactionTemplate chunkTransaction;
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    private volatile BacklogReplayReport lastReport;
+
+    public BacklogReplayJob(PendingOrderRepository pendingOrderRepository,
+                            ProcessedOrderRepository processedOrderRepository,
+                            BacklogReplayCheckpointRepository checkpointRepository,
+                            OrderProcessingService orderProcessingService,
+                            OrderProcessingMetrics metrics,
+                            BacklogReplayProperties properties,
+                            ThreadFactory processingThreadFactory,
+                            PlatformTransactionManager transactionManager) {
+        this.pendingOrderRepository = pendingOrderRepository;
+        this.processedOrderRepository = processedOrderRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.orderProcessingService = orderProcessingService;
+        this.metrics = metrics;
+        this.properties = properties;
+        this.threadFactory = processingThreadFactory;
+        this.cursorTransaction = new TransactionTemplate(transactionManager);
+        this.cursorTransaction.setReadOnly(true);
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Replays the backlog above {@code afterOrderId}, or above the job's checkpoint if higher, on the calling
+     * thread, rethrowing whatever stopped it.
+     *
+     * @throws IllegalStateException if a job is already running
+     */
+    public BacklogReplayReport run(String job, long afterOrderId) {
+        var run = claim(job, afterOrderId);
+        if (run == null) {
+            throw new IllegalStateException("A backlog replay is already running");
+        }
+        var report = execute(run);
+        if (run.failure != null) {
+            throw run.failure;
+        }
+        return report;
+    }
+
+    /**
+     * Starts replaying the backlog above {@code afterOrderId}, or above the job's checkpoint if higher, on a new
+     * thread, unless a job is already running.
+     *
+     * @return the state of the started job, or of the one already running
+     */
+    public BacklogReplayReport start(String job, long afterOrderId) {
+        var run = claim(job, afterOrderId);
+        if (run == null) {
+            return status();
+        }
+        var thread = threadFactory.newThread(() -> execute(run));
+        thread.setName("backlog-replay-" + job);
+        thread.start();
+        return run.report(State.RUNNING, null);
+    }
+
+    /**
+     * @return the running job, else the last finished one, or {@code null} when no job ran yet
+     */
+    public BacklogReplayReport status() {
+        var run = current.get();
+        return run != null ? run.report(State.RUNNING, null) : lastReport;
+    }
+
+    private Run claim(String job, long afterOrderId) {
+        var run = new Run(job, afterOrderId);
+        return current.compareAndSet(null, run) ? run : null;
+    }
+
+    private BacklogReplayReport execute(Run run) {
+        BacklogReplayReport report;
+        try {
+            run.lastOrderId = checkpointRepository.findById(run.job)
+                    .map(BacklogReplayCheckpoint::getLastOrderId)
+                    .filter(lastOrderId -> lastOrderId > run.afterOrderId)
+                    .orElse(run.afterOrderId);
+            LOGGER.info("Backlog replay '{}' started after order {}", run.job, run.lastOrderId);
+            var chunk = new ArrayList<Long>(properties.chunkSize());
+            cursorTransaction.executeWithoutResult(status ->
+                    pendingOrderRepository.forEachPendingId(run.lastOrderId, properties.fetchSize(), orderId -> {
+                        chunk.add(orderId);
+                        if (chunk.size() == properties.chunkSize()) {
+                            processChunk(run, chunk);
+                            chunk.clear();
+                        }
+                    }));
+            if (!chunk.isEmpty()) {
+                processChunk(run, chunk);
+            }
+            report = run.report(State.COMPLETED, null);
+            LOGGER.info("Backlog replay '{}' completed: {}", run.job, report);
+        } catch (RuntimeException e) {
+            run.failure = e;
+            report = run.report(State.FAILED, e.getMessage());
+            LOGGER.error("Backlog replay '{}' failed, it resumes after order {} when run again",
+                    run.job, run.lastOrderId, e);
+        }
+        lastReport = report;
+        current.set(null);
+        return report;
+    }
+
+    private void processChunk(Run run, List<Long> orderIds) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer processed = chunkTransaction.execute(status -> processChunkOnce(run.job, orderIds));
+                int count = processed == null ? 0 : processed;
+                run.advance(orderIds.get(orderIds.size() - 1), count);
+                metrics.recordBacklogChunk(count);
+                run.logProgress(properties.progressInterval());
+                return;
+            } catch (DuplicateKeyException e) {
+                // an order of the chunk was processed through the API meanwhile: retry without it
+                if (attempt >= properties.chunkAttempts()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private int processChunkOnce(String job, List<Long> orderIds) {
+        var pending = new ArrayList<>(orderIds);
+        pending.removeAll(processedOrderRepository.findProcessedIn(orderIds));
+        if (!pending.isEmpty()) {
+            processedOrderRepository.markAllProcessed(pending, Instant.now());
+            orderProcessingService.processOrders(pending);
+        }
+
+        var checkpoint = checkpointRepository.findById(job)
+                .orElseGet(() -> new BacklogReplayCheckpoint(job, 0L, 0L, null));
+        checkpoint.setLastOrderId(orderIds.get(orderIds.size() - 1));
+        checkpoint.setProcessedOrders(checkpoint.getProcessedOrders() + pending.size());
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+        return pending.size();
+    }
+
+    private static final class Run {
+
+        private final String job;
+        private final long afterOrderId;
+        private final long startedAt = System.nanoTime();
+        private volatile long processedOrders;
+        private volatile long chunks;
+        private volatile long lastOrderId;
+        private long lastLogAt = startedAt;
+        private RuntimeException failure;
+
+        private Run(String job, long afterOrderId) {
+            this.job = job;
+            this.afterOrderId = afterOrderId;
+        }
+
+        private void advance(long orderId, int processed) {
+            lastOrderId = orderId;
+            processedOrders += processed;
+            chunks++;
+        }
+
+        private void logProgress(Duration interval) {
+            var now = System.nanoTime();
+            if (now - lastLogAt >= interval.toNanos()) {
+                lastLogAt = now;
+                var report = report(State.RUNNING, null);
+                LOGGER.info("Backlog replay '{}': {} orders in {} s, {} orders/s, up to order {}", job,
+                        report.processedOrders(), report.elapsed().toSeconds(),
+                        Math.round(report.ordersPerSecond()), report.lastOrderId());
+            }
+        }
+
+        private BacklogReplayReport report(State state, String error) {
+            var elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+            var seconds = elapsed.toNanos() / 1e9;
+            var rate = seconds > 0 ? processedOrders / seconds : 0;
+            return new BacklogReplayReport(job, state, processedOrders, chunks, lastOrderId, elapsed, rate, error);
+        }
+    }
+}
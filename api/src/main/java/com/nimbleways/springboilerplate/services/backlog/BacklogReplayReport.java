@@ -0,0 +1,27 @@
+package com.nimbleways.springboilerplate.services.backlog;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of a backlog replay job.
+ *
+ * @param processedOrders orders processed by this run, excluding those done by earlier runs of the job
+ * @param lastOrderId     highest order id checkpointed so far, where a resumed run starts from
+ * @param error           why the run stopped, for {@link State#FAILED}
+ */
+public record BacklogReplayReport(
+        String job,
+        State state,
+        long processedOrders,
+        long chunks,
+        long lastOrderId,
+        Duration elapsed,
+        double ordersPerSecond,
+        String error) {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
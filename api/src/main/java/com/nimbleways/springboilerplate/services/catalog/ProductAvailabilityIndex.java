@@ -0,0 +1,168 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.domain.catalog.Availability;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.catalog.ProductWindow;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classifies products by {@link Availability} for a day, and knows when the window of each product closes.
+ * <p>
+ * The index also keeps the current day of its clock along with the instants it starts and ends at, so telling
+ * the day is a clock read and two comparisons until it rolls over.
+ * <p>
+ * A product's availability only changes on a few days: when its season starts, when a restock could no
+ * longer arrive in time, and when its window closes. Each classification is kept with the range of days it
+ * holds for, so a lookup is a map read and two comparisons; the first lookup of a product after one of those
+ * days, or after its metadata changed, classifies it again. Lookups are lock-free and may come from any thread.
+ * <p>
+ * Window closing days are kept for every product {@link #put} into the index, sorted by day, to answer which
+ * products close within the next days. {@link ProductMetadataInvalidator} keeps them in step with changes made
+ * through JPA; anything else must call {@link #put} or {@link #remove}.
+ */
+public class ProductAvailabilityIndex {
+
+    private final Clock clock;
+    private final Map<Long, Classification> classifications = new ConcurrentHashMap<>();
+    private final Map<Long, ProductWindow> windows = new HashMap<>();
+    private final NavigableMap<LocalDate, Map<Long, ProductWindow>> windowsByClosingDay = new TreeMap<>();
+    private volatile Day today;
+
+    public ProductAvailabilityIndex() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public ProductAvailabilityIndex(Clock clock) {
+        this.clock = clock;
+        this.today = Day.of(clock.millis(), clock.getZone());
+    }
+
+    public LocalDate today() {
+        var now = clock.millis();
+        var day = today;
+        if (!day.contains(now)) {
+            day = Day.of(now, clock.getZone());
+            today = day;
+        }
+        return day.date();
+    }
+
+    public Availability availability(ProductMetadata product, LocalDate day) {
+        var epochDay = day.toEpochDay();
+        var classification = classifications.get(product.id());
+        if (classification == null || !classification.holds(product, epochDay)) {
+            classification = classify(product, epochDay);
+            classifications.put(product.id(), classification);
+        }
+        return classification.availability();
+    }
+
+    /**
+     * @return the products whose window closes after {@code today} and no later than {@code days} days after it,
+     * by closing day, then in the order they were indexed
+     */
+    public synchronized List<ProductWindow> closingWithin(LocalDate today, int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Days must not be negative: " + days);
+        }
+        var closing = new ArrayList<ProductWindow>();
+        windowsByClosingDay.subMap(today, false, today.plusDays(days), true)
+                .values()
+                .forEach(byId -> closing.addAll(byId.values()));
+        return closing;
+    }
+
+    public synchronized void put(ProductMetadata product) {
+        remove(product.id());
+        var closes = product.closes();
+        if (closes != null) {
+            var window = new ProductWindow(product.id(), product.type(), product.name(), closes);
+            windows.put(product.id(), window);
+            windowsByClosingDay.computeIfAbsent(closes, day -> new LinkedHashMap<>()).put(product.id(), window);
+        }
+    }
+
+    public synchronized void remove(Long productId) {
+        classifications.remove(productId);
+        var window = windows.remove(productId);
+        if (window != null) {
+            var byId = windowsByClosingDay.get(window.closes());
+            byId.remove(productId);
+            if (byId.isEmpty()) {
+                windowsByClosingDay.remove(window.closes());
+            }
+        }
+    }
+
+    private static Classification classify(ProductMetadata product, long day) {
+        return switch (product.type()) {
+            case NORMAL -> new Classification(product, Availability.DELIVERABLE, Long.MIN_VALUE, Long.MAX_VALUE);
+            case SEASONAL -> classify(product, day, product.seasonStartDate().toEpochDay(),
+                    product.seasonEndDate().toEpochDay(), Availability.OUT_OF_SEASON);
+            case EXPIRABLE -> classify(product, day, Long.MIN_VALUE, product.expiryDate().toEpochDay(),
+                    Availability.EXPIRED);
+        };
+    }
+
+    /**
+     * @param opens  first day of the window
+     * @param closes first day after the window
+     */
+    private static Classification classify(ProductMetadata product,
+                                           long day,
+                                           long opens,
+                                           long closes,
+                                           Availability outside) {
+        if (day < opens) {
+            return new Classification(product, outside, Long.MIN_VALUE, opens);
+        }
+        if (day >= closes) {
+            return new Classification(product, outside, Math.max(opens, closes), Long.MAX_VALUE);
+        }
+        // a restock ordered on a day arrives lead time days later, which has to be before the window closes
+        var deliverableUntil = product.leadTime() == null ? Long.MIN_VALUE : closes - product.leadTime();
+        if (day < deliverableUntil) {
+            return new Classification(product, Availability.DELIVERABLE, opens, deliverableUntil);
+        }
+        return new Classification(product, Availability.SELLABLE, Math.max(opens, deliverableUntil), closes);
+    }
+
+    /**
+     * A day of the clock's zone, from the instant it starts included to the instant the next one starts excluded.
+     */
+    private record Day(LocalDate date, long fromMillis, long untilMillis) {
+
+        static Day of(long millis, ZoneId zone) {
+            var date = LocalDate.ofInstant(Instant.ofEpochMilli(millis), zone);
+            return new Day(date, date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                    date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+        }
+
+        boolean contains(long millis) {
+            return millis >= fromMillis && millis < untilMillis;
+        }
+    }
+
+    /**
+     * The availability of a product, as of the metadata it was computed from, from one day included to another
+     * excluded.
+     */
+    private record Classification(ProductMetadata product, Availability availability, long fromDay, long untilDay) {
+
+        boolean holds(ProductMetadata current, long day) {
+            return day >= fromDay && day < untilDay && (product == current || product.equals(current));
+        }
+    }
+}
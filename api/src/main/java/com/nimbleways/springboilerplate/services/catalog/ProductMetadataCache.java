@@ -0,0 +1,78 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbleways.springboilerplate.config.ProductCacheProperties;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of {@link ProductMetadata}, so processing only reaches the database for stock.
+ * <p>
+ * Size-bounded (Caffeine's frequency-aware eviction) and time-bounded. Changes made through JPA evict the
+ * product via {@link ProductMetadataInvalidator}; anything else, such as a bulk SQL update of product
+ * details, must call {@link #evict} or {@link #evictAll}, or wait for the entry to expire. Hit, miss, size
+ * and eviction meters are published as {@code cache.*} with tag {@code cache=product.metadata}.
+ */
+public class ProductMetadataCache {
+
+    public static final String CACHE_NAME = "product.metadata";
+
+    private final ProductRepository productRepository;
+    private final Cache<Long, ProductMetadata> cache;
+
+    public ProductMetadataCache(ProductRepository productRepository,
+                                ProductCacheProperties properties,
+                                MeterRegistry registry) {
+        this.productRepository = productRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.expireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the metadata of the given products, loading every missing one in a single query.
+     *
+     * @return metadata keyed by product id; ids of products that do not exist are absent
+     */
+    public Map<Long, ProductMetadata> getAll(Collection<Long> productIds) {
+        return cache.getAll(productIds, this::load);
+    }
+
+    /**
+     * Evicts the product unless the cached entry already matches {@code current}, so writes that only touch
+     * stock leave the cache alone.
+     */
+    public void evictIfChanged(ProductMetadata current) {
+        var cached = cache.getIfPresent(current.id());
+        if (cached != null && !cached.equals(current)) {
+            cache.invalidate(current.id());
+        }
+    }
+
+    public void evict(Long productId) {
+        cache.invalidate(productId);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private Map<Long, ProductMetadata> load(Iterable<? extends Long> productIds) {
+        var ids = new ArrayList<Long>();
+        productIds.forEach(ids::add);
+        return productRepository.findMetadataByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductMetadata::id, Function.identity()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.entities.Product;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import java.util.function.Consumer;
+
+/**
+ * JPA listener evicting a product from the {@link ProductMetadataCache} when its metadata is updated or it is
+ * removed; updates of the stock alone keep the entry. Also keeps the {@link ProductAvailabilityIndex} and the
+ * {@link ProductStockLevels} in step with created, updated and removed products.
+ * <p>
+ * The entry is evicted at flush and again after commit, so a concurrent reader cannot leave the
+ * pre-commit state in the cache; the index and the levels only change after commit. Instantiated by Hibernate
+ * through Spring; the cache, the index and the levels are looked up lazily because JPA slices in tests run without
+ * them.
+ */
+public class ProductMetadataInvalidator {
+
+    private final ObjectProvider<ProductMetadataCache> cache;
+    private final ObjectProvider<ProductAvailabilityIndex> availabilityIndex;
+    private final ObjectProvider<ProductStockLevels> stockLevels;
+
+    public ProductMetadataInvalidator(ObjectProvider<ProductMetadataCache> cache,
+                                      ObjectProvider<ProductAvailabilityIndex> availabilityIndex,
+                                      ObjectProvider<ProductStockLevels> stockLevels) {
+        this.cache = cache;
+        this.availabilityIndex = availabilityIndex;
+        this.stockLevels = stockLevels;
+    }
+
+    @PostPersist
+    public void index(Product product) {
+        var current = ProductMetadata.of(product);
+        afterCommit(() -> availabilityIndex.ifAvailable(index -> index.put(current)));
+        stockLevels.ifAvailable(levels -> levels.recordWritten(current, product.getAvailable()));
+    }
+
+    @PostUpdate
+    public void evictIfChanged(Product product) {
+        var current = ProductMetadata.of(product);
+        evictNowAndAfterCommit(metadata -> metadata.evictIfChanged(current));
+        afterCommit(() -> availabilityIndex.ifAvailable(index -> index.put(current)));
+        stockLevels.ifAvailable(levels -> levels.recordWritten(current, product.getAvailable()));
+    }
+
+    @PostRemove
+    public void evict(Product product) {
+        var productId = product.getId();
+        evictNowAndAfterCommit(metadata -> metadata.evict(productId));
+        afterCommit(() -> availabilityIndex.ifAvailable(index -> index.remove(productId)));
+        stockLevels.ifAvailable(levels -> levels.recordRemoved(productId));
+    }
+
+    private void evictNowAndAfterCommit(Consumer<ProductMetadataCache> eviction) {
+        cache.ifAvailable(metadata -> {
+            eviction.accept(metadata);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                afterCommit(() -> eviction.accept(metadata));
+            }
+        });
+    }
+
+    /**
+     * Runs the action once the current transaction has committed, or right away outside of one.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
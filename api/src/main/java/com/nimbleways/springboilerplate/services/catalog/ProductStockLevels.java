@@ -0,0 +1,195 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.catalog.StockLevel;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * The stock of the catalog summed by {@link StockLevel}: by product type and by the month the products' window
+ * closes. Kept up to date by the writes themselves, so reading it never queries {@code products}.
+ * <p>
+ * Starts from one read of every product, through {@link #load}. After that, runs report the units their items took,
+ * and products written through JPA report the stock they were written with. Both apply once the writing transaction
+ * has committed, or right away outside of one. A product written through JPA keeps, for its transaction, the stock
+ * it was written with, so runs that take stock by flushing managed products are not counted twice. A decrement never
+ * takes a product below zero. Stock held by reservations still counts until they are applied.
+ * <p>
+ * Only this instance's writes are reported, so with several instances sharing the database the levels drift by what
+ * the others take. {@link ProductStockLevelsRefresher} loads them again from {@code products} on a fixed delay,
+ * which bounds that drift, and corrects a change committed during a load, which the load may count twice or miss.
+ * <p>
+ * Changes are applied one at a time, each publishing an immutable snapshot of the levels. {@link #snapshot()} is a
+ * volatile read, so polling the levels neither waits on nor delays order processing.
+ */
+public class ProductStockLevels {
+
+    private static final Comparator<StockLevel> LEVEL_ORDER = Comparator.comparing(StockLevel::type)
+            .thenComparing(StockLevel::closing, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private Map<Long, Stock> stockByProduct = new HashMap<>();
+    private Map<Bucket, Totals> totalsByBucket = new HashMap<>();
+    private volatile List<StockLevel> snapshot = List.of();
+
+    /**
+     * @return the levels as of the last committed change, by type then closing month, sold all year round first
+     */
+    public List<StockLevel> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Replaces every level with the products, and their stock, that {@code source} hands over. They are collected
+     * before taking the lock, so changes committed meanwhile are not held up by the read.
+     */
+    public void load(Consumer<BiConsumer<ProductMetadata, Integer>> source) {
+        var loaded = new ProductStockLevels();
+        source.accept(loaded::put);
+        synchronized (this) {
+            stockByProduct = loaded.stockByProduct;
+            totalsByBucket = loaded.totalsByBucket;
+            publish();
+        }
+    }
+
+    /**
+     * @param decrements units taken, keyed by product id
+     */
+    public void recordDecrements(Map<Long, Integer> decrements) {
+        if (!decrements.isEmpty()) {
+            record(changes -> decrements.forEach((productId, quantity) ->
+                    changes.decrements.merge(productId, quantity, Integer::sum)));
+        }
+    }
+
+    public void recordWritten(ProductMetadata product, Integer available) {
+        var written = new Stock(Bucket.of(product), available == null ? 0 : available);
+        record(changes -> changes.written.put(product.id(), written));
+    }
+
+    public void recordRemoved(Long productId) {
+        record(changes -> changes.written.put(productId, null));
+    }
+
+    private void record(Consumer<PendingChanges> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            var changes = new PendingChanges();
+            change.accept(changes);
+            apply(changes);
+            return;
+        }
+        var pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        change.accept(pending);
+    }
+
+    private synchronized void apply(PendingChanges changes) {
+        changes.decrements.forEach((productId, quantity) -> {
+            if (changes.written.containsKey(productId)) {
+                return;
+            }
+            var stock = stockByProduct.get(productId);
+            // a product created by a transaction whose commit has not been applied yet
+            if (stock != null) {
+                remove(productId);
+                put(productId, new Stock(stock.bucket(), Math.max(0, stock.available() - quantity)));
+            }
+        });
+        changes.written.forEach((productId, stock) -> {
+            remove(productId);
+            if (stock != null) {
+                put(productId, stock);
+            }
+        });
+        publish();
+    }
+
+    private void put(ProductMetadata product, Integer available) {
+        remove(product.id());
+        put(product.id(), new Stock(Bucket.of(product), available == null ? 0 : available));
+    }
+
+    private void put(Long productId, Stock stock) {
+        stockByProduct.put(productId, stock);
+        totalsByBucket.computeIfAbsent(stock.bucket(), bucket -> new Totals()).add(stock, 1);
+    }
+
+    private void remove(Long productId) {
+        var stock = stockByProduct.remove(productId);
+        if (stock == null) {
+            return;
+        }
+        var totals = totalsByBucket.get(stock.bucket());
+        totals.add(stock, -1);
+        if (totals.products == 0) {
+            totalsByBucket.remove(stock.bucket());
+        }
+    }
+
+    private void publish() {
+        var levels = new ArrayList<StockLevel>(totalsByBucket.size());
+        totalsByBucket.forEach((bucket, totals) -> levels.add(new StockLevel(bucket.type(), bucket.closing(),
+                totals.products, totals.available, totals.outOfStock)));
+        levels.sort(LEVEL_ORDER);
+        snapshot = List.copyOf(levels);
+    }
+
+    private record Bucket(ProductType type, YearMonth closing) {
+
+        static Bucket of(ProductMetadata product) {
+            var closes = product.closes();
+            return new Bucket(product.type(), closes == null ? null : YearMonth.from(closes));
+        }
+    }
+
+    private record Stock(Bucket bucket, int available) {
+    }
+
+    private static final class Totals {
+
+        private long products;
+        private long available;
+        private long outOfStock;
+
+        void add(Stock stock, int sign) {
+            products += sign;
+            available += (long) sign * stock.available();
+            if (stock.available() <= 0) {
+                outOfStock += sign;
+            }
+        }
+    }
+
+    /**
+     * What a transaction changed, applied at once after it commits. A product mapped to {@code null} was removed.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Map<Long, Integer> decrements = new HashMap<>();
+        private final Map<Long, Stock> written = new HashMap<>();
+
+        @Override
+        public void afterCommit() {
+            apply(this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductStockLevels.this);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Loads the {@link ProductStockLevels} again from every product on a fixed delay, so they catch up with the stock
+ * taken by other instances, and by writes that bypass this one's reporting. A zero interval turns it off, which a
+ * single instance can afford.
+ */
+public class ProductStockLevelsRefresher implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductStockLevelsRefresher.class);
+
+    private final ProductStockLevels levels;
+    private final Consumer<BiConsumer<ProductMetadata, Integer>> source;
+    private final Duration interval;
+    private final ThreadFactory threadFactory;
+
+    private ScheduledExecutorService scheduler;
+
+    public ProductStockLevelsRefresher(ProductStockLevels levels,
+                                       Consumer<BiConsumer<ProductMetadata, Integer>> source,
+                                       Duration interval,
+                                       ThreadFactory threadFactory) {
+        this.levels = levels;
+        this.source = source;
+        this.interval = interval;
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null || interval.isZero()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        var millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void refresh() {
+        try {
+            levels.load(source);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Stock levels refresh failed, the current levels are kept until the next one", e);
+        }
+    }
+}
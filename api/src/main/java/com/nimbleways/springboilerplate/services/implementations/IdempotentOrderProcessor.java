@@ -0,0 +1,124 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbleways.springboilerplate.config.OrderIdempotencyProperties;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics.ReplaySource;
+import com.nimbleways.springboilerplate.services.metrics.ProcessingTracer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Processes each order at most once, so client retries neither re-run the strategies nor take stock again.
+ * <p>
+ * A retry is answered from a bounded in-memory set of processed ids when possible. Otherwise the order is
+ * claimed in {@code processed_orders} in the same transaction as its processing: a retry of an order that
+ * was processed earlier, or is being processed right now, fails the claim and gets the original response.
+ * Every call that reaches the database is traced, from waiting for a connection to the end of its transaction.
+ * <p>
+ * Batches claim their orders the same way, all in the transaction that processes them, and skip those already
+ * claimed; whichever way an order was processed first, no other way takes its stock again.
+ */
+@Service
+public class IdempotentOrderProcessor {
+
+    private final OrderProcessingService orderProcessingService;
+    private final ProcessedOrderRepository processedOrderRepository;
+    private final TransactionOperations transactions;
+    private final OrderProcessingMetrics metrics;
+    private final ProcessingTracer tracer;
+    private final Cache<Long, Boolean> processed;
+
+    public IdempotentOrderProcessor(OrderProcessingService orderProcessingService,
+                                    ProcessedOrderRepository processedOrderRepository,
+                                    TransactionOperations transactions,
+                                    OrderProcessingMetrics metrics,
+                                    ProcessingTracer tracer,
+                                    OrderIdempotencyProperties properties) {
+        this.orderProcessingService = orderProcessingService;
+        this.processedOrderRepository = processedOrderRepository;
+        this.transactions = transactions;
+        this.metrics = metrics;
+        this.tracer = tracer;
+        this.processed = Caffeine.newBuilder()
+                .maximumSize(properties.cacheSize())
+                .expireAfterWrite(properties.cacheTtl())
+                .build();
+    }
+
+    public ProcessOrderResponse processOrder(Long orderId) {
+        if (processed.getIfPresent(orderId) != null) {
+            metrics.recordReplay(ReplaySource.CACHE);
+            return new ProcessOrderResponse(orderId);
+        }
+        var trace = tracer.start(orderId);
+        try {
+            transactions.executeWithoutResult(status -> {
+                trace.transactionStarted();
+                processedOrderRepository.markProcessed(orderId, Instant.now());
+                orderProcessingService.processOrder(orderId);
+            });
+        } catch (DuplicateKeyException e) {
+            metrics.recordReplay(ReplaySource.STORE);
+        } finally {
+            tracer.finish(trace);
+        }
+        processed.put(orderId, Boolean.TRUE);
+        return new ProcessOrderResponse(orderId);
+    }
+
+    /**
+     * Processes the orders of the batch not processed yet, like {@link OrderProcessingService#processOrders}, and
+     * answers the others as replays. An order listed twice is processed once.
+     */
+    public List<ProcessOrderResponse> processOrders(List<Long> orderIds) {
+        var pending = new LinkedHashSet<Long>();
+        for (var orderId : orderIds) {
+            if (processed.getIfPresent(orderId) != null) {
+                metrics.recordReplay(ReplaySource.CACHE);
+            } else {
+                pending.add(orderId);
+            }
+        }
+        if (!pending.isEmpty()) {
+            int replayed = processPending(new ArrayList<>(pending));
+            for (int i = 0; i < replayed; i++) {
+                metrics.recordReplay(ReplaySource.STORE);
+            }
+            pending.forEach(orderId -> processed.put(orderId, Boolean.TRUE));
+        }
+        return orderIds.stream().map(ProcessOrderResponse::new).toList();
+    }
+
+    /**
+     * @return how many of the orders had been claimed already
+     */
+    private int processPending(List<Long> orderIds) {
+        while (true) {
+            try {
+                Integer replayed = transactions.execute(status -> {
+                    var claimed = new ArrayList<>(orderIds);
+                    claimed.removeAll(processedOrderRepository.findProcessedIn(orderIds));
+                    if (!claimed.isEmpty()) {
+                        processedOrderRepository.markAllProcessed(claimed, Instant.now());
+                        orderProcessingService.processOrders(claimed);
+                    }
+                    return orderIds.size() - claimed.size();
+                });
+                return replayed == null ? 0 : replayed;
+            } catch (DuplicateKeyException e) {
+                // a concurrent call claimed one of the orders and committed, so the next attempt sees it claimed;
+                // each attempt thus replays at least one more order than the one before
+            }
+        }
+    }
+}
@@ -1,45 +1,219 @@
 package com.nimbleways.springboilerplate.services.implementations;
 
-import com.nimbleways.springboilerplate.domain.strategy.ProductProcessingStrategy;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.stock.StockEngine;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
 import com.nimbleways.springboilerplate.entities.Order;
-import com.nimbleways.springboilerplate.entities.Product;
 import com.nimbleways.springboilerplate.exceptions.OrderNotFoundException;
+import com.nimbleways.springboilerplate.repositories.OrderItemRef;
 import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.services.catalog.ProductMetadataCache;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.notification.NotificationOutbox;
+import com.nimbleways.springboilerplate.services.processing.ItemProcessor;
+import com.nimbleways.springboilerplate.services.processing.ItemResult;
+import com.nimbleways.springboilerplate.services.stock.StockRetryPolicy;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class OrderProcessingService {
 
     private final OrderRepository orderRepository;
-    private final Map<String, ProductProcessingStrategy> strategies;
+    private final ProductMetadataCache productMetadataCache;
+    private final ProductStrategyRegistry strategies;
+    private final ItemProcessor itemProcessor;
+    private final StockEngine stockEngine;
+    private final StockRetryPolicy stockRetryPolicy;
+    private final NotificationOutbox notificationOutbox;
+    private final ProductStockLevels stockLevels;
+    private final OrderProcessingMetrics metrics;
+    private final Clock clock;
 
     public OrderProcessingService(OrderRepository orderRepository,
-                                  Map<String, ProductProcessingStrategy> strategies) {
+                                  ProductMetadataCache productMetadataCache,
+                                  ProductStrategyRegistry strategies,
+                                  ItemProcessor itemProcessor,
+                                  StockEngine stockEngine,
+                                  StockRetryPolicy stockRetryPolicy,
+                                  NotificationOutbox notificationOutbox,
+                                  ProductStockLevels stockLevels,
+                                  OrderProcessingMetrics metrics,
+                                  Clock clock) {
         this.orderRepository = orderRepository;
+        this.productMetadataCache = productMetadataCache;
         this.strategies = strategies;
+        this.itemProcessor = itemProcessor;
+        this.stockEngine = stockEngine;
+        this.stockRetryPolicy = stockRetryPolicy;
+        this.notificationOutbox = notificationOutbox;
+        this.stockLevels = stockLevels;
+        this.metrics = metrics;
+        this.clock = clock;
     }
 
     @Transactional
     public Order processOrder(Long orderId) {
-        var order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException(orderId));
+        var sample = metrics.startTimer();
+        try {
+            return processSingle(orderId);
+        } finally {
+            metrics.recordOrder(sample);
+        }
+    }
+
+    /**
+     * Processes the orders in the given sequence, with the same outcome as calling {@link #processOrder}
+     * once per id, but loading every order and its item ids in one query and letting the stock engine write
+     * stock once for the whole run.
+     * The batch is all-or-nothing: an unknown id fails it before any product is processed.
+     */
+    @Transactional
+    public List<Order> processOrders(List<Long> orderIds) {
+        var sample = metrics.startTimer();
+        try {
+            return processBatch(orderIds);
+        } finally {
+            metrics.recordBatch(sample, orderIds.size());
+        }
+    }
+
+    private Order processSingle(Long orderId) {
+        var itemRefs = orderRepository.findItemRefsByOrderIdIn(List.of(orderId));
+        if (itemRefs.isEmpty()) {
+            throw new OrderNotFoundException(orderId);
+        }
+        var productIds = productIds(itemRefs);
+        var products = productMetadataCache.getAll(productIds);
+
+        // items processed concurrently need a gateway that tolerates it, and it writes once at the end
+        var stock = itemProcessor.concurrent() ? stockEngine.forBatch(productIds) : stockEngine.forOrder(productIds);
+        var context = new ProcessingContext(stock, LocalDate.now(clock));
+        var orderProducts = new ArrayList<ProductMetadata>(itemRefs.size());
+        for (var itemRef : itemRefs) {
+            if (itemRef.productId() != null) {
+                orderProducts.add(product(products, itemRef.productId()));
+            }
+        }
+        // an order's items have no order of their own; taking their stock by product id keeps concurrent orders
+        // locking shared rows in the same order, so they wait on one another instead of deadlocking
+        orderProducts.sort(Comparator.comparing(ProductMetadata::id));
+        complete(orderProducts, itemProcessor.process(orderProducts, context, strategies), context);
+
+        return itemRefs.get(0).order();
+    }
+
+    private List<Order> processBatch(List<Long> orderIds) {
+        var ordersById = new HashMap<Long, Order>();
+        var productIdsByOrder = new HashMap<Long, List<Long>>();
+        var itemRefs = orderRepository.findItemRefsByOrderIdIn(new LinkedHashSet<>(orderIds));
+        for (var itemRef : itemRefs) {
+            var order = itemRef.order();
+            ordersById.putIfAbsent(order.getId(), order);
+            var productIds = productIdsByOrder.computeIfAbsent(order.getId(), id -> new ArrayList<>());
+            if (itemRef.productId() != null) {
+                productIds.add(itemRef.productId());
+            }
+        }
+
+        var orders = new ArrayList<Order>(orderIds.size());
+        for (var orderId : orderIds) {
+            var order = ordersById.get(orderId);
+            if (order == null) {
+                throw new OrderNotFoundException(orderId);
+            }
+            orders.add(order);
+        }
 
-        order.getItems().forEach(this::processProduct);
+        var allProductIds = productIds(itemRefs);
+        var products = productMetadataCache.getAll(allProductIds);
+        var stock = stockEngine.forBatch(allProductIds);
+        var context = new ProcessingContext(stock, LocalDate.now(clock));
+        var runProducts = new ArrayList<ProductMetadata>(itemRefs.size());
+        var runResults = new ArrayList<ItemResult>(itemRefs.size());
+        for (var orderId : orderIds) {
+            var orderProductIds = productIdsByOrder.get(orderId);
+            var orderProducts = new ArrayList<ProductMetadata>(orderProductIds.size());
+            for (var productId : orderProductIds) {
+                orderProducts.add(product(products, productId));
+            }
+            runProducts.addAll(orderProducts);
+            runResults.addAll(itemProcessor.process(orderProducts, context, strategies));
+        }
+        complete(runProducts, runResults, context);
 
-        return order;
+        return orders;
     }
 
-    private void processProduct(Product product) {
-        var strategyName = product.getType();
-        var strategy = strategies.get(strategyName);
+    private static Set<Long> productIds(List<OrderItemRef> itemRefs) {
+        var productIds = new LinkedHashSet<Long>();
+        for (var itemRef : itemRefs) {
+            if (itemRef.productId() != null) {
+                productIds.add(itemRef.productId());
+            }
+        }
+        return productIds;
+    }
 
-        if (strategy == null) {
-            throw new IllegalArgumentException("No strategy found for product type: " + strategyName);
+    private static ProductMetadata product(Map<Long, ProductMetadata> products, Long productId) {
+        var product = products.get(productId);
+        if (product == null) {
+            throw new IllegalStateException("Order item refers to a product that does not exist");
         }
+        return product;
+    }
 
-        strategy.process(product);
+    /**
+     * Writes the run's stock, then records its items and queues their notifications in item order. Items of
+     * products the stock engine reports as changed concurrently are processed again, in item order, and their
+     * results replace the earlier ones. The stock the final results took is reported to the stock levels.
+     */
+    private void complete(List<ProductMetadata> products, List<ItemResult> results, ProcessingContext context) {
+        var finalResults = new ArrayList<>(results);
+        stockRetryPolicy.complete(context.stock(),
+                conflicting -> reprocess(products, finalResults, conflicting, context));
+
+        var decrements = new HashMap<Long, Integer>();
+        for (int i = 0; i < products.size(); i++) {
+            var result = finalResults.get(i);
+            metrics.recordItem(products.get(i).type(), result.outcome());
+            result.notifications().forEach(context::enqueue);
+            if (result.outcome() == ProcessingOutcome.DECREMENTED) {
+                decrements.merge(products.get(i).id(), 1, Integer::sum);
+            }
+        }
+        stockLevels.recordDecrements(decrements);
+        notificationOutbox.publishAfterCommit(context.notifications());
+    }
+
+    private void reprocess(List<ProductMetadata> products,
+                           List<ItemResult> results,
+                           Set<Long> productIds,
+                           ProcessingContext context) {
+        var indexes = new ArrayList<Integer>();
+        var retried = new ArrayList<ProductMetadata>();
+        for (int i = 0; i < products.size(); i++) {
+            if (productIds.contains(products.get(i).id())) {
+                indexes.add(i);
+                retried.add(products.get(i));
+            }
+        }
+        var retriedResults = itemProcessor.process(retried, context, strategies);
+        for (int i = 0; i < indexes.size(); i++) {
+            results.set(indexes.get(i), retriedResults.get(i));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,164 @@
+package com.nimbleways.springboilerplate.services.ingestion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.nimbleways.springboilerplate.dto.product.CreateOrderRequest;
+import com.nimbleways.springboilerplate.dto.product.OrderIngestionResponse;
+import com.nimbleways.springboilerplate.exceptions.OrderIngestionException;
+import com.nimbleways.springboilerplate.repositories.OrderIngestionRepository;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.services.catalog.ProductMetadataCache;
+import com.nimbleways.springboilerplate.services.implementations.OrderProcessingService;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Creates orders from their product ids with JDBC batches, one for the orders and one for their items per chunk,
+ * instead of saving entities one by one.
+ * <p>
+ * A stream is newline-delimited JSON, one {@link CreateOrderRequest} per line, read and written a chunk at a time,
+ * one transaction per chunk, so neither memory nor the time product rows stay locked grow with the stream. A
+ * malformed line or an unknown product rolls back its own chunk only and fails the stream with an
+ * {@link OrderIngestionException} telling how many orders the chunks before it created. Asked to, each chunk is
+ * also processed once written, in its transaction and like {@link OrderProcessingService#processOrders} would, and
+ * claimed as processed so a later {@code processOrder} call only replays it.
+ */
+public class OrderIngestionService {
+
+    private final OrderIngestionRepository orderIngestionRepository;
+    private final ProductMetadataCache productMetadataCache;
+    private final OrderProcessingService orderProcessingService;
+    private final ProcessedOrderRepository processedOrderRepository;
+    private final TransactionOperations transactions;
+    private final OrderProcessingMetrics metrics;
+    private final ObjectReader requestReader;
+    private final Clock clock;
+    private final int chunkSize;
+
+    public OrderIngestionService(OrderIngestionRepository orderIngestionRepository,
+                                 ProductMetadataCache productMetadataCache,
+                                 OrderProcessingService orderProcessingService,
+                                 ProcessedOrderRepository processedOrderRepository,
+                                 TransactionOperations transactions,
+                                 OrderProcessingMetrics metrics,
+                                 ObjectMapper objectMapper,
+                                 Clock clock,
+                                 int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunks need at least one order: " + chunkSize);
+        }
+        this.orderIngestionRepository = orderIngestionRepository;
+        this.productMetadataCache = productMetadataCache;
+        this.orderProcessingService = orderProcessingService;
+        this.processedOrderRepository = processedOrderRepository;
+        this.transactions = transactions;
+        this.metrics = metrics;
+        this.requestReader = objectMapper.readerFor(CreateOrderRequest.class);
+        this.clock = clock;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return the id of the new order
+     * @throws IllegalArgumentException if a product of the order does not exist
+     */
+    public Long create(CreateOrderRequest request, boolean process) {
+        var productIds = List.<Set<Long>>of(new LinkedHashSet<>(request.productIds()));
+        return transactions.execute(status -> write(productIds, process).get(0));
+    }
+
+    /**
+     * Creates every order of the stream, committing them a chunk at a time.
+     *
+     * @throws OrderIngestionException if a line is not a valid order, a product of an order does not exist or a
+     *                                 chunk fails to commit, with the orders created before it
+     */
+    public OrderIngestionResponse ingest(InputStream ndjson, boolean process) {
+        long orders = 0;
+        long items = 0;
+        var chunk = new ArrayList<Set<Long>>(chunkSize);
+        try (var requests = requestReader.<CreateOrderRequest>readValues(ndjson)) {
+            while (requests.hasNextValue()) {
+                var request = requests.nextValue();
+                chunk.add(productIds(request, requests.getCurrentLocation().getLineNr()));
+                if (chunk.size() == chunkSize) {
+                    orders += writeChunk(chunk, process);
+                    items += itemCount(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                orders += writeChunk(chunk, process);
+                items += itemCount(chunk);
+            }
+        } catch (JsonProcessingException e) {
+            var line = e.getLocation() == null ? "?" : Integer.toString(e.getLocation().getLineNr());
+            throw new OrderIngestionException(new OrderIngestionResponse(orders, items, process),
+                    new IllegalArgumentException("Line " + line + " is not a valid order: " + e.getOriginalMessage(), e));
+        } catch (IOException e) {
+            throw new OrderIngestionException(new OrderIngestionResponse(orders, items, process),
+                    new UncheckedIOException(e));
+        } catch (RuntimeException e) {
+            throw new OrderIngestionException(new OrderIngestionResponse(orders, items, process), e);
+        }
+        return new OrderIngestionResponse(orders, items, process);
+    }
+
+    private int writeChunk(List<Set<Long>> productIds, boolean process) {
+        var orderIds = transactions.execute(status -> write(productIds, process));
+        return orderIds == null ? 0 : orderIds.size();
+    }
+
+    private List<Long> write(List<Set<Long>> productIds, boolean process) {
+        requireProducts(productIds);
+        var orderIds = orderIngestionRepository.insertOrders(productIds.size());
+        orderIngestionRepository.insertItems(orderIds, productIds);
+        if (process) {
+            processedOrderRepository.markAllProcessed(orderIds, clock.instant());
+            orderProcessingService.processOrders(orderIds);
+        }
+        metrics.recordIngestedOrders(orderIds.size(), process);
+        return orderIds;
+    }
+
+    private void requireProducts(List<Set<Long>> productIds) {
+        var distinct = new HashSet<Long>();
+        productIds.forEach(distinct::addAll);
+        var known = productMetadataCache.getAll(distinct).keySet();
+        if (known.size() < distinct.size()) {
+            var unknown = new TreeSet<>(distinct);
+            unknown.removeAll(known);
+            throw new IllegalArgumentException("Unknown products: " + unknown);
+        }
+    }
+
+    private static Set<Long> productIds(CreateOrderRequest request, long line) {
+        if (request.productIds() == null || request.productIds().isEmpty()) {
+            throw new IllegalArgumentException("Order on line " + line + " has no products");
+        }
+        if (request.productIds().contains(null)) {
+            throw new IllegalArgumentException("Order on line " + line + " has a null product id");
+        }
+        return new LinkedHashSet<>(request.productIds());
+    }
+
+    private static int itemCount(List<Set<Long>> productIds) {
+        int items = 0;
+        for (var ids : productIds) {
+            items += ids.size();
+        }
+        return items;
+    }
+}
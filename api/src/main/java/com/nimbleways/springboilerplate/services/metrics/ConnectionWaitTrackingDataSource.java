@@ -0,0 +1,46 @@
+package com.nimbleways.springboilerplate.services.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Adds the time spent obtaining each connection to the {@link ProcessingTrace} of the calling thread, if any. Pool
+ * wide acquisition times are already published by the pool's own meters.
+ */
+public class ConnectionWaitTrackingDataSource extends DelegatingDataSource {
+
+    public ConnectionWaitTrackingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        var trace = ProcessingTrace.current();
+        if (trace == null) {
+            return super.getConnection();
+        }
+        long start = System.nanoTime();
+        try {
+            return super.getConnection();
+        } finally {
+            trace.recordConnectionWait(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        var trace = ProcessingTrace.current();
+        if (trace == null) {
+            return super.getConnection(username, password);
+        }
+        long start = System.nanoTime();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            trace.recordConnectionWait(System.nanoTime() - start);
+        }
+    }
+}
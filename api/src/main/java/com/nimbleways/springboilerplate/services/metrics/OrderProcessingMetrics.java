@@ -0,0 +1,209 @@
+package com.nimbleways.springboilerplate.services.metrics;
+
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the order-processing hot path. Counters are registered up front for every tag value they take, so
+ * recording an item, a replay or a reservation step is an array lookup and an increment.
+ */
+@Component
+public class OrderProcessingMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+    private final Timer singleOrderTimer;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Timer stockWriteTimer;
+    private final Counter backlogOrders;
+    private final Counter versionedWritesApplied;
+    private final Counter versionedWritesConflicting;
+    private final Counter stockRetries;
+    private final Counter stockRetriesResolved;
+    private final Counter stockRetriesExhausted;
+    private final Counter ordersCreated;
+    private final Counter ordersCreatedAndProcessed;
+    private final Counter[] replayCounters;
+    private final Counter[] reservationCounters;
+    private final Counter[][] itemCounters;
+
+    public OrderProcessingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.singleOrderTimer = processingTimer("single");
+        this.batchTimer = processingTimer("batch");
+        this.batchSize = DistributionSummary.builder("orders.batch.size")
+                .description("Number of orders per batch processing call")
+                .register(registry);
+        this.stockWriteTimer = Timer.builder("stock.batch.write")
+                .description("Time spent writing the batched stock decrements of a run")
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.backlogOrders = Counter.builder("orders.backlog.processed")
+                .description("Orders processed by backlog replay jobs")
+                .register(registry);
+        this.versionedWritesApplied = versionedWriteCounter("applied");
+        this.versionedWritesConflicting = versionedWriteCounter("conflict");
+        this.stockRetries = stockRetryCounter("retried");
+        this.stockRetriesResolved = stockRetryCounter("resolved");
+        this.stockRetriesExhausted = stockRetryCounter("exhausted");
+        this.ordersCreated = ingestedCounter("created");
+        this.ordersCreatedAndProcessed = ingestedCounter("processed");
+        this.replayCounters = new Counter[ReplaySource.values().length];
+        for (var source : ReplaySource.values()) {
+            replayCounters[source.ordinal()] = Counter.builder("orders.replayed")
+                    .description("Order processing requests answered as already processed")
+                    .tag("source", source.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        this.reservationCounters = new Counter[ReservationStep.values().length];
+        for (var step : ReservationStep.values()) {
+            reservationCounters[step.ordinal()] = Counter.builder("stock.reservations")
+                    .description("Order stock reservations, by step reached")
+                    .tag("outcome", step.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        this.itemCounters = new Counter[ProductType.values().length][];
+        for (var type : ProductType.values()) {
+            itemCounters[type.ordinal()] = itemCountersFor(type);
+        }
+    }
+
+    public Timer.Sample startTimer() {
+        return Timer.start(registry);
+    }
+
+    public void recordOrder(Timer.Sample sample) {
+        sample.stop(singleOrderTimer);
+    }
+
+    public void recordBatch(Timer.Sample sample, int orders) {
+        sample.stop(batchTimer);
+        batchSize.record(orders);
+    }
+
+    public void recordBacklogChunk(int orders) {
+        backlogOrders.increment(orders);
+    }
+
+    public void recordStockWrite(Runnable write) {
+        stockWriteTimer.record(write);
+    }
+
+    public <T> T recordStockWrite(Supplier<T> write) {
+        return stockWriteTimer.record(write);
+    }
+
+    /**
+     * Counts the product rows of a compare-and-set write, and those found changed concurrently; the ratio of the
+     * two is the conflict rate.
+     */
+    public void recordVersionedWrites(int rows, int conflicts) {
+        versionedWritesApplied.increment(rows - conflicts);
+        versionedWritesConflicting.increment(conflicts);
+    }
+
+    /**
+     * @param processed whether the orders were processed in the transaction that created them
+     */
+    public void recordIngestedOrders(int orders, boolean processed) {
+        (processed ? ordersCreatedAndProcessed : ordersCreated).increment(orders);
+    }
+
+    /**
+     * Counts a retry of the conflicting products of a run.
+     */
+    public void recordStockRetry() {
+        stockRetries.increment();
+    }
+
+    /**
+     * Counts a run whose stock was written after retrying, or given up once out of attempts.
+     */
+    public void recordStockRetriesOver(boolean resolved) {
+        (resolved ? stockRetriesResolved : stockRetriesExhausted).increment();
+    }
+
+    public void recordReplay(ReplaySource source) {
+        replayCounters[source.ordinal()].increment();
+    }
+
+    public void recordReservation(ReservationStep step) {
+        recordReservations(step, 1);
+    }
+
+    public void recordReservations(ReservationStep step, int reservations) {
+        reservationCounters[step.ordinal()].increment(reservations);
+    }
+
+    public void recordItem(ProductType productType, ProcessingOutcome outcome) {
+        itemCounters[productType.ordinal()][outcome.ordinal()].increment();
+    }
+
+    private Timer processingTimer(String mode) {
+        return Timer.builder("orders.processing")
+                .description("Time spent processing orders inside the processing transaction")
+                .tag("mode", mode)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter ingestedCounter(String mode) {
+        return Counter.builder("orders.ingested")
+                .description("Orders created through the ingestion API")
+                .tag("mode", mode)
+                .register(registry);
+    }
+
+    private Counter versionedWriteCounter(String result) {
+        return Counter.builder("stock.versioned.writes")
+                .description("Product rows written by compare-and-set on their version, by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter stockRetryCounter(String outcome) {
+        return Counter.builder("stock.conflict.retries")
+                .description("Retries of products changed concurrently during a run, and how runs that retried ended")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter[] itemCountersFor(ProductType productType) {
+        var outcomes = ProcessingOutcome.values();
+        var counters = new Counter[outcomes.length];
+        for (var outcome : outcomes) {
+            counters[outcome.ordinal()] = Counter.builder("orders.items.processed")
+                    .description("Order items processed, by product type and outcome")
+                    .tag("type", productType.name())
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        return counters;
+    }
+
+    /**
+     * Where a retried order was found already processed.
+     */
+    public enum ReplaySource {
+        CACHE, STORE
+    }
+
+    /**
+     * The steps of an order stock reservation.
+     */
+    public enum ReservationStep {
+        RESERVED, REJECTED, CONFIRMED, APPLIED, EXPIRED
+    }
+}
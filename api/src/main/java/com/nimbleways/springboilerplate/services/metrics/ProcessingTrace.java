@@ -0,0 +1,201 @@
+package com.nimbleways.springboilerplate.services.metrics;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Where the time of one {@code processOrder} call went: waiting for a pool connection, inside its transaction, and
+ * within that in each strategy and notification service call, aggregated by product type and notification kind.
+ * <p>
+ * A trace is bound to the thread serving the call, and to the workers processing its items in parallel, so the
+ * code being measured looks it up with {@link #current()} instead of passing it around; there is none outside a
+ * traced call. Calls are aggregated rather than listed, so a trace stays the same size however many items an
+ * order has.
+ * <p>
+ * Notifications queued by the call are sent after it ends, from another thread: each is counted when queued and
+ * recorded when sent, and the trace is complete once the call has ended and the last of them has been sent.
+ */
+public final class ProcessingTrace {
+
+    private static final ThreadLocal<ProcessingTrace> CURRENT = new ThreadLocal<>();
+
+    private final long orderId;
+    private final long startNanos;
+    private long transactionStartNanos;
+    private long endNanos;
+    private long connectionWaitNanos;
+    private int connections;
+    private int pendingNotifications;
+    private boolean ended;
+    private final Calls strategyCalls = new Calls(ProductType.values().length);
+    private final Calls notificationCalls = new Calls(NotificationEvent.Kind.values().length);
+
+    ProcessingTrace(long orderId, long startNanos) {
+        this.orderId = orderId;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * @return the trace of the call the current thread works for, or {@code null} if it is not traced
+     */
+    public static ProcessingTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the task with the given trace bound to the current thread, e.g. on a worker processing part of a traced
+     * call, and restores the previous binding afterwards.
+     */
+    public static void runWithin(ProcessingTrace trace, Runnable task) {
+        var previous = CURRENT.get();
+        CURRENT.set(trace);
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    static void bind(ProcessingTrace trace) {
+        CURRENT.set(trace);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Marks the start of the work inside the transaction, once its connection has been acquired.
+     */
+    public synchronized void transactionStarted() {
+        transactionStartNanos = System.nanoTime();
+    }
+
+    public synchronized void recordConnectionWait(long nanos) {
+        connectionWaitNanos += nanos;
+        connections++;
+    }
+
+    public synchronized void recordStrategyCall(ProductType type, long nanos) {
+        strategyCalls.record(type.ordinal(), nanos);
+    }
+
+    public synchronized void recordNotificationCall(NotificationEvent.Kind kind, long nanos) {
+        notificationCalls.record(kind.ordinal(), nanos);
+    }
+
+    synchronized void notificationQueued() {
+        pendingNotifications++;
+    }
+
+    /**
+     * @return whether the trace is now complete: the call has ended and this was its last queued notification
+     */
+    synchronized boolean notificationSent(NotificationEvent.Kind kind, long nanos) {
+        notificationCalls.record(kind.ordinal(), nanos);
+        pendingNotifications--;
+        return ended && pendingNotifications == 0;
+    }
+
+    /**
+     * @return whether the trace is now complete, i.e. none of its queued notifications is still waiting to be sent
+     */
+    synchronized boolean end(long nanos) {
+        endNanos = nanos;
+        ended = true;
+        return pendingNotifications == 0;
+    }
+
+    long orderId() {
+        return orderId;
+    }
+
+    synchronized long totalNanos() {
+        return endNanos - startNanos;
+    }
+
+    synchronized long connectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    /**
+     * @return the time from the start of the transaction's work to the end of the call, commit and the
+     * notifications sent on commit included, or 0 if the transaction never started
+     */
+    synchronized long transactionNanos() {
+        return transactionStartNanos == 0 ? 0 : endNanos - transactionStartNanos;
+    }
+
+    synchronized long strategyNanos() {
+        return strategyCalls.totalNanos();
+    }
+
+    synchronized long notificationNanos() {
+        return notificationCalls.totalNanos();
+    }
+
+    /**
+     * One line of {@code key=value} pairs, durations in microseconds, calls as {@code name:count/total/max}.
+     */
+    synchronized String describe() {
+        var strategies = new StringJoiner(",", "[", "]");
+        for (var type : ProductType.values()) {
+            strategyCalls.describe(type.ordinal(), type.name(), strategies);
+        }
+        var notifications = new StringJoiner(",", "[", "]");
+        for (var kind : NotificationEvent.Kind.values()) {
+            notificationCalls.describe(kind.ordinal(), kind.name().toLowerCase(Locale.ROOT), notifications);
+        }
+        return "orderId=" + orderId
+                + " totalUs=" + micros(totalNanos())
+                + " connectionWaitUs=" + micros(connectionWaitNanos)
+                + " connections=" + connections
+                + " transactionUs=" + micros(transactionNanos())
+                + " strategyCalls=" + strategies
+                + " notificationCalls=" + notifications;
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1_000;
+    }
+
+    private static final class Calls {
+
+        private final int[] counts;
+        private final long[] totals;
+        private final long[] maxima;
+
+        Calls(int size) {
+            counts = new int[size];
+            totals = new long[size];
+            maxima = new long[size];
+        }
+
+        void record(int index, long nanos) {
+            counts[index]++;
+            totals[index] += nanos;
+            maxima[index] = Math.max(maxima[index], nanos);
+        }
+
+        long totalNanos() {
+            long total = 0;
+            for (var nanos : totals) {
+                total += nanos;
+            }
+            return total;
+        }
+
+        void describe(int index, String name, StringJoiner joiner) {
+            if (counts[index] > 0) {
+                joiner.add(name + ":" + counts[index] + "/" + micros(totals[index]) + "/" + micros(maxima[index]));
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.nimbleways.springboilerplate.services.metrics;
+
+import com.nimbleways.springboilerplate.config.OrderTracingProperties;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts and ends the {@link ProcessingTrace} of each {@code processOrder} call. Every trace is recorded in the
+ * {@code orders.processing.phase} timers; traces of calls slower than the configured threshold are also logged in
+ * full, as one line of {@code key=value} pairs. A trace whose call queued notifications is recorded once the last
+ * of them has been sent, so that their calls are in it.
+ */
+@Component
+public class ProcessingTracer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessingTracer.class);
+
+    private final long slowThresholdNanos;
+    private final Timer connectionWait;
+    private final Timer transaction;
+    private final Timer strategies;
+    private final Timer notifications;
+
+    public ProcessingTracer(OrderTracingProperties properties, MeterRegistry registry) {
+        this.slowThresholdNanos = properties.slowThreshold().toNanos();
+        this.connectionWait = phaseTimer(registry, "connection_wait");
+        this.transaction = phaseTimer(registry, "transaction");
+        this.strategies = phaseTimer(registry, "strategies");
+        this.notifications = phaseTimer(registry, "notifications");
+    }
+
+    /**
+     * Starts tracing a call on the current thread; it must be {@link #finish finished} on the same thread.
+     */
+    public ProcessingTrace start(long orderId) {
+        var trace = new ProcessingTrace(orderId, System.nanoTime());
+        ProcessingTrace.bind(trace);
+        return trace;
+    }
+
+    public void finish(ProcessingTrace trace) {
+        boolean complete = trace.end(System.nanoTime());
+        ProcessingTrace.unbind();
+        if (complete) {
+            record(trace);
+        }
+    }
+
+    /**
+     * Counts a notification of the traced call queued to be sent later; must be called before the call finishes.
+     */
+    public void notificationQueued(ProcessingTrace trace) {
+        trace.notificationQueued();
+    }
+
+    /**
+     * Records the send of a notification counted by {@link #notificationQueued}, and the trace if it was the last.
+     */
+    public void notificationSent(ProcessingTrace trace, NotificationEvent.Kind kind, long nanos) {
+        if (trace.notificationSent(kind, nanos)) {
+            record(trace);
+        }
+    }
+
+    private void record(ProcessingTrace trace) {
+        connectionWait.record(trace.connectionWaitNanos(), TimeUnit.NANOSECONDS);
+        transaction.record(trace.transactionNanos(), TimeUnit.NANOSECONDS);
+        strategies.record(trace.strategyNanos(), TimeUnit.NANOSECONDS);
+        notifications.record(trace.notificationNanos(), TimeUnit.NANOSECONDS);
+        if (trace.totalNanos() >= slowThresholdNanos) {
+            LOGGER.warn("Slow order processing {}", trace.describe());
+        }
+    }
+
+    private static Timer phaseTimer(MeterRegistry registry, String phase) {
+        return Timer.builder("orders.processing.phase")
+                .description("Time a processOrder call spent in each phase, its calls summed")
+                .tag("phase", phase)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+}
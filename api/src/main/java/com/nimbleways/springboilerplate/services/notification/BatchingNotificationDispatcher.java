@@ -0,0 +1,220 @@
+package com.nimbleways.springboilerplate.services.notification;
+
+import com.nimbleways.springboilerplate.config.NotificationDispatchProperties;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.services.metrics.ProcessingTrace;
+import com.nimbleways.springboilerplate.services.metrics.ProcessingTracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queues events in a bounded buffer and sends them from a single background thread.
+ * <p>
+ * Once an event arrives the worker keeps collecting for one window and then sends each distinct event
+ * once, so a product that is out of stock for a thousand order items produces a single notice per window.
+ * A full queue holds a producer back for at most the offer timeout per dispatched list, however many events it
+ * holds, since dispatching runs after commit on the request thread; what is not queued by then is dropped.
+ * Failed sends are retried with a doubling backoff and given up after the configured number of attempts.
+ * <p>
+ * Each queued event keeps the {@link ProcessingTrace} of the order that dispatched it, if any; the time spent
+ * sending it, retries included, is recorded in the trace of every order whose event the send carried.
+ */
+public class BatchingNotificationDispatcher implements NotificationDispatcher, SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchingNotificationDispatcher.class);
+
+    private final NotificationSink sink;
+    private final ProcessingTracer tracer;
+    private final ThreadFactory threadFactory;
+    private final BlockingQueue<Queued> queue;
+    private final long windowNanos;
+    private final long offerTimeoutNanos;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    private final Counter enqueued;
+    private final Counter dropped;
+    private final Counter coalesced;
+    private final Counter retried;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public BatchingNotificationDispatcher(NotificationSink sink,
+                                          ProcessingTracer tracer,
+                                          NotificationDispatchProperties properties,
+                                          ThreadFactory threadFactory,
+                                          MeterRegistry registry) {
+        this.sink = sink;
+        this.tracer = tracer;
+        this.threadFactory = threadFactory;
+        this.queue = new ArrayBlockingQueue<>(properties.capacity());
+        this.windowNanos = properties.window().toNanos();
+        this.offerTimeoutNanos = properties.offerTimeout().toNanos();
+        this.maxAttempts = properties.maxAttempts();
+        this.retryBackoff = properties.retryBackoff();
+
+        this.enqueued = counter(registry, "notifications.enqueued", "Events accepted by the dispatch queue");
+        this.dropped = counter(registry, "notifications.dropped", "Events dropped because the queue stayed full");
+        this.coalesced = counter(registry, "notifications.coalesced", "Duplicate events merged within a window");
+        this.retried = counter(registry, "notifications.retries", "Sink calls retried after a failure");
+        this.failed = counter(registry, "notifications.failed", "Events given up after the last retry");
+        Gauge.builder("notifications.queue.size", queue, BlockingQueue::size)
+                .description("Events waiting in the dispatch queue")
+                .register(registry);
+    }
+
+    @Override
+    public void dispatch(List<NotificationEvent> events) {
+        var trace = ProcessingTrace.current();
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        for (int i = 0; i < events.size(); i++) {
+            var queued = new Queued(events.get(i), trace);
+            long remaining = deadline - System.nanoTime();
+            try {
+                if (remaining > 0 ? queue.offer(queued, remaining, TimeUnit.NANOSECONDS) : queue.offer(queued)) {
+                    enqueued.increment();
+                    if (trace != null) {
+                        tracer.notificationQueued(trace);
+                    }
+                } else {
+                    dropped.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment(events.size() - i);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = threadFactory.newThread(this::run);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = worker;
+            worker = null;
+        }
+        if (current == null) {
+            return;
+        }
+        try {
+            current.join(Duration.ofNanos(windowNanos).plusSeconds(5).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        try {
+            while (running || !queue.isEmpty()) {
+                var first = queue.poll(windowNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    send(collectWindow(first));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the distinct events of the window, each with the traces of the orders that dispatched it
+     */
+    private Map<NotificationEvent, List<ProcessingTrace>> collectWindow(Queued first) throws InterruptedException {
+        var batch = new LinkedHashMap<NotificationEvent, List<ProcessingTrace>>();
+        add(batch, first);
+        long deadline = System.nanoTime() + windowNanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            var next = running ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            if (!add(batch, next)) {
+                coalesced.increment();
+            }
+        }
+        return batch;
+    }
+
+    private static boolean add(Map<NotificationEvent, List<ProcessingTrace>> batch, Queued queued) {
+        boolean added = !batch.containsKey(queued.event());
+        var traces = batch.computeIfAbsent(queued.event(), event -> new ArrayList<>(1));
+        if (queued.trace() != null) {
+            traces.add(queued.trace());
+        }
+        return added;
+    }
+
+    private void send(Map<NotificationEvent, List<ProcessingTrace>> batch) throws InterruptedException {
+        for (var entry : batch.entrySet()) {
+            long start = System.nanoTime();
+            try {
+                deliver(entry.getKey());
+            } finally {
+                long nanos = System.nanoTime() - start;
+                for (var trace : entry.getValue()) {
+                    tracer.notificationSent(trace, entry.getKey().kind(), nanos);
+                }
+            }
+        }
+    }
+
+    private void deliver(NotificationEvent event) throws InterruptedException {
+        long backoffMillis = retryBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.send(event);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    failed.increment();
+                    LOGGER.warn("Giving up notification {} after {} attempts", event, attempt, e);
+                    return;
+                }
+                retried.increment();
+                Thread.sleep(backoffMillis);
+                backoffMillis *= 2;
+            }
+        }
+    }
+
+    private record Queued(NotificationEvent event, ProcessingTrace trace) {
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String description) {
+        return Counter.builder(name).description(description).register(registry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.nimbleways.springboilerplate.services.notification;
+
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+
+import java.util.List;
+
+/**
+ * Sends every event right away on the calling thread, one sink call per event.
+ */
+public class DirectNotificationDispatcher implements NotificationDispatcher {
+
+    private final NotificationSink sink;
+
+    public DirectNotificationDispatcher(NotificationSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void dispatch(List<NotificationEvent> events) {
+        events.forEach(sink::send);
+    }
+}
@@ -0,0 +1,12 @@
+package com.nimbleways.springboilerplate.services.notification;
+
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+
+import java.util.List;
+
+/**
+ * Delivers the notifications of committed processing runs to the {@link NotificationSink}.
+ */
+public interface NotificationDispatcher {
+    void dispatch(List<NotificationEvent> events);
+}
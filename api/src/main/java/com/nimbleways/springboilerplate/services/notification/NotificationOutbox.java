@@ -0,0 +1,39 @@
+package com.nimbleways.springboilerplate.services.notification;
+
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Holds the notifications of a processing run until its transaction commits, so a slow notification
+ * backend never extends the transaction and a rolled-back run never notifies anyone.
+ */
+@Component
+public class NotificationOutbox {
+
+    private final NotificationDispatcher dispatcher;
+
+    public NotificationOutbox(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public void publishAfterCommit(List<NotificationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        var pending = List.copyOf(events);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatcher.dispatch(pending);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatcher.dispatch(pending);
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package com.nimbleways.springboilerplate.services.notification;
+
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.services.metrics.ProcessingTrace;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+public class NotificationServiceSink implements NotificationSink {
+
+    private final NotificationService notificationService;
+    private final Map<NotificationEvent.Kind, Counter> sent = new EnumMap<>(NotificationEvent.Kind.class);
+
+    public NotificationServiceSink(NotificationService notificationService, MeterRegistry registry) {
+        this.notificationService = notificationService;
+        for (var kind : NotificationEvent.Kind.values()) {
+            sent.put(kind, Counter.builder("notifications.sent")
+                    .description("Calls made to the notification service, by kind")
+                    .tag("kind", kind.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Sends the event, timing the call when it is made on behalf of a traced order, i.e. dispatched on the thread
+     * that processed it; the batching dispatcher times the sends it makes for traced orders itself.
+     */
+    @Override
+    public void send(NotificationEvent event) {
+        var trace = ProcessingTrace.current();
+        if (trace == null) {
+            call(event);
+        } else {
+            long start = System.nanoTime();
+            try {
+                call(event);
+            } finally {
+                trace.recordNotificationCall(event.kind(), System.nanoTime() - start);
+            }
+        }
+        sent.get(event.kind()).increment();
+    }
+
+    private void call(NotificationEvent event) {
+        switch (event.kind()) {
+            case DELAY -> notificationService.sendDelayNotification(event.leadTime(), event.productName());
+            case OUT_OF_STOCK -> notificationService.sendOutOfStockNotification(event.productName());
+            case EXPIRATION -> notificationService.sendExpirationNotification(event.productName(), event.expiryDate());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.nimbleways.springboilerplate.services.notification;
+
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+
+/**
+ * Final destination of a notification event.
+ */
+public interface NotificationSink {
+    void send(NotificationEvent event);
+}
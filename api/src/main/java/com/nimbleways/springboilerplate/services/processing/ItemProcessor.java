@@ -0,0 +1,27 @@
+package com.nimbleways.springboilerplate.services.processing;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+
+import java.util.List;
+
+/**
+ * Runs the items of one order through their strategies.
+ */
+public interface ItemProcessor {
+
+    /**
+     * Each item runs against its own {@link ProcessingContext#forItem() item context}, so its notifications stay
+     * attached to it. Results are returned in item order, whatever order the items were actually processed in.
+     */
+    List<ItemResult> process(List<ProductMetadata> products,
+                             ProcessingContext context,
+                             ProductStrategyRegistry strategies);
+
+    /**
+     * Whether items reach the stock gateway from other threads than the caller's, which only the gateways of
+     * {@link com.nimbleways.springboilerplate.domain.stock.StockEngine#forBatch} support.
+     */
+    boolean concurrent();
+}
@@ -0,0 +1,12 @@
+package com.nimbleways.springboilerplate.services.processing;
+
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+
+import java.util.List;
+
+/**
+ * What one item of a run came to: its outcome and the notifications its strategy requested.
+ */
+public record ItemResult(ProcessingOutcome outcome, List<NotificationEvent> notifications) {
+}
@@ -0,0 +1,132 @@
+package com.nimbleways.springboilerplate.services.processing;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
+import com.nimbleways.springboilerplate.services.metrics.ProcessingTrace;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Spreads the items of an order over a bounded pool, partitioned by product id.
+ * <p>
+ * Items only interact through the stock of their own product, and all items of a product land in the same
+ * partition, in item order. Each partition therefore sees exactly the stock it would have seen sequentially,
+ * and the per-item results, in item order, are the sequential ones.
+ * The caller runs the first partition itself, so a saturated pool slows orders down but never blocks them.
+ */
+public class ParallelItemProcessor implements ItemProcessor, AutoCloseable {
+
+    private final SequentialItemProcessor sequential = new SequentialItemProcessor();
+    private final int parallelism;
+    private final int threshold;
+    private final ExecutorService executor;
+
+    public ParallelItemProcessor(int parallelism, int threshold, ThreadFactory threadFactory) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.threshold = Math.max(threshold, 2);
+        this.executor = Executors.newFixedThreadPool(parallelism, threadFactory);
+    }
+
+    @Override
+    public List<ItemResult> process(List<ProductMetadata> products,
+                                    ProcessingContext context,
+                                    ProductStrategyRegistry strategies) {
+        if (products.size() < threshold || parallelism == 1) {
+            return sequential.process(products, context, strategies);
+        }
+
+        var partitions = partition(products, Math.min(parallelism, products.size()));
+        var results = new ItemResult[products.size()];
+        var futures = new ArrayList<Future<?>>(partitions.length - 1);
+        var trace = ProcessingTrace.current();
+        for (int p = 1; p < partitions.length; p++) {
+            var items = partitions[p];
+            futures.add(executor.submit(() -> ProcessingTrace.runWithin(trace,
+                    () -> processPartition(items, products, context, strategies, results))));
+        }
+        // every partition has to be over before the run's transaction ends, even when one of them failed
+        RuntimeException failure = null;
+        try {
+            processPartition(partitions[0], products, context, strategies, results);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (var future : futures) {
+            try {
+                await(future);
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public boolean concurrent() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static int[][] partition(List<ProductMetadata> products, int count) {
+        var sizes = new int[count];
+        var assigned = new int[products.size()];
+        for (int i = 0; i < products.size(); i++) {
+            assigned[i] = Math.floorMod(products.get(i).id().hashCode(), count);
+            sizes[assigned[i]]++;
+        }
+        var partitions = new int[count][];
+        for (int p = 0; p < count; p++) {
+            partitions[p] = new int[sizes[p]];
+        }
+        Arrays.fill(sizes, 0);
+        for (int i = 0; i < assigned.length; i++) {
+            partitions[assigned[i]][sizes[assigned[i]]++] = i;
+        }
+        return partitions;
+    }
+
+    private static void processPartition(int[] items,
+                                         List<ProductMetadata> products,
+                                         ProcessingContext context,
+                                         ProductStrategyRegistry strategies,
+                                         ItemResult[] results) {
+        for (int index : items) {
+            var product = products.get(index);
+            var itemContext = context.forItem();
+            var outcome = strategies.process(product, itemContext);
+            results[index] = new ItemResult(outcome, itemContext.notifications());
+        }
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing order items", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Order item processing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.nimbleways.springboilerplate.services.processing;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SequentialItemProcessor implements ItemProcessor {
+
+    @Override
+    public List<ItemResult> process(List<ProductMetadata> products,
+                                    ProcessingContext context,
+                                    ProductStrategyRegistry strategies) {
+        var results = new ArrayList<ItemResult>(products.size());
+        for (var product : products) {
+            var itemContext = context.forItem();
+            var outcome = strategies.process(product, itemContext);
+            results.add(new ItemResult(outcome, itemContext.notifications()));
+        }
+        return results;
+    }
+
+    @Override
+    public boolean concurrent() {
+        return false;
+    }
+}
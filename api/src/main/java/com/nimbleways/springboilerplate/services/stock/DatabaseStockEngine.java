@@ -0,0 +1,40 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.stock.StockEngine;
+import com.nimbleways.springboilerplate.domain.stock.StockGateway;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+
+import java.util.Collection;
+
+/**
+ * Keeps the {@code products} table as the only source of truth: single orders decrement it item by item,
+ * batches read it once and write their net decrements in one JDBC batch at the end of the run. A product whose
+ * stock no longer covers its decrement is reported on its own, so just the items taking from it are processed
+ * again from its current stock, as under optimistic writes.
+ */
+public class DatabaseStockEngine implements StockEngine {
+
+    private final ImmediateStockGateway immediateStockGateway;
+    private final ProductStockRepository productStockRepository;
+    private final OrderProcessingMetrics metrics;
+
+    public DatabaseStockEngine(ImmediateStockGateway immediateStockGateway,
+                               ProductStockRepository productStockRepository,
+                               OrderProcessingMetrics metrics) {
+        this.immediateStockGateway = immediateStockGateway;
+        this.productStockRepository = productStockRepository;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public StockGateway forOrder(Collection<Long> productIds) {
+        return immediateStockGateway;
+    }
+
+    @Override
+    public StockGateway forBatch(Collection<Long> productIds) {
+        return new DeferredStockGateway(productIds, productStockRepository::findAvailable,
+                decrements -> metrics.recordStockWrite(() -> productStockRepository.decrementAll(decrements)));
+    }
+}
@@ -0,0 +1,93 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.stock.RetryableStockGateway;
+import com.nimbleways.springboilerplate.exceptions.StockConflictException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Tracks decrements in memory for the duration of a run so they can be written as one set-based update.
+ * <p>
+ * Starts from the {@code available} values read for the run; later items of the same product, in the same or
+ * another order of the run, see the stock left by earlier ones. A product missing from the starting values is
+ * treated as out of stock. {@link #complete()} hands the net decrements to the writer in product id order, so
+ * concurrent runs lock rows in the same order, and names the products that no longer had the stock to cover
+ * them; only those are left pending, for {@link #reload} to start again. Decrements may come from several
+ * threads of the same run.
+ */
+public class DeferredStockGateway implements RetryableStockGateway {
+
+    private final Function<Collection<Long>, Map<Long, Integer>> reader;
+    private final Function<Map<Long, Integer>, Set<Long>> writer;
+    private final Map<Long, Integer> remaining = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> decrements = new ConcurrentHashMap<>();
+
+    /**
+     * @param reader reads the current stock of products
+     * @param writer writes the given decrements, returning the products that did not have the stock to cover them
+     */
+    public DeferredStockGateway(Collection<Long> productIds,
+                                Function<Collection<Long>, Map<Long, Integer>> reader,
+                                Function<Map<Long, Integer>, Set<Long>> writer) {
+        this.reader = reader;
+        this.writer = writer;
+        load(productIds);
+    }
+
+    @Override
+    public boolean tryDecrement(ProductMetadata product) {
+        var productId = product.id();
+        var taken = new boolean[1];
+        remaining.computeIfPresent(productId, (id, left) -> {
+            if (left <= 0) {
+                return left;
+            }
+            taken[0] = true;
+            return left - 1;
+        });
+        if (taken[0]) {
+            decrements.merge(productId, 1, Integer::sum);
+        }
+        return taken[0];
+    }
+
+    @Override
+    public void complete() {
+        var conflicts = writer.apply(pendingDecrements());
+
+        decrements.keySet().retainAll(conflicts);
+        if (!conflicts.isEmpty()) {
+            throw new StockConflictException(conflicts);
+        }
+    }
+
+    @Override
+    public void reload(Set<Long> productIds) {
+        productIds.forEach(productId -> {
+            decrements.remove(productId);
+            remaining.remove(productId);
+        });
+        load(productIds);
+    }
+
+    /**
+     * @return the decrements taken and not written yet, in product id order
+     */
+    public Map<Long, Integer> pendingDecrements() {
+        return Collections.unmodifiableMap(new TreeMap<>(decrements));
+    }
+
+    private void load(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        remaining.putAll(reader.apply(productIds));
+    }
+}
@@ -0,0 +1,25 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.stock.StockGateway;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes every decrement to the database as soon as it happens, with an atomic conditional update.
+ * The outcome comes from the database, so no {@code available} value has to be read beforehand.
+ */
+@Component
+public class ImmediateStockGateway implements StockGateway {
+
+    private final ProductRepository productRepository;
+
+    public ImmediateStockGateway(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    public boolean tryDecrement(ProductMetadata product) {
+        return productRepository.decrementAvailable(product.id()) == 1;
+    }
+}
@@ -0,0 +1,44 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.stock.StockEngine;
+import com.nimbleways.springboilerplate.domain.stock.StockGateway;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.repositories.StockVersion;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the stock of a run's products without locking them and writes it back as one JDBC batch of
+ * compare-and-set updates on the row version. Instances sharing a database only contend for the few
+ * milliseconds between that write and their commit; a product changed concurrently is reported on its own, so
+ * just the items taking from it need to be processed again.
+ */
+public class OptimisticStockEngine implements StockEngine {
+
+    private final ProductStockRepository productStockRepository;
+    private final OrderProcessingMetrics metrics;
+
+    public OptimisticStockEngine(ProductStockRepository productStockRepository, OrderProcessingMetrics metrics) {
+        this.productStockRepository = productStockRepository;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public StockGateway forOrder(Collection<Long> productIds) {
+        return forBatch(productIds);
+    }
+
+    @Override
+    public StockGateway forBatch(Collection<Long> productIds) {
+        return new OptimisticStockGateway(productIds, productStockRepository::findStock, this::write);
+    }
+
+    private Set<Long> write(Map<Long, StockVersion> updates) {
+        var conflicts = metrics.recordStockWrite(() -> productStockRepository.compareAndSetAll(updates));
+        metrics.recordVersionedWrites(updates.size(), conflicts.size());
+        return conflicts;
+    }
+}
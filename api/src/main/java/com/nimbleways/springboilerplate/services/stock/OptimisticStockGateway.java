@@ -0,0 +1,98 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.stock.RetryableStockGateway;
+import com.nimbleways.springboilerplate.exceptions.StockConflictException;
+import com.nimbleways.springboilerplate.repositories.StockVersion;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Takes stock in memory from the {@code available} and {@code version} read for the run, and writes each
+ * product it took from as a compare-and-set on that version.
+ * <p>
+ * A product missing from the values read is treated as out of stock. {@link #complete()} writes in product id
+ * order, so concurrent runs lock rows in the same order, and names the products whose row moved on since it
+ * was read; only those are left pending, for {@link #reload} to start again. Decrements may come from several
+ * threads of the same run.
+ */
+public class OptimisticStockGateway implements RetryableStockGateway {
+
+    private final Function<Collection<Long>, Map<Long, StockVersion>> reader;
+    private final Function<Map<Long, StockVersion>, Set<Long>> writer;
+    private final Map<Long, StockVersion> read = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> remaining = new ConcurrentHashMap<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param reader reads the current stock and version of products
+     * @param writer writes the new stock of products expected at the given version, returning those that were not
+     */
+    public OptimisticStockGateway(Collection<Long> productIds,
+                                  Function<Collection<Long>, Map<Long, StockVersion>> reader,
+                                  Function<Map<Long, StockVersion>, Set<Long>> writer) {
+        this.reader = reader;
+        this.writer = writer;
+        load(productIds);
+    }
+
+    @Override
+    public boolean tryDecrement(ProductMetadata product) {
+        var productId = product.id();
+        var taken = new boolean[1];
+        remaining.computeIfPresent(productId, (id, left) -> {
+            if (left <= 0) {
+                return left;
+            }
+            taken[0] = true;
+            return left - 1;
+        });
+        if (taken[0]) {
+            pending.add(productId);
+        }
+        return taken[0];
+    }
+
+    @Override
+    public void complete() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        var updates = new TreeMap<Long, StockVersion>();
+        for (var productId : pending) {
+            updates.put(productId, new StockVersion(remaining.get(productId), read.get(productId).version()));
+        }
+
+        var conflicts = writer.apply(updates);
+
+        pending.retainAll(conflicts);
+        if (!conflicts.isEmpty()) {
+            throw new StockConflictException(conflicts);
+        }
+    }
+
+    @Override
+    public void reload(Set<Long> productIds) {
+        pending.removeAll(productIds);
+        productIds.forEach(productId -> {
+            read.remove(productId);
+            remaining.remove(productId);
+        });
+        load(productIds);
+    }
+
+    private void load(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        reader.apply(productIds).forEach((productId, stock) -> {
+            read.put(productId, stock);
+            remaining.put(productId, stock.available());
+        });
+    }
+}
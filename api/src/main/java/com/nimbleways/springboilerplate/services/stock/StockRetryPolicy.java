@@ -0,0 +1,91 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.stock.RetryableStockGateway;
+import com.nimbleways.springboilerplate.domain.stock.StockGateway;
+import com.nimbleways.springboilerplate.exceptions.StockConflictException;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Completes the stock of a run, retrying the products a {@link RetryableStockGateway} reports as changed
+ * concurrently: after a pause, they are read again and only the items taking from them are processed again.
+ * <p>
+ * Pauses grow exponentially up to a cap and are drawn uniformly below it, so runs that collided on a product do
+ * not collide again in lockstep. Any other gateway, or a conflict that does not name its products, fails the
+ * run straight away, as does the last allowed attempt.
+ */
+public class StockRetryPolicy {
+
+    private static final int MAX_DOUBLINGS = 20;
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final OrderProcessingMetrics metrics;
+
+    public StockRetryPolicy(int maxAttempts,
+                            Duration initialBackoff,
+                            Duration maxBackoff,
+                            OrderProcessingMetrics metrics) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt is needed: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param replay processes again the items of the given products, once the gateway has reloaded them
+     * @throws StockConflictException once out of attempts, naming the products still conflicting
+     */
+    public void complete(StockGateway stock, Consumer<Set<Long>> replay) {
+        int attempt = 1;
+        while (true) {
+            try {
+                stock.complete();
+                if (attempt > 1) {
+                    metrics.recordStockRetriesOver(true);
+                }
+                return;
+            } catch (StockConflictException e) {
+                if (!(stock instanceof RetryableStockGateway retryable) || e.getProductIds().isEmpty()) {
+                    throw e;
+                }
+                if (attempt == maxAttempts) {
+                    metrics.recordStockRetriesOver(false);
+                    throw e;
+                }
+                metrics.recordStockRetry();
+                pause(backoffNanos(attempt), e);
+                retryable.reload(e.getProductIds());
+                replay.accept(e.getProductIds());
+                attempt++;
+            }
+        }
+    }
+
+    /**
+     * @return a pause drawn uniformly between zero and the capped exponential backoff of the given attempt
+     */
+    long backoffNanos(int attempt) {
+        var ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, MAX_DOUBLINGS));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void pause(long nanos, StockConflictException conflict) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            conflict.addSuppressed(e);
+            throw conflict;
+        }
+    }
+}
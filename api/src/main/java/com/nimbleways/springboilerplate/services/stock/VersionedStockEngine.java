@@ -0,0 +1,57 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.stock.StockEngine;
+import com.nimbleways.springboilerplate.domain.stock.StockGateway;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.exceptions.StockConflictException;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Takes stock from managed {@link Product} entities and lets Hibernate
+ * write them: one query loads the run's products, and the flush sends the dirty ones as versioned updates in
+ * JDBC batches of {@code hibernate.jdbc.batch_size}. Rows changed concurrently fail the flush with a
+ * {@link StockConflictException} instead of waiting on row locks.
+ */
+public class VersionedStockEngine implements StockEngine {
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final OrderProcessingMetrics metrics;
+
+    public VersionedStockEngine(ProductRepository productRepository,
+                                EntityManager entityManager,
+                                OrderProcessingMetrics metrics) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public StockGateway forOrder(Collection<Long> productIds) {
+        return forBatch(productIds);
+    }
+
+    @Override
+    public StockGateway forBatch(Collection<Long> productIds) {
+        List<Product> products = productIds.isEmpty() ? List.of() : productRepository.findAllByIdIn(productIds);
+        return new VersionedStockGateway(products, () -> metrics.recordStockWrite(this::flush));
+    }
+
+    private void flush() {
+        try {
+            entityManager.flush();
+        } catch (OptimisticLockException e) {
+            // a batched update only tells which statement failed, not which product
+            if (e.getEntity() instanceof Product product) {
+                throw new StockConflictException(product.getId(), e);
+            }
+            throw new StockConflictException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.stock.StockGateway;
+import com.nimbleways.springboilerplate.entities.Product;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decrements the managed products of a run in memory; {@link #complete()} flushes them. A product missing from
+ * the run's products is treated as out of stock, and so is the stock reservations hold. Decrements may come from
+ * several threads of the same run.
+ */
+public class VersionedStockGateway implements StockGateway {
+
+    private final Map<Long, Product> products;
+    private final Runnable flush;
+
+    public VersionedStockGateway(Collection<Product> products, Runnable flush) {
+        this.products = new HashMap<>(products.size() * 2);
+        products.forEach(product -> this.products.put(product.getId(), product));
+        this.flush = flush;
+    }
+
+    @Override
+    public boolean tryDecrement(ProductMetadata product) {
+        var entity = products.get(product.id());
+        if (entity == null) {
+            return false;
+        }
+        synchronized (entity) {
+            var available = entity.getAvailable();
+            var held = entity.getHeld() == null ? 0 : entity.getHeld();
+            if (available == null || available - held <= 0) {
+                return false;
+            }
+            entity.setAvailable(available - 1);
+            return true;
+        }
+    }
+
+    @Override
+    public void complete() {
+        flush.run();
+    }
+}
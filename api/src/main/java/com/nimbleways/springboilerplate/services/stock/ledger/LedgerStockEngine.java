@@ -0,0 +1,98 @@
+package com.nimbleways.springboilerplate.services.stock.ledger;
+
+import com.nimbleways.springboilerplate.domain.stock.StockEngine;
+import com.nimbleways.springboilerplate.domain.stock.StockGateway;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves stock from the {@link StockLedger} and flushes it to the database on a fixed delay.
+ * <p>
+ * Started before the web server so leftover journal segments are applied before the first request, and
+ * stopped after it with a final flush.
+ */
+public class LedgerStockEngine implements StockEngine, SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerStockEngine.class);
+
+    private final StockLedger ledger;
+    private final Duration flushInterval;
+    private final ThreadFactory threadFactory;
+    private final OrderProcessingMetrics metrics;
+
+    private ScheduledExecutorService scheduler;
+
+    public LedgerStockEngine(StockLedger ledger,
+                             Duration flushInterval,
+                             ThreadFactory threadFactory,
+                             OrderProcessingMetrics metrics) {
+        this.ledger = ledger;
+        this.flushInterval = flushInterval;
+        this.threadFactory = threadFactory;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public StockGateway forOrder(Collection<Long> productIds) {
+        return new LedgerStockGateway(ledger);
+    }
+
+    @Override
+    public StockGateway forBatch(Collection<Long> productIds) {
+        ledger.preload(productIds);
+        return new LedgerStockGateway(ledger);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        ledger.recover();
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        var millis = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(flushInterval.plusSeconds(5).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        ledger.close();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void flush() {
+        try {
+            metrics.recordStockWrite(ledger::flush);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Stock ledger flush failed, the deltas stay journaled for the next attempt", e);
+        }
+    }
+}
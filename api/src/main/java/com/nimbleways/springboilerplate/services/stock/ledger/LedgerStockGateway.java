@@ -0,0 +1,97 @@
+package com.nimbleways.springboilerplate.services.stock.ledger;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.stock.StockGateway;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Reserves from the {@link StockLedger} for one run and ties the reservations to the run's transaction: they are
+ * journaled as one group just before it commits, and given back if it rolls back instead, including when its
+ * commit fails after they were journaled. Outside a transaction they are journaled on {@link #complete()}. Created on the run's
+ * thread, after which reservations may come from several threads of the run.
+ */
+class LedgerStockGateway implements StockGateway {
+
+    private final StockLedger ledger;
+    private final Queue<Long> reserved = new ConcurrentLinkedQueue<>();
+    private final boolean synchronizationRegistered;
+
+    LedgerStockGateway(StockLedger ledger) {
+        this.ledger = ledger;
+        this.synchronizationRegistered = TransactionSynchronizationManager.isSynchronizationActive();
+        if (synchronizationRegistered) {
+            TransactionSynchronizationManager.registerSynchronization(new ReservationSynchronization());
+        }
+    }
+
+    @Override
+    public boolean tryDecrement(ProductMetadata product) {
+        return tryReserve(product.id());
+    }
+
+    boolean tryReserve(long productId) {
+        if (!ledger.tryReserve(productId)) {
+            return false;
+        }
+        reserved.add(productId);
+        return true;
+    }
+
+    /**
+     * Gives back every unit reserved so far, leaving nothing for the transaction to journal.
+     */
+    void releaseAll() {
+        Long productId;
+        while ((productId = reserved.poll()) != null) {
+            ledger.release(productId);
+        }
+    }
+
+    @Override
+    public void complete() {
+        if (!synchronizationRegistered && !reserved.isEmpty()) {
+            ledger.commit(taken());
+        }
+    }
+
+    private Map<Long, Integer> taken() {
+        var taken = new HashMap<Long, Integer>();
+        reserved.forEach(productId -> taken.merge(productId, 1, Integer::sum));
+        return taken;
+    }
+
+    private final class ReservationSynchronization implements TransactionSynchronization {
+
+        private Map<Long, Integer> journaled;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!reserved.isEmpty()) {
+                var taken = taken();
+                ledger.commit(taken);
+                journaled = taken;
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                return;
+            }
+            if (journaled != null) {
+                // a commit of unknown outcome keeps its units: selling them again could oversell
+                if (status == STATUS_ROLLED_BACK) {
+                    ledger.restore(journaled);
+                }
+            } else {
+                reserved.forEach(ledger::release);
+            }
+        }
+    }
+}
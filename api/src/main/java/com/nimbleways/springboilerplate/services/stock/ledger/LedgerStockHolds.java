@@ -0,0 +1,66 @@
+package com.nimbleways.springboilerplate.services.stock.ledger;
+
+import com.nimbleways.springboilerplate.services.stock.reservation.StockHolds;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds stock by taking it from the {@link StockLedger}'s counters, like any run would, so the ledger stays the only
+ * writer of {@code products.available}: a hold is journaled when its reservation commits and reaches the table with
+ * the next flush, and an expired one is given back to the counters once its release has committed. Nothing is left
+ * to take when a reservation is applied. A hold that is short gives back what it took before reporting it.
+ */
+public class LedgerStockHolds implements StockHolds {
+
+    private final StockLedger ledger;
+
+    public LedgerStockHolds(StockLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    @Override
+    public Set<Long> hold(Map<Long, Integer> quantities) {
+        ledger.preload(quantities.keySet());
+        var gateway = new LedgerStockGateway(ledger);
+        var shortProductIds = new HashSet<Long>();
+        quantities.forEach((productId, quantity) -> {
+            for (int i = 0; i < quantity; i++) {
+                if (!gateway.tryReserve(productId)) {
+                    shortProductIds.add(productId);
+                    return;
+                }
+            }
+        });
+        if (!shortProductIds.isEmpty()) {
+            // given back at once: outside a transaction nothing else would, and the caller rolls back anyway
+            gateway.releaseAll();
+            return shortProductIds;
+        }
+        gateway.complete();
+        return shortProductIds;
+    }
+
+    @Override
+    public void take(Map<Long, Integer> quantities) {
+        // taken off the counters when held
+    }
+
+    @Override
+    public void release(Map<Long, Integer> quantities) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ledger.restore(quantities);
+            return;
+        }
+        // a release of unknown outcome keeps its units held: giving them back twice could oversell
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ledger.restore(quantities);
+            }
+        });
+    }
+}
@@ -0,0 +1,183 @@
+package com.nimbleways.springboilerplate.services.stock.ledger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only file record of committed stock movements, split into numbered segments.
+ * <p>
+ * Each record is a product id and a signed delta. The movements of one transaction are written together by
+ * {@link #commit}, followed by a marker carrying their count, and synced before it returns. Only whole groups are
+ * read back: records without their marker, cut short by a crash, belong to a transaction that never committed.
+ * Nothing is written for a transaction before it commits, so a sync never makes another transaction's movements
+ * durable ahead of its own commit.
+ * <p>
+ * Commits go to the open segment; {@link #rotate()} closes it and opens the next one, so a closed segment holds a
+ * fixed set of movements that can be applied and deleted as a unit.
+ */
+class StockJournal {
+
+    private static final String SUFFIX = ".journal";
+    private static final int RECORD_BYTES = Long.BYTES + Integer.BYTES;
+    /**
+     * Product id of the record closing a group; product ids are positive.
+     */
+    private static final long COMMIT_MARKER = -1L;
+
+    private final Path directory;
+    private final String name;
+    private final Pattern segmentFile;
+
+    private long segment = -1;
+    private FileChannel channel;
+    private boolean dirty;
+
+    StockJournal(Path directory, String name) {
+        this.directory = directory;
+        this.name = name;
+        this.segmentFile = Pattern.compile(Pattern.quote(name) + "\\.(\\d+)" + Pattern.quote(SUFFIX));
+    }
+
+    synchronized void open(long firstSegment) {
+        try {
+            Files.createDirectories(directory);
+            segment = firstSegment;
+            channel = new FileOutputStream(path(segment).toFile(), true).getChannel();
+            dirty = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the movements of one transaction, keyed by product id, and forces them to disk. A group that could
+     * not be written whole is cut off again, so the next one starts on a record boundary.
+     */
+    synchronized void commit(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        var group = ByteBuffer.allocate((deltas.size() + 1) * RECORD_BYTES);
+        deltas.forEach((productId, delta) -> group.putLong(productId).putInt(delta));
+        group.putLong(COMMIT_MARKER).putInt(deltas.size());
+        group.flip();
+        long start = -1;
+        try {
+            start = channel.size();
+            while (group.hasRemaining()) {
+                channel.write(group);
+            }
+            channel.force(false);
+            dirty = true;
+        } catch (IOException e) {
+            if (start >= 0) {
+                try {
+                    channel.truncate(start);
+                } catch (IOException truncation) {
+                    e.addSuppressed(truncation);
+                }
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes the open segment and opens the next one, unless nothing was committed since the last rotation.
+     *
+     * @return the number of the segment just closed
+     */
+    synchronized OptionalLong rotate() {
+        if (!dirty) {
+            return OptionalLong.empty();
+        }
+        var closed = segment;
+        close();
+        open(closed + 1);
+        return OptionalLong.of(closed);
+    }
+
+    synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        channel = null;
+    }
+
+    /**
+     * @return numbers of the segments on disk other than the open one, in ascending order
+     */
+    synchronized List<Long> closedSegments() {
+        try (Stream<Path> files = Files.exists(directory) ? Files.list(directory) : Stream.empty()) {
+            return files.map(path -> segmentFile.matcher(path.getFileName().toString()))
+                    .filter(matcher -> matcher.matches())
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .filter(number -> channel == null || number != segment)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the net delta of each product over the committed groups of the segment
+     */
+    Map<Long, Long> read(long number) {
+        var deltas = new HashMap<Long, Long>();
+        var group = new HashMap<Long, Long>();
+        int records = 0;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path(number))))) {
+            while (true) {
+                long productId = in.readLong();
+                int delta = in.readInt();
+                if (productId != COMMIT_MARKER) {
+                    group.merge(productId, (long) delta, Long::sum);
+                    records++;
+                    continue;
+                }
+                if (delta != records) {
+                    throw new IllegalStateException("Corrupt stock journal segment " + path(number) + ": a group of "
+                            + records + " records closed by a marker of " + delta);
+                }
+                group.forEach((id, sum) -> deltas.merge(id, sum, Long::sum));
+                group.clear();
+                records = 0;
+            }
+        } catch (EOFException e) {
+            return deltas;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void delete(long number) {
+        try {
+            Files.deleteIfExists(path(number));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path path(long number) {
+        return directory.resolve(String.format("%s.%019d%s", name, number, SUFFIX));
+    }
+}
@@ -0,0 +1,173 @@
+package com.nimbleways.springboilerplate.services.stock.ledger;
+
+import com.nimbleways.springboilerplate.entities.StockLedgerCheckpoint;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.repositories.StockLedgerCheckpointRepository;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stock counters that take over from {@code products.available} as the source of truth.
+ * <p>
+ * A counter is read from the database the first time its product is touched and is then only changed here,
+ * with compare-and-set loops, so reservations never block each other and never take the last unit twice. Each
+ * counter is a {@link StripedStock}, split across as many cells as configured, so threads taking the same hot
+ * product mostly land on different cells instead of retrying on one.
+ * The movements of a transaction are written to a {@link StockJournal} as it commits, through {@link #commit};
+ * {@link #flush()} closes the current segment and adds its net deltas to {@code products} in one transaction that
+ * also records the segment as applied. {@link #recover()} does the same for segments left behind by a crash before
+ * anything is served.
+ * <p>
+ * Counters are never read again, so the ledger must be the only writer of {@code products.available} while it is
+ * enabled. Within the application it is: it replaces the other stock engines, reservations hold through
+ * {@link LedgerStockHolds}, and the reactive stack, which writes the table itself, refuses to start with it.
+ * Stock written to the table from outside the application is only seen after a restart.
+ */
+public class StockLedger {
+
+    private final String name;
+    private final StockJournal journal;
+    private final ProductStockRepository productStockRepository;
+    private final StockLedgerCheckpointRepository checkpointRepository;
+    private final TransactionOperations transactions;
+    private final int stripes;
+    private final Map<Long, StripedStock> available = new ConcurrentHashMap<>();
+
+    StockLedger(String name,
+                StockJournal journal,
+                int stripes,
+                ProductStockRepository productStockRepository,
+                StockLedgerCheckpointRepository checkpointRepository,
+                TransactionOperations transactions) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripes must be a power of two: " + stripes);
+        }
+        this.name = name;
+        this.journal = journal;
+        this.stripes = stripes;
+        this.productStockRepository = productStockRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactions = transactions;
+    }
+
+    public static StockLedger create(String name,
+                                     Path journalDirectory,
+                                     int stripes,
+                                     ProductStockRepository productStockRepository,
+                                     StockLedgerCheckpointRepository checkpointRepository,
+                                     TransactionOperations transactions) {
+        return new StockLedger(name, new StockJournal(journalDirectory, name), stripes, productStockRepository,
+                checkpointRepository, transactions);
+    }
+
+    /**
+     * Takes one unit of the product if any is left. Nothing is journaled until the taker {@link #commit}s.
+     */
+    public boolean tryReserve(long productId) {
+        return counter(productId).tryTake();
+    }
+
+    /**
+     * Gives back a unit taken by {@link #tryReserve} and not committed, e.g. when the reserving transaction
+     * rolled back.
+     */
+    public void release(long productId) {
+        counter(productId).add(1);
+    }
+
+    /**
+     * Makes the units a transaction took durable, keyed by product id. Must run before that transaction commits.
+     */
+    public void commit(Map<Long, Integer> taken) {
+        var deltas = new HashMap<Long, Integer>(taken.size() * 2);
+        taken.forEach((productId, quantity) -> deltas.put(productId, -quantity));
+        journal.commit(deltas);
+    }
+
+    /**
+     * Gives back units already {@link #commit}ted, e.g. when the transaction failed to commit after all.
+     */
+    public void restore(Map<Long, Integer> taken) {
+        journal.commit(taken);
+        taken.forEach((productId, quantity) -> counter(productId).add(quantity));
+    }
+
+    /**
+     * Reads the counters of the given products that are not in memory yet, in one query.
+     */
+    public void preload(Collection<Long> productIds) {
+        var missing = productIds.stream().filter(id -> !available.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            productStockRepository.findAvailable(missing)
+                    .forEach((productId, stock) -> available.putIfAbsent(productId, new StripedStock(stock, stripes)));
+        }
+    }
+
+    public long available(long productId) {
+        return counter(productId).sum();
+    }
+
+    /**
+     * Applies the segments a previous run left on disk, then opens a fresh segment numbered after both those and
+     * the last one applied, so a lost or emptied journal directory never reuses a number the checkpoint covers.
+     */
+    public synchronized void recover() {
+        var leftover = journal.closedSegments();
+        long last = Math.max(lastApplied(), leftover.isEmpty() ? -1 : leftover.get(leftover.size() - 1));
+        applyClosedSegments();
+        journal.open(last + 1);
+    }
+
+    /**
+     * Writes the net deltas journaled since the last flush to the database.
+     */
+    public synchronized void flush() {
+        journal.rotate();
+        applyClosedSegments();
+    }
+
+    public synchronized void close() {
+        flush();
+        journal.close();
+    }
+
+    private void applyClosedSegments() {
+        List<Long> segments = journal.closedSegments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        long applied = lastApplied();
+        var deltas = new HashMap<Long, Long>();
+        var pending = new ArrayList<Long>();
+        for (var segment : segments) {
+            if (segment > applied) {
+                journal.read(segment).forEach((productId, delta) -> deltas.merge(productId, delta, Long::sum));
+                pending.add(segment);
+            }
+        }
+        if (!pending.isEmpty()) {
+            long last = pending.get(pending.size() - 1);
+            transactions.executeWithoutResult(status -> {
+                productStockRepository.applyDeltas(deltas);
+                checkpointRepository.save(new StockLedgerCheckpoint(name, last));
+            });
+        }
+        segments.forEach(journal::delete);
+    }
+
+    private long lastApplied() {
+        return checkpointRepository.findById(name).map(StockLedgerCheckpoint::getLastSegment).orElse(-1L);
+    }
+
+    private StripedStock counter(long productId) {
+        return available.computeIfAbsent(productId, id -> new StripedStock(
+                productStockRepository.findAvailable(List.of(id)).getOrDefault(id, 0), stripes));
+    }
+}
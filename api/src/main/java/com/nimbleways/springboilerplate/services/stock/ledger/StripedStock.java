@@ -0,0 +1,66 @@
+package com.nimbleways.springboilerplate.services.stock.ledger;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The units of one product left to take, split across cells a cache line apart, so that threads taking the same
+ * hot product compare-and-set different lines instead of all retrying on one.
+ * <p>
+ * A thread takes from the cell its id maps to and, once that is empty, from the others in turn, so a unit is only
+ * reported missing when every cell was found empty. No cell goes below zero, so no unit is taken twice. Units given
+ * back go to the giver's cell. With a single cell this is a plain compare-and-set counter.
+ */
+final class StripedStock {
+
+    // longs per 64-byte cache line: only every eighth slot of the array is used
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * @param stripes number of cells, a power of two
+     */
+    StripedStock(long available, int stripes) {
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        this.mask = stripes - 1;
+        long share = Math.floorDiv(available, stripes);
+        long rest = Math.floorMod(available, stripes);
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            cells.set(stripe * PADDING, stripe < rest ? share + 1 : share);
+        }
+    }
+
+    boolean tryTake() {
+        int home = home();
+        for (int i = 0; i <= mask; i++) {
+            int index = ((home + i) & mask) * PADDING;
+            long left;
+            while ((left = cells.get(index)) > 0) {
+                if (cells.compareAndSet(index, left, left - 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    void add(long units) {
+        cells.getAndAdd(home() * PADDING, units);
+    }
+
+    /**
+     * @return the units left, exact once the takes and gives in flight are done
+     */
+    long sum() {
+        long sum = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            sum += cells.get(stripe * PADDING);
+        }
+        return sum;
+    }
+
+    private int home() {
+        return (int) Thread.currentThread().getId() & mask;
+    }
+}
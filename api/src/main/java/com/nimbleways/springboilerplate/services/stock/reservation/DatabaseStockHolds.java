@@ -0,0 +1,33 @@
+package com.nimbleways.springboilerplate.services.stock.reservation;
+
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds stock in {@code products.held}, which every conditional decrement of {@code products.available} checks.
+ */
+public class DatabaseStockHolds implements StockHolds {
+
+    private final ProductStockRepository productStockRepository;
+
+    public DatabaseStockHolds(ProductStockRepository productStockRepository) {
+        this.productStockRepository = productStockRepository;
+    }
+
+    @Override
+    public Set<Long> hold(Map<Long, Integer> quantities) {
+        return productStockRepository.holdAll(quantities);
+    }
+
+    @Override
+    public void take(Map<Long, Integer> quantities) {
+        productStockRepository.takeHeldAll(quantities);
+    }
+
+    @Override
+    public void release(Map<Long, Integer> quantities) {
+        productStockRepository.releaseHeldAll(quantities);
+    }
+}
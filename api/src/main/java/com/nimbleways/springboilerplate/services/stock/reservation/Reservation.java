@@ -0,0 +1,43 @@
+package com.nimbleways.springboilerplate.services.stock.reservation;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Stock held for the items of one order, as stored in {@code stock_reservations}. It is either confirmed before it
+ * expires or released by a sweep, whichever comes first; the conditional update or delete of its rows decides the
+ * race, whichever instance runs them.
+ */
+public final class Reservation {
+
+    private final Long orderId;
+    private final Map<Long, Integer> quantities;
+    private final Instant expiresAt;
+    private final boolean confirmed;
+
+    Reservation(Long orderId, Map<Long, Integer> quantities, Instant expiresAt, boolean confirmed) {
+        this.orderId = orderId;
+        this.quantities = Map.copyOf(quantities);
+        this.expiresAt = expiresAt;
+        this.confirmed = confirmed;
+    }
+
+    public Long orderId() {
+        return orderId;
+    }
+
+    /**
+     * @return the quantity held for each product of the order, keyed by product id
+     */
+    public Map<Long, Integer> quantities() {
+        return quantities;
+    }
+
+    public Instant expiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isConfirmed() {
+        return confirmed;
+    }
+}
@@ -0,0 +1,84 @@
+package com.nimbleways.springboilerplate.services.stock.reservation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies confirmed reservations and releases expired ones on a fixed delay, a batch at a time until none is
+ * left. Started before the web server and stopped after it with a last pass; every instance may run one, since
+ * each reservation is applied or released by whichever deletes its rows first.
+ */
+public class ReservationSweeper implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReservationSweeper.class);
+
+    private final StockReservations reservations;
+    private final Duration interval;
+    private final ThreadFactory threadFactory;
+
+    private ScheduledExecutorService scheduler;
+
+    public ReservationSweeper(StockReservations reservations, Duration interval, ThreadFactory threadFactory) {
+        this.reservations = reservations;
+        this.interval = interval;
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        var millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::sweep, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(interval.plusSeconds(5).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        sweep();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * After the stock ledger's phase, so a release never reaches a ledger that has not recovered or is closed.
+     */
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+
+    private void sweep() {
+        try {
+            while (reservations.applyConfirmed() > 0) {
+                // next batch
+            }
+            while (reservations.releaseExpired() > 0) {
+                // next batch
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Reservation sweep failed, pending reservations are kept for the next one", e);
+        }
+    }
+}
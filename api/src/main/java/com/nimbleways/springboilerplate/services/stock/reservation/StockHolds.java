@@ -0,0 +1,29 @@
+package com.nimbleways.springboilerplate.services.stock.reservation;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Where the stock of reservations is held, through the same writer as every other stock change so that what is
+ * held is never sold twice. Every call runs in the transaction that inserts or deletes the reservation's rows, and
+ * quantities are keyed by product id.
+ */
+public interface StockHolds {
+
+    /**
+     * Holds the quantities whose product has enough stock left.
+     *
+     * @return the ids of the products that did not; the caller must then roll its transaction back
+     */
+    Set<Long> hold(Map<Long, Integer> quantities);
+
+    /**
+     * Takes held quantities for good, once their reservation is confirmed.
+     */
+    void take(Map<Long, Integer> quantities);
+
+    /**
+     * Gives held quantities back, once their reservation has expired.
+     */
+    void release(Map<Long, Integer> quantities);
+}
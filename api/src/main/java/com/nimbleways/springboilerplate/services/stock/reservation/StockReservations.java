@@ -0,0 +1,291 @@
+package com.nimbleways.springboilerplate.services.stock.reservation;
+
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
+import com.nimbleways.springboilerplate.exceptions.InsufficientStockException;
+import com.nimbleways.springboilerplate.exceptions.OrderAlreadyProcessedException;
+import com.nimbleways.springboilerplate.exceptions.OrderNotFoundException;
+import com.nimbleways.springboilerplate.exceptions.ReservationNotFoundException;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.repositories.StockReservationRepository;
+import com.nimbleways.springboilerplate.services.catalog.ProductMetadataCache;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics.ReservationStep;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Order-level stock reservations: stock is held for every item of an order at once and only taken off
+ * {@code products.available} after the order is confirmed, in batches, by {@link #applyConfirmed()}.
+ * <p>
+ * A reservation costs one batched insert into {@code stock_reservations} and a hold through {@link StockHolds}, in
+ * one transaction. In the database, a hold is one batched conditional update of {@code products.held}, admitted only
+ * where {@code available - held} covers it; every other path that takes stock checks the same difference in its own
+ * conditional update, so stock held for a reservation is never sold to anyone else, and applying a confirmed
+ * reservation never finds it short. With the stock ledger, holds are taken from its counters instead. The state
+ * lives in the database only: any instance can confirm, apply or release a reservation any other one made, and the
+ * conditional update or delete of its rows decides the races between them.
+ * <p>
+ * A reservation stands for processing its order: applying it claims the order in {@code processed_orders}, as
+ * {@code processOrder} does, so the order is never processed afterwards, and an order processed before it was
+ * applied has its held stock released instead of taken.
+ */
+public class StockReservations {
+
+    private final OrderRepository orderRepository;
+    private final ProcessedOrderRepository processedOrderRepository;
+    private final ProductMetadataCache productMetadataCache;
+    private final ProductStrategyRegistry strategies;
+    private final StockHolds stockHolds;
+    private final StockReservationRepository reservationRepository;
+    private final ProductStockLevels stockLevels;
+    private final TransactionOperations transactions;
+    private final OrderProcessingMetrics metrics;
+    private final Clock clock;
+    private final Duration ttl;
+    private final int batchSize;
+
+    public StockReservations(OrderRepository orderRepository,
+                             ProcessedOrderRepository processedOrderRepository,
+                             ProductMetadataCache productMetadataCache,
+                             ProductStrategyRegistry strategies,
+                             StockHolds stockHolds,
+                             StockReservationRepository reservationRepository,
+                             ProductStockLevels stockLevels,
+                             TransactionOperations transactions,
+                             OrderProcessingMetrics metrics,
+                             Clock clock,
+                             Duration ttl,
+                             int batchSize) {
+        this.orderRepository = orderRepository;
+        this.processedOrderRepository = processedOrderRepository;
+        this.productMetadataCache = productMetadataCache;
+        this.strategies = strategies;
+        this.stockHolds = stockHolds;
+        this.reservationRepository = reservationRepository;
+        this.stockLevels = stockLevels;
+        this.transactions = transactions;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Holds the stock processing the order would take, for every such item or for none of them: each item goes
+     * through the strategy of its product's type as of today, so expired and out of season products are not held.
+     * Reserving an order again while its reservation is pending returns that reservation.
+     *
+     * @throws OrderNotFoundException          if the order does not exist
+     * @throws OrderAlreadyProcessedException  if the order was processed already
+     * @throws IllegalArgumentException        if processing the order would take no stock
+     * @throws InsufficientStockException      if a product of the order does not have enough unreserved stock
+     */
+    public Reservation reserve(Long orderId) {
+        if (!processedOrderRepository.findProcessedIn(List.of(orderId)).isEmpty()) {
+            throw new OrderAlreadyProcessedException(orderId);
+        }
+        var quantities = quantities(orderId);
+        while (true) {
+            var reservation = new Reservation(orderId, quantities, clock.instant().plus(ttl), false);
+            try {
+                transactions.executeWithoutResult(status -> hold(reservation));
+                metrics.recordReservation(ReservationStep.RESERVED);
+                return reservation;
+            } catch (DuplicateKeyException e) {
+                var existing = find(orderId);
+                if (existing.isPresent()) {
+                    return existing.get();
+                }
+                // applied or released since the insert failed: the order can be reserved again
+            } catch (InsufficientStockException e) {
+                metrics.recordReservation(ReservationStep.REJECTED);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Confirms a pending reservation; its stock is taken by the next {@link #applyConfirmed()}. Confirming an
+     * order again is a no-op.
+     *
+     * @throws ReservationNotFoundException if the order has no reservation, or it has expired
+     */
+    public Reservation confirm(Long orderId) {
+        if (reservationRepository.confirm(orderId, clock.instant())) {
+            metrics.recordReservation(ReservationStep.CONFIRMED);
+        }
+        return find(orderId)
+                .filter(Reservation::isConfirmed)
+                .orElseThrow(() -> new ReservationNotFoundException(orderId));
+    }
+
+    /**
+     * Deletes up to one batch of confirmed reservations and claims their orders in {@code processed_orders}, in one
+     * transaction, taking their stock off {@code products.available} and {@code products.held} and reporting it to
+     * the stock levels. The stock of an order processed meanwhile is released instead, and a reservation another
+     * instance applied meanwhile is skipped.
+     *
+     * @return the number of reservations applied or released
+     */
+    public int applyConfirmed() {
+        while (true) {
+            try {
+                int applied = sweep(reservationRepository.findConfirmed(batchSize),
+                        reservationRepository::deleteConfirmed,
+                        this::apply);
+                metrics.recordReservations(ReservationStep.APPLIED, applied);
+                return applied;
+            } catch (DuplicateKeyException e) {
+                // an order of the batch was processed and committed meanwhile: the next attempt sees it processed
+            }
+        }
+    }
+
+    /**
+     * Releases the stock of up to one batch of reservations that expired unconfirmed, in one transaction. A
+     * reservation confirmed or released by another instance meanwhile is skipped.
+     *
+     * @return the number of reservations released
+     */
+    public int releaseExpired() {
+        var now = clock.instant();
+        int released = sweep(reservationRepository.findExpired(now, batchSize),
+                orderIds -> reservationRepository.deleteExpired(orderIds, now),
+                swept -> stockHolds.release(quantities(swept.values())));
+        metrics.recordReservations(ReservationStep.EXPIRED, released);
+        return released;
+    }
+
+    private void hold(Reservation reservation) {
+        reservationRepository.insertAll(reservation.orderId(), reservation.quantities(), reservation.expiresAt());
+        var shortProductIds = stockHolds.hold(reservation.quantities());
+        if (!shortProductIds.isEmpty()) {
+            throw new InsufficientStockException(Collections.min(shortProductIds));
+        }
+    }
+
+    private void apply(Map<Long, List<StockReservationRepository.Row>> swept) {
+        var orderIds = new ArrayList<>(swept.keySet());
+        var processed = processedOrderRepository.findProcessedIn(orderIds);
+        var claimed = new LinkedHashMap<>(swept);
+        claimed.keySet().removeAll(processed);
+        if (!claimed.isEmpty()) {
+            processedOrderRepository.markAllProcessed(claimed.keySet(), clock.instant());
+            var quantities = quantities(claimed.values());
+            stockHolds.take(quantities);
+            stockLevels.recordDecrements(quantities);
+        }
+        if (!processed.isEmpty()) {
+            var released = new LinkedHashMap<>(swept);
+            released.keySet().retainAll(processed);
+            stockHolds.release(quantities(released.values()));
+        }
+    }
+
+    /**
+     * Deletes the reservations of the rows read, in one transaction, and hands the rows of those it deleted, by
+     * order id, to {@code settle}.
+     *
+     * @return the number of reservations deleted
+     */
+    private int sweep(List<StockReservationRepository.Row> rows,
+                      Function<List<Long>, int[]> delete,
+                      Consumer<Map<Long, List<StockReservationRepository.Row>>> settle) {
+        var rowsByOrder = byOrder(rows);
+        if (rowsByOrder.isEmpty()) {
+            return 0;
+        }
+        var orderIds = new ArrayList<>(rowsByOrder.keySet());
+        Integer swept = transactions.execute(status -> {
+            int[] deleted = delete.apply(orderIds);
+            var deletedRows = new LinkedHashMap<Long, List<StockReservationRepository.Row>>();
+            for (int i = 0; i < deleted.length; i++) {
+                if (deleted[i] != 0) {
+                    deletedRows.put(orderIds.get(i), rowsByOrder.get(orderIds.get(i)));
+                }
+            }
+            settle.accept(deletedRows);
+            return deletedRows.size();
+        });
+        return swept == null ? 0 : swept;
+    }
+
+    private Optional<Reservation> find(Long orderId) {
+        var rows = reservationRepository.findByOrderId(orderId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        var quantities = new HashMap<Long, Integer>();
+        rows.forEach(row -> quantities.put(row.productId(), row.quantity()));
+        var first = rows.get(0);
+        return Optional.of(new Reservation(orderId, quantities, first.expiresAt(), first.confirmed()));
+    }
+
+    /**
+     * Runs the items of the order through their strategies, as processing would, counting the units they would
+     * take from stock instead of taking them. Their notifications are dropped.
+     */
+    private Map<Long, Integer> quantities(Long orderId) {
+        var itemRefs = orderRepository.findItemRefsByOrderIdIn(List.of(orderId));
+        if (itemRefs.isEmpty()) {
+            throw new OrderNotFoundException(orderId);
+        }
+        var productIds = new LinkedHashSet<Long>();
+        for (var itemRef : itemRefs) {
+            if (itemRef.productId() != null) {
+                productIds.add(itemRef.productId());
+            }
+        }
+        var products = productMetadataCache.getAll(productIds);
+        var quantities = new LinkedHashMap<Long, Integer>();
+        var context = new ProcessingContext(product -> {
+            quantities.merge(product.id(), 1, Integer::sum);
+            return true;
+        }, LocalDate.now(clock));
+        for (var itemRef : itemRefs) {
+            if (itemRef.productId() == null) {
+                continue;
+            }
+            var product = products.get(itemRef.productId());
+            if (product == null) {
+                throw new IllegalStateException("Order item refers to a product that does not exist");
+            }
+            strategies.process(product, context);
+        }
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("Order with id " + orderId + " has no item to reserve");
+        }
+        return quantities;
+    }
+
+    private static Map<Long, Integer> quantities(Collection<List<StockReservationRepository.Row>> reservations) {
+        var quantities = new HashMap<Long, Integer>();
+        reservations.forEach(rows -> rows.forEach(
+                row -> quantities.merge(row.productId(), row.quantity(), Integer::sum)));
+        return quantities;
+    }
+
+    private static Map<Long, List<StockReservationRepository.Row>> byOrder(List<StockReservationRepository.Row> rows) {
+        var rowsByOrder = new LinkedHashMap<Long, List<StockReservationRepository.Row>>();
+        rows.forEach(row -> rowsByOrder.computeIfAbsent(row.orderId(), id -> new ArrayList<>()).add(row));
+        return rowsByOrder;
+    }
+}
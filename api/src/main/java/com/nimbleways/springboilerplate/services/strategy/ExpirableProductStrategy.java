@@ -1,59 +1,51 @@
 package com.nimbleways.springboilerplate.services.strategy;
 
+import com.nimbleways.springboilerplate.domain.catalog.Availability;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
 import com.nimbleways.springboilerplate.domain.strategy.ProductProcessingStrategy;
-import com.nimbleways.springboilerplate.entities.Product;
-import com.nimbleways.springboilerplate.repositories.ProductRepository;
-import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.services.catalog.ProductAvailabilityIndex;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
-
-@Component("EXPIRABLE")
+@Component
 public class ExpirableProductStrategy implements ProductProcessingStrategy {
 
-    private final ProductRepository productRepository;
-    private final NotificationService notificationService;
+    private final ProductAvailabilityIndex availabilityIndex;
 
-    public ExpirableProductStrategy(ProductRepository productRepository,
-                                    NotificationService notificationService) {
-        this.productRepository = productRepository;
-        this.notificationService = notificationService;
+    public ExpirableProductStrategy(ProductAvailabilityIndex availabilityIndex) {
+        this.availabilityIndex = availabilityIndex;
     }
 
     @Override
-    public void process(Product product) {
-        var now = LocalDate.now();
-        var expiryDate = product.getExpiryDate();
+    public ProductType type() {
+        return ProductType.EXPIRABLE;
+    }
 
-        if (isExpired(expiryDate, now)) {
-            notificationService.sendExpirationNotification(product.getName(), expiryDate);
-            return;
-        }
+    @Override
+    public ProcessingOutcome process(ProductMetadata product, ProcessingContext context) {
+        var availability = availabilityIndex.availability(product, context.today());
 
-        if (product.getAvailable() > 0) {
-            decrementStock(product);
-            return;
+        if (availability == Availability.EXPIRED) {
+            context.enqueue(NotificationEvent.expiration(product.name(), product.expiryDate()));
+            return ProcessingOutcome.EXPIRED;
         }
 
-        handleOutOfStock(product, now, expiryDate);
-    }
+        if (context.stock().tryDecrement(product)) {
+            return ProcessingOutcome.DECREMENTED;
+        }
 
-    private boolean isExpired(LocalDate expiryDate, LocalDate now) {
-        return !expiryDate.isAfter(now);
+        return handleOutOfStock(product, context, availability);
     }
 
-    private void handleOutOfStock(Product product, LocalDate now, LocalDate expiryDate) {
-        var deliveryDate = now.plusDays(product.getLeadTime());
-
-        if (deliveryDate.isBefore(expiryDate)) {
-            notificationService.sendDelayNotification(product.getLeadTime(), product.getName());
-        } else {
-            notificationService.sendExpirationNotification(product.getName(), expiryDate);
+    private ProcessingOutcome handleOutOfStock(ProductMetadata product, ProcessingContext context, Availability availability) {
+        if (availability == Availability.DELIVERABLE) {
+            context.enqueue(NotificationEvent.delay(product.leadTime(), product.name()));
+            return ProcessingOutcome.DELAYED;
         }
-    }
-
-    private void decrementStock(Product product) {
-        product.setAvailable(product.getAvailable() - 1);
-        productRepository.save(product);
+        context.enqueue(NotificationEvent.expiration(product.name(), product.expiryDate()));
+        return ProcessingOutcome.EXPIRED;
     }
 }
@@ -1,38 +1,27 @@
 package com.nimbleways.springboilerplate.services.strategy;
 
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
 import com.nimbleways.springboilerplate.domain.strategy.ProductProcessingStrategy;
-import com.nimbleways.springboilerplate.entities.Product;
-import com.nimbleways.springboilerplate.repositories.ProductRepository;
-import com.nimbleways.springboilerplate.services.implementations.NotificationService;
 import org.springframework.stereotype.Component;
 
-@Component("NORMAL")
+@Component
 public class NormalProductStrategy implements ProductProcessingStrategy {
 
-    private final ProductRepository productRepository;
-    private final NotificationService notificationService;
-
-    public NormalProductStrategy(ProductRepository productRepository,
-                                 NotificationService notificationService) {
-        this.productRepository = productRepository;
-        this.notificationService = notificationService;
+    @Override
+    public ProductType type() {
+        return ProductType.NORMAL;
     }
 
     @Override
-    public void process(Product product) {
-        if (product.getAvailable() > 0) {
-            decrementStock(product);
-        } else {
-            notifyDelay(product);
+    public ProcessingOutcome process(ProductMetadata product, ProcessingContext context) {
+        if (context.stock().tryDecrement(product)) {
+            return ProcessingOutcome.DECREMENTED;
         }
-    }
-
-    private void decrementStock(Product product) {
-        product.setAvailable(product.getAvailable() - 1);
-        productRepository.save(product);
-    }
-
-    private void notifyDelay(Product product) {
-        notificationService.sendDelayNotification(product.getLeadTime(), product.getName());
+        context.enqueue(NotificationEvent.delay(product.leadTime(), product.name()));
+        return ProcessingOutcome.DELAYED;
     }
 }
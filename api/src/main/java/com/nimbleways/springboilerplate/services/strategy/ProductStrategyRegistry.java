@@ -0,0 +1,60 @@
+package com.nimbleways.springboilerplate.services.strategy;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
+import com.nimbleways.springboilerplate.domain.strategy.ProductProcessingStrategy;
+import com.nimbleways.springboilerplate.services.metrics.ProcessingTrace;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Resolves the strategy of a product type with an array lookup by ordinal. Built from every
+ * {@link ProductProcessingStrategy} bean; startup fails when a type has no strategy or more than one.
+ */
+@Component
+public class ProductStrategyRegistry {
+
+    private final ProductProcessingStrategy[] strategies;
+
+    public ProductStrategyRegistry(List<ProductProcessingStrategy> strategies) {
+        var byType = new EnumMap<ProductType, ProductProcessingStrategy>(ProductType.class);
+        for (var strategy : strategies) {
+            var previous = byType.putIfAbsent(strategy.type(), strategy);
+            if (previous != null) {
+                throw new IllegalStateException("Several strategies for product type " + strategy.type() + ": "
+                        + previous.getClass().getSimpleName() + ", " + strategy.getClass().getSimpleName());
+            }
+        }
+        for (var type : ProductType.values()) {
+            if (!byType.containsKey(type)) {
+                throw new IllegalStateException("No strategy found for product type: " + type);
+            }
+        }
+        this.strategies = byType.values().toArray(ProductProcessingStrategy[]::new);
+    }
+
+    public ProductProcessingStrategy get(ProductType type) {
+        return strategies[type.ordinal()];
+    }
+
+    /**
+     * Runs the product through the strategy of its type, timing the call when the current thread is traced.
+     */
+    public ProcessingOutcome process(ProductMetadata product, ProcessingContext context) {
+        var strategy = strategies[product.type().ordinal()];
+        var trace = ProcessingTrace.current();
+        if (trace == null) {
+            return strategy.process(product, context);
+        }
+        long start = System.nanoTime();
+        try {
+            return strategy.process(product, context);
+        } finally {
+            trace.recordStrategyCall(product.type(), System.nanoTime() - start);
+        }
+    }
+}
@@ -1,60 +1,51 @@
 package com.nimbleways.springboilerplate.services.strategy;
 
+import com.nimbleways.springboilerplate.domain.catalog.Availability;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
 import com.nimbleways.springboilerplate.domain.strategy.ProductProcessingStrategy;
-import com.nimbleways.springboilerplate.entities.Product;
-import com.nimbleways.springboilerplate.repositories.ProductRepository;
-import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.services.catalog.ProductAvailabilityIndex;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
-
-@Component("SEASONAL")
+@Component
 public class SeasonalProductStrategy implements ProductProcessingStrategy {
 
-    private final ProductRepository productRepository;
-    private final NotificationService notificationService;
+    private final ProductAvailabilityIndex availabilityIndex;
 
-    public SeasonalProductStrategy(ProductRepository productRepository,
-                                   NotificationService notificationService) {
-        this.productRepository = productRepository;
-        this.notificationService = notificationService;
+    public SeasonalProductStrategy(ProductAvailabilityIndex availabilityIndex) {
+        this.availabilityIndex = availabilityIndex;
     }
 
     @Override
-    public void process(Product product) {
-        var now = LocalDate.now();
-        var seasonStart = product.getSeasonStartDate();
-        var seasonEnd = product.getSeasonEndDate();
-
-        if (isOutOfSeason(now, seasonStart, seasonEnd)) {
-            notificationService.sendOutOfStockNotification(product.getName());
-            return;
-        }
-
-        if (product.getAvailable() > 0) {
-            decrementStock(product);
-            return;
-        }
-
-        handleOutOfStock(product, now, seasonEnd);
+    public ProductType type() {
+        return ProductType.SEASONAL;
     }
 
-    private boolean isOutOfSeason(LocalDate now, LocalDate seasonStart, LocalDate seasonEnd) {
-        return now.isBefore(seasonStart) || !now.isBefore(seasonEnd);
-    }
+    @Override
+    public ProcessingOutcome process(ProductMetadata product, ProcessingContext context) {
+        var availability = availabilityIndex.availability(product, context.today());
 
-    private void handleOutOfStock(Product product, LocalDate now, LocalDate seasonEnd) {
-        var deliveryDate = now.plusDays(product.getLeadTime());
+        if (availability == Availability.OUT_OF_SEASON) {
+            context.enqueue(NotificationEvent.outOfStock(product.name()));
+            return ProcessingOutcome.OUT_OF_STOCK;
+        }
 
-        if (deliveryDate.isBefore(seasonEnd)) {
-            notificationService.sendDelayNotification(product.getLeadTime(), product.getName());
-        } else {
-            notificationService.sendOutOfStockNotification(product.getName());
+        if (context.stock().tryDecrement(product)) {
+            return ProcessingOutcome.DECREMENTED;
         }
+
+        return handleOutOfStock(product, context, availability);
     }
 
-    private void decrementStock(Product product) {
-        product.setAvailable(product.getAvailable() - 1);
-        productRepository.save(product);
+    private ProcessingOutcome handleOutOfStock(ProductMetadata product, ProcessingContext context, Availability availability) {
+        if (availability == Availability.DELIVERABLE) {
+            context.enqueue(NotificationEvent.delay(product.leadTime(), product.name()));
+            return ProcessingOutcome.DELAYED;
+        }
+        context.enqueue(NotificationEvent.outOfStock(product.name()));
+        return ProcessingOutcome.OUT_OF_STOCK;
     }
 }
@@ -0,0 +1,341 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * The scenarios of {@link OrderControllerIntegrationTests}, run against the WebFlux and R2DBC stack. Both stacks share
+ * one named in-memory database, so the JPA repositories can set up and check what the R2DBC ones read and write.
+ * The test context decides its web application type before any profile is applied, hence the explicit property.
+ */
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactiveorders;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactiveorders"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+@DisplayName("Reactive Order Controller Integration Tests")
+class ReactiveOrderControllerIntegrationTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should return 404 when order does not exist")
+    void shouldReturn404WhenOrderNotFound() {
+        processOrder(999L).expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should process order with normal product successfully")
+    void shouldProcessOrderWithNormalProduct() {
+        
+        Product product = createAndSaveProduct(10, 5, ProductType.NORMAL, "USB Cable", null, null, null);
+        Order order = createAndSaveOrder(product);
+
+        processOrder(order.getId()).expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(order.getId());
+
+        Product updatedProduct = productRepository.findById(product.getId()).get();
+        assertEquals(4, updatedProduct.getAvailable());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    @DisplayName("Should notify delay when normal product out of stock")
+    void shouldNotifyDelayWhenNormalProductOutOfStock() {
+        
+        Product product = createAndSaveProduct(15, 0, ProductType.NORMAL, "USB Dongle", null, null, null);
+        Order order = createAndSaveOrder(product);
+
+        
+        processOrder(order.getId()).expectStatus().isOk();
+
+        
+        verify(notificationService, times(1)).sendDelayNotification(15, "USB Dongle");
+    }
+
+    @Test
+    @DisplayName("Should process seasonal product in season")
+    void shouldProcessSeasonalProductInSeason() {
+        
+        LocalDate now = LocalDate.now();
+        Product product = createAndSaveProduct(20, 5, ProductType.SEASONAL, "Watermelon", null,
+                now.minusDays(10), now.plusDays(30));
+        Order order = createAndSaveOrder(product);
+
+        
+        processOrder(order.getId()).expectStatus().isOk();
+
+        
+        Product updatedProduct = productRepository.findById(product.getId()).get();
+        assertEquals(4, updatedProduct.getAvailable());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    @DisplayName("Should notify unavailability when seasonal product out of season")
+    void shouldNotifyUnavailabilityWhenSeasonalProductOutOfSeason() {
+        
+        LocalDate now = LocalDate.now();
+        Product product = createAndSaveProduct(20, 5, ProductType.SEASONAL, "Grapes", null,
+                now.plusDays(180), now.plusDays(240));
+        Order order = createAndSaveOrder(product);
+
+        
+        processOrder(order.getId()).expectStatus().isOk();
+
+        
+        verify(notificationService, times(1)).sendOutOfStockNotification("Grapes");
+    }
+
+    @Test
+    @DisplayName("Should process expirable product not expired")
+    void shouldProcessExpirableProductNotExpired() {
+        
+        LocalDate now = LocalDate.now();
+        Product product = createAndSaveProduct(10, 5, ProductType.EXPIRABLE, "Butter",
+                now.plusDays(20), null, null);
+        Order order = createAndSaveOrder(product);
+
+        
+        processOrder(order.getId()).expectStatus().isOk();
+
+        
+        Product updatedProduct = productRepository.findById(product.getId()).get();
+        assertEquals(4, updatedProduct.getAvailable());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    @DisplayName("Should notify expiration when product expired")
+    void shouldNotifyExpirationWhenExpired() {
+        
+        LocalDate expiryDate = LocalDate.now().minusDays(2);
+        Product product = createAndSaveProduct(10, 5, ProductType.EXPIRABLE, "Milk",
+                expiryDate, null, null);
+        Order order = createAndSaveOrder(product);
+
+        
+        processOrder(order.getId()).expectStatus().isOk();
+
+        
+        verify(notificationService, times(1)).sendExpirationNotification("Milk", expiryDate);
+    }
+
+    @Test
+    @DisplayName("Should process order with multiple products")
+    void shouldProcessOrderWithMultipleProducts() {
+        
+        LocalDate now = LocalDate.now();
+        Product normalProduct = createAndSaveProduct(10, 5, ProductType.NORMAL, "Cable", null, null, null);
+        Product seasonalProduct = createAndSaveProduct(20, 3, ProductType.SEASONAL, "Melon", null,
+                now.minusDays(5), now.plusDays(20));
+        Product expirableProduct = createAndSaveProduct(15, 2, ProductType.EXPIRABLE, "Milk",
+                now.plusDays(10), null, null);
+
+        Set<Product> products = new HashSet<>();
+        products.add(normalProduct);
+        products.add(seasonalProduct);
+        products.add(expirableProduct);
+
+        Order order = new Order();
+        order.setItems(products);
+        order = orderRepository.save(order);
+
+        
+        processOrder(order.getId()).expectStatus().isOk();
+
+        
+        assertEquals(4, productRepository.findById(normalProduct.getId()).get().getAvailable());
+        assertEquals(2, productRepository.findById(seasonalProduct.getId()).get().getAvailable());
+        assertEquals(1, productRepository.findById(expirableProduct.getId()).get().getAvailable());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    @DisplayName("Should answer a retried order with the original response without taking stock again")
+    void shouldNotReprocessRetriedOrder() {
+        Product product = createAndSaveProduct(10, 5, ProductType.NORMAL, "USB Cable", null, null, null);
+        Order order = createAndSaveOrder(product);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            processOrder(order.getId()).expectStatus().isOk()
+                    .expectBody().jsonPath("$.id").isEqualTo(order.getId());
+        }
+
+        assertEquals(4, productRepository.findById(product.getId()).get().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should take stock once when the same order is retried concurrently")
+    void shouldProcessConcurrentRetriesOnce() throws Exception {
+        Product product = createAndSaveProduct(10, 50, ProductType.NORMAL, "USB Cable", null, null, null);
+        Order order = createAndSaveOrder(product);
+        var executor = Executors.newFixedThreadPool(8);
+        var statuses = new ArrayList<Future<Integer>>();
+
+        for (int attempt = 0; attempt < 8; attempt++) {
+            statuses.add(executor.submit(() -> processOrder(order.getId())
+                    .returnResult(String.class).getStatus().value()));
+        }
+        executor.shutdown();
+
+        for (var status : statuses) {
+            assertEquals(200, status.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(49, productRepository.findById(product.getId()).get().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should process a batch of orders sharing products like sequential calls would")
+    void shouldProcessBatchSharingProducts() {
+        Product cable = createAndSaveProduct(10, 2, ProductType.NORMAL, "Cable", null, null, null);
+        Product dongle = createAndSaveProduct(15, 5, ProductType.NORMAL, "Dongle", null, null, null);
+        Order first = createAndSaveOrder(cable, dongle);
+        Order second = createAndSaveOrder(cable);
+        Order third = createAndSaveOrder(cable);
+
+        processBatch(batchBody(first, second, third)).expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].id").isEqualTo(first.getId())
+                .jsonPath("$[1].id").isEqualTo(second.getId())
+                .jsonPath("$[2].id").isEqualTo(third.getId());
+
+        assertEquals(0, productRepository.findById(cable.getId()).get().getAvailable());
+        assertEquals(4, productRepository.findById(dongle.getId()).get().getAvailable());
+        verify(notificationService, times(1)).sendDelayNotification(10, "Cable");
+    }
+
+    @Test
+    @DisplayName("Should take the stock of a batched order once, whether it is retried alone or in another batch")
+    void shouldProcessBatchedOrdersOnce() {
+        Product cable = createAndSaveProduct(10, 5, ProductType.NORMAL, "Cable", null, null, null);
+        Order first = createAndSaveOrder(cable);
+        Order second = createAndSaveOrder(cable);
+
+        processBatch(batchBody(first, first)).expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+        processOrder(first.getId()).expectStatus().isOk();
+        processBatch(batchBody(first, second)).expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(first.getId())
+                .jsonPath("$[1].id").isEqualTo(second.getId());
+
+        assertEquals(3, productRepository.findById(cable.getId()).get().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should return 404 and leave stock untouched when a batch contains an unknown order")
+    void shouldReturn404WhenBatchContainsUnknownOrder() {
+        Product cable = createAndSaveProduct(10, 2, ProductType.NORMAL, "Cable", null, null, null);
+        Order order = createAndSaveOrder(cable);
+
+        processBatch("{\"orderIds\": [" + order.getId() + ", 999]}").expectStatus().isNotFound();
+
+        assertEquals(2, productRepository.findById(cable.getId()).get().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when a batch is empty")
+    void shouldReturn400WhenBatchEmpty() {
+        processBatch("{\"orderIds\": []}").expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should answer in CBOR when the client accepts it")
+    void shouldWriteCborResponse() throws Exception {
+        Order order = createAndSaveOrder(createAndSaveProduct(10, 5, ProductType.NORMAL, "USB Cable", null, null, null));
+
+        byte[] body = webTestClient.post().uri("/orders/{orderId}/processOrder", order.getId())
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+                .expectBody().returnResult().getResponseBody();
+
+        assertEquals(order.getId(), new CBORMapper().readTree(body).get("id").asLong());
+    }
+
+    private WebTestClient.ResponseSpec processOrder(Long orderId) {
+        return webTestClient.post().uri("/orders/{orderId}/processOrder", orderId).exchange();
+    }
+
+    private WebTestClient.ResponseSpec processBatch(String body) {
+        return webTestClient.post().uri("/orders/processBatch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange();
+    }
+
+    private String batchBody(Order... orders) {
+        StringBuilder ids = new StringBuilder();
+        for (Order order : orders) {
+            if (ids.length() > 0) {
+                ids.append(", ");
+            }
+            ids.append(order.getId());
+        }
+        return "{\"orderIds\": [" + ids + "]}";
+    }
+
+    private Product createAndSaveProduct(int leadTime, int available, ProductType type, String name,
+                                         LocalDate expiryDate, LocalDate seasonStart, LocalDate seasonEnd) {
+        Product product = new Product(null, leadTime, available, type, name,
+                expiryDate, seasonStart, seasonEnd);
+        return productRepository.save(product);
+    }
+
+    private Order createAndSaveOrder(Product... products) {
+        Set<Product> productSet = new HashSet<>();
+        for (Product p : products) {
+            productSet.add(p);
+        }
+        Order order = new Order();
+        order.setItems(productSet);
+        return orderRepository.save(order);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * The WebFlux codecs of {@link CborCodecConfig}: {@code application/cbor} next to JSON on the reactive stack, with
+ * the same CBOR mapper as the blocking one.
+ */
+@Configuration
+public class ReactiveCborCodecConfig {
+
+    @Bean
+    public CodecCustomizer cborCodecCustomizer(Jackson2ObjectMapperBuilder builder, ObjectMapper objectMapper) {
+        var mapper = CborCodecConfig.cborMapper(builder);
+        return configurer -> {
+            // custom writers are offered before the default ones, and a client accepting anything gets the first:
+            // a JSON one goes ahead so JSON stays the default. Without a media type, the CBOR codecs would claim JSON's.
+            configurer.customCodecs().register(new Jackson2JsonEncoder(objectMapper));
+            configurer.customCodecs().register(new SingleValueCborEncoder(mapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(mapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+
+    /**
+     * Spring's CBOR encoder refuses every publisher, while WebFlux hands a body over as a {@link Mono} of one value:
+     * that value is encoded as a whole, streams of several are still refused.
+     */
+    static class SingleValueCborEncoder extends Jackson2CborEncoder {
+
+        SingleValueCborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono<?> value) {
+                return value.map(body -> encodeValue(body, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.nimbleways.springboilerplate.config;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+
+/**
+ * Wires R2DBC for the reactive stack from the standard {@code spring.r2dbc.*} properties, next to the JPA stack
+ * that still owns the schema and the other endpoints.
+ * <p>
+ * Neither the connection factory nor its transaction manager is exposed as a bean: the {@code DataSource}
+ * auto-configuration backs off as soon as a {@code ConnectionFactory} bean exists, and the JPA transaction manager
+ * as soon as another {@code TransactionManager} does. Pooling is chosen through the url ({@code r2dbc:pool:...}),
+ * as R2DBC drivers expect.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveStackConfig implements DisposableBean {
+
+    private final ConnectionFactory connectionFactory;
+
+    public ReactiveStackConfig(R2dbcProperties properties,
+                               @Value("${stock.ledger.enabled:false}") boolean ledgerEnabled) {
+        if (ledgerEnabled) {
+            // the reactive stack writes products.available itself, behind the ledger's counters
+            throw new IllegalStateException("stock.ledger.enabled is not supported under the reactive profile");
+        }
+        var options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        this.connectionFactory = ConnectionFactories.get(options.build());
+    }
+
+    /**
+     * Serves WebFlux from Netty's event loops; left to itself Boot would pick Tomcat, which is on the classpath for
+     * the blocking stack.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactions() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionFactory instanceof Disposable pool) {
+            pool.dispose();
+        }
+    }
+}
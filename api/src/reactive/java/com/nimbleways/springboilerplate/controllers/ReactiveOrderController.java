@@ -0,0 +1,41 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import com.nimbleways.springboilerplate.dto.product.ProcessBatchRequest;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
+import com.nimbleways.springboilerplate.services.reactive.ReactiveOrderProcessingService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * Serves the same API as {@link OrderController} on WebFlux and R2DBC when the {@code reactive} profile is active.
+ */
+@RestController
+@RequestMapping("/orders")
+@Profile("reactive")
+public class ReactiveOrderController {
+
+    private final ReactiveOrderProcessingService orderProcessingService;
+
+    public ReactiveOrderController(ReactiveOrderProcessingService orderProcessingService) {
+        this.orderProcessingService = orderProcessingService;
+    }
+
+    @PostMapping("/{orderId}/processOrder")
+    public Mono<ResponseEntity<ProcessOrderResponse>> processOrder(@PathVariable Long orderId) {
+        return orderProcessingService.processOrder(orderId).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/processBatch")
+    public Mono<ResponseEntity<List<ProcessOrderResponse>>> processBatch(@Valid @RequestBody ProcessBatchRequest request) {
+        return orderProcessingService.processOrders(request.orderIds()).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,48 @@
+package com.nimbleways.springboilerplate.repositories.reactive;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@Profile("reactive")
+public class ReactiveOrderRepository {
+
+    private static final String ITEMS_SQL = "SELECT o.id AS order_id, oi.product_id AS product_id FROM orders o "
+            + "LEFT JOIN order_items oi ON oi.order_id = o.id WHERE o.id IN (:orderIds)";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveOrderRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Reads the product ids of the items of the given orders in one query.
+     *
+     * @return the product ids of each order found, keyed by order id; an order without items maps to an empty list
+     * and unknown ids are absent
+     */
+    public Mono<Map<Long, List<Long>>> findProductIdsByOrderIdIn(Collection<Long> orderIds) {
+        return databaseClient.sql(ITEMS_SQL)
+                .bind("orderIds", orderIds)
+                .map((row, metadata) -> new ItemRow(row.get("order_id", Long.class), row.get("product_id", Long.class)))
+                .all()
+                .collect(LinkedHashMap::new, (Map<Long, List<Long>> productIds, ItemRow item) -> {
+                    var orderProductIds = productIds.computeIfAbsent(item.orderId(), id -> new ArrayList<>());
+                    if (item.productId() != null) {
+                        orderProductIds.add(item.productId());
+                    }
+                });
+    }
+
+    private record ItemRow(Long orderId, Long productId) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.nimbleways.springboilerplate.repositories.reactive;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Repository
+@Profile("reactive")
+public class ReactiveProcessedOrderRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO processed_orders (order_id, processed_at) VALUES (:orderId, :processedAt)";
+    private static final String PROCESSED_SQL = "SELECT order_id FROM processed_orders WHERE order_id IN (:orderIds)";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveProcessedOrderRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Claims the order for processing in the current transaction, like
+     * {@link com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository#markProcessed}.
+     *
+     * @return a {@link Mono} failing with {@link DuplicateKeyException} if the order was already processed
+     */
+    public Mono<Void> markProcessed(Long orderId, Instant processedAt) {
+        return databaseClient.sql(INSERT_SQL)
+                .bind("orderId", orderId)
+                // same wall-clock value the JDBC repository stores through java.sql.Timestamp
+                .bind("processedAt", LocalDateTime.ofInstant(processedAt, ZoneId.systemDefault()))
+                .then()
+                // spring-r2dbc only reports a generic integrity violation; the primary key is the only constraint
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new DuplicateKeyException("Order " + orderId + " was already processed", e));
+    }
+
+    /**
+     * Claims all the given orders in the current transaction, one insert after the other.
+     *
+     * @return a {@link Mono} failing with {@link DuplicateKeyException} if any of them was already processed
+     */
+    public Mono<Void> markAllProcessed(Collection<Long> orderIds, Instant processedAt) {
+        return Flux.fromIterable(orderIds)
+                .concatMap(orderId -> markProcessed(orderId, processedAt))
+                .then();
+    }
+
+    /**
+     * @return the given orders that were already processed
+     */
+    public Mono<Set<Long>> findProcessedIn(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        return databaseClient.sql(PROCESSED_SQL)
+                .bind("orderIds", orderIds)
+                .map((row, metadata) -> row.get("order_id", Long.class))
+                .all()
+                .collect(Collectors.toSet());
+    }
+}
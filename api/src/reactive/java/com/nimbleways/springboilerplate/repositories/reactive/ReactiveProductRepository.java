@@ -0,0 +1,75 @@
+package com.nimbleways.springboilerplate.repositories.reactive;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.exceptions.StockConflictException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+@Repository
+@Profile("reactive")
+public class ReactiveProductRepository {
+
+    private static final String STOCKED_SQL = "SELECT id, type, name, lead_time, expiry_date, season_start_date, "
+            + "season_end_date, available - held AS available FROM products WHERE id IN (:productIds)";
+    private static final String DECREMENT_SQL = "UPDATE products SET available = available - :quantity, "
+            + "version = version + 1 WHERE id = :id AND available - held >= :quantity";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveProductRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Reads the metadata and the stock reservations do not hold of the given products in one query; unknown ids are
+     * skipped.
+     */
+    public Flux<StockedProduct> findStockedByIdIn(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql(STOCKED_SQL)
+                .bind("productIds", productIds)
+                .map((row, metadata) -> new StockedProduct(
+                        new ProductMetadata(
+                                row.get("id", Long.class),
+                                ProductType.fromString(row.get("type", String.class)),
+                                row.get("name", String.class),
+                                row.get("lead_time", Integer.class),
+                                row.get("expiry_date", LocalDate.class),
+                                row.get("season_start_date", LocalDate.class),
+                                row.get("season_end_date", LocalDate.class)),
+                        row.get("available", Integer.class)))
+                .all();
+    }
+
+    /**
+     * Applies all decrements, keyed by product id, one statement after the other on the connection of the current
+     * transaction.
+     *
+     * @return a {@link Mono} failing with {@link StockConflictException} if a product no longer has enough stock,
+     * i.e. it was changed concurrently
+     */
+    public Mono<Void> decrementAll(Map<Long, Integer> decrements) {
+        // ascending ids, the order ProductStockRepository locks rows in
+        return Flux.fromIterable(decrements.entrySet())
+                .sort(Map.Entry.comparingByKey())
+                .concatMap(decrement -> databaseClient.sql(DECREMENT_SQL)
+                        .bind("quantity", decrement.getValue())
+                        .bind("id", decrement.getKey())
+                        .fetch()
+                        .rowsUpdated()
+                        .flatMap(updated -> updated == 0
+                                ? Mono.error(new StockConflictException(decrement.getKey()))
+                                : Mono.empty()))
+                .then();
+    }
+}
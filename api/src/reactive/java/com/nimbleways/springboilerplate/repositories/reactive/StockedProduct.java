@@ -0,0 +1,9 @@
+package com.nimbleways.springboilerplate.repositories.reactive;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+
+/**
+ * A product row read in one go: its metadata and the stock it had when the run read it.
+ */
+public record StockedProduct(ProductMetadata metadata, int available) {
+}
@@ -0,0 +1,227 @@
+package com.nimbleways.springboilerplate.services.reactive;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
+import com.nimbleways.springboilerplate.exceptions.OrderNotFoundException;
+import com.nimbleways.springboilerplate.repositories.reactive.ReactiveOrderRepository;
+import com.nimbleways.springboilerplate.repositories.reactive.ReactiveProcessedOrderRepository;
+import com.nimbleways.springboilerplate.repositories.reactive.ReactiveProductRepository;
+import com.nimbleways.springboilerplate.repositories.reactive.StockedProduct;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics.ReplaySource;
+import com.nimbleways.springboilerplate.services.notification.NotificationDispatcher;
+import com.nimbleways.springboilerplate.services.processing.ItemProcessor;
+import com.nimbleways.springboilerplate.services.processing.SequentialItemProcessor;
+import com.nimbleways.springboilerplate.services.stock.DeferredStockGateway;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The non-blocking counterpart of {@link com.nimbleways.springboilerplate.services.implementations.IdempotentOrderProcessor}
+ * and {@link com.nimbleways.springboilerplate.services.implementations.OrderProcessingService}, served under the
+ * {@code reactive} profile.
+ * <p>
+ * A run reads its orders, then the metadata and stock of their products, in two R2DBC queries, processes every item
+ * in memory against a {@link DeferredStockGateway}, and writes the net decrements before its transaction commits.
+ * The strategies stay synchronous: once stock is in memory they do no I/O, so no thread ever waits inside them.
+ * A product changed concurrently fails the run with a
+ * {@link com.nimbleways.springboilerplate.exceptions.StockConflictException} instead of being retried.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveOrderProcessingService {
+
+    private final ReactiveOrderRepository orderRepository;
+    private final ReactiveProductRepository productRepository;
+    private final ReactiveProcessedOrderRepository processedOrderRepository;
+    private final ProductStrategyRegistry strategies;
+    private final ItemProcessor itemProcessor = new SequentialItemProcessor();
+    private final TransactionalOperator transactions;
+    private final NotificationDispatcher notificationDispatcher;
+    private final ProductStockLevels stockLevels;
+    private final OrderProcessingMetrics metrics;
+    private final Clock clock;
+
+    public ReactiveOrderProcessingService(ReactiveOrderRepository orderRepository,
+                                          ReactiveProductRepository productRepository,
+                                          ReactiveProcessedOrderRepository processedOrderRepository,
+                                          ProductStrategyRegistry strategies,
+                                          TransactionalOperator transactions,
+                                          NotificationDispatcher notificationDispatcher,
+                                          ProductStockLevels stockLevels,
+                                          OrderProcessingMetrics metrics,
+                                          Clock clock) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.processedOrderRepository = processedOrderRepository;
+        this.strategies = strategies;
+        this.transactions = transactions;
+        this.notificationDispatcher = notificationDispatcher;
+        this.stockLevels = stockLevels;
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    /**
+     * Processes the order at most once: a retry of an order that was processed earlier, or is being processed
+     * right now, fails its claim in {@code processed_orders} and gets the original response.
+     */
+    public Mono<ProcessOrderResponse> processOrder(Long orderId) {
+        return Mono.defer(() -> {
+            var sample = metrics.startTimer();
+            return processedOrderRepository.markProcessed(orderId, clock.instant())
+                    .then(process(List.of(orderId)))
+                    .as(transactions::transactional)
+                    .flatMap(this::committed)
+                    .onErrorResume(DuplicateKeyException.class, e -> {
+                        metrics.recordReplay(ReplaySource.STORE);
+                        return Mono.empty();
+                    })
+                    .then(Mono.fromCallable(() -> new ProcessOrderResponse(orderId)))
+                    .doFinally(signal -> metrics.recordOrder(sample));
+        });
+    }
+
+    /**
+     * Processes the orders in the given sequence with the same outcome as
+     * {@link com.nimbleways.springboilerplate.services.implementations.IdempotentOrderProcessor#processOrders}:
+     * the orders not processed yet are claimed and processed all-or-nothing, with an unknown id failing the batch
+     * before any stock is written, and the others are replayed.
+     */
+    public Mono<List<ProcessOrderResponse>> processOrders(List<Long> orderIds) {
+        return Mono.defer(() -> {
+            var sample = metrics.startTimer();
+            return processPending(List.copyOf(new LinkedHashSet<>(orderIds)))
+                    .then(Mono.fromCallable(() -> responses(orderIds)))
+                    .doFinally(signal -> metrics.recordBatch(sample, orderIds.size()));
+        });
+    }
+
+    /**
+     * Claims and processes the given orders that are not processed yet. A claim lost to a concurrent call rolls the
+     * attempt back and retries with the orders still unclaimed; every retry sees at least one more claimed order,
+     * so it ends.
+     */
+    private Mono<Void> processPending(List<Long> orderIds) {
+        return processedOrderRepository.findProcessedIn(orderIds)
+                .flatMap(processed -> {
+                    var claimed = orderIds.stream().filter(id -> !processed.contains(id)).toList();
+                    if (claimed.isEmpty()) {
+                        return Mono.just(new Claimed(orderIds.size(), Run.NONE));
+                    }
+                    return processedOrderRepository.markAllProcessed(claimed, clock.instant())
+                            .then(process(claimed))
+                            .map(run -> new Claimed(orderIds.size() - claimed.size(), run));
+                })
+                .as(transactions::transactional)
+                .flatMap(claimed -> {
+                    for (int i = 0; i < claimed.replayed(); i++) {
+                        metrics.recordReplay(ReplaySource.STORE);
+                    }
+                    return committed(claimed.run());
+                })
+                .onErrorResume(DuplicateKeyException.class, e -> processPending(orderIds));
+    }
+
+    private Mono<Run> process(List<Long> orderIds) {
+        return orderRepository.findProductIdsByOrderIdIn(new LinkedHashSet<>(orderIds))
+                .flatMap(productIdsByOrder -> {
+                    var productIds = new LinkedHashSet<Long>();
+                    for (var orderId : orderIds) {
+                        var orderProductIds = productIdsByOrder.get(orderId);
+                        if (orderProductIds == null) {
+                            return Mono.error(new OrderNotFoundException(orderId));
+                        }
+                        productIds.addAll(orderProductIds);
+                    }
+                    return productRepository.findStockedByIdIn(productIds)
+                            .collectMap(stocked -> stocked.metadata().id())
+                            .flatMap(stocked -> processItems(orderIds, productIdsByOrder, stocked));
+                });
+    }
+
+    private Mono<Run> processItems(List<Long> orderIds,
+                                                       Map<Long, List<Long>> productIdsByOrder,
+                                                       Map<Long, StockedProduct> stocked) {
+        var available = new HashMap<Long, Integer>(stocked.size() * 2);
+        stocked.forEach((productId, product) -> available.put(productId, product.available()));
+        // written below through the transaction's connection rather than by the gateway itself
+        var stock = new DeferredStockGateway(available.keySet(), productIds -> available, decrements -> Set.of());
+        var context = new ProcessingContext(stock, LocalDate.now(clock));
+
+        var products = new ArrayList<ProductMetadata>();
+        for (var orderId : orderIds) {
+            for (var productId : productIdsByOrder.get(orderId)) {
+                var product = stocked.get(productId);
+                if (product == null) {
+                    return Mono.error(new IllegalStateException("Order item refers to a product that does not exist"));
+                }
+                products.add(product.metadata());
+            }
+        }
+        var results = itemProcessor.process(products, context, strategies);
+        for (int i = 0; i < products.size(); i++) {
+            var result = results.get(i);
+            metrics.recordItem(products.get(i).type(), result.outcome());
+            result.notifications().forEach(context::enqueue);
+        }
+
+        var decrements = stock.pendingDecrements();
+        return productRepository.decrementAll(decrements)
+                .thenReturn(new Run(context.notifications(), decrements));
+    }
+
+    /**
+     * Reports the stock a committed run took to the stock levels, and hands its notifications to the dispatcher,
+     * off the event loop since a dispatcher may block.
+     */
+    private Mono<Void> committed(Run run) {
+        stockLevels.recordDecrements(run.decrements());
+        var events = run.notifications();
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> notificationDispatcher.dispatch(List.copyOf(events)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    /**
+     * What a run leaves to do once its transaction has committed.
+     */
+    private record Run(List<NotificationEvent> notifications, Map<Long, Integer> decrements) {
+
+        static final Run NONE = new Run(List.of(), Map.of());
+    }
+
+    /**
+     * A committed batch attempt: how many of its orders were already processed, and what the others left to do.
+     */
+    private record Claimed(int replayed, Run run) {
+    }
+
+    private static List<ProcessOrderResponse> responses(List<Long> orderIds) {
+        var responses = new ArrayList<ProcessOrderResponse>(orderIds.size());
+        for (var orderId : orderIds) {
+            responses.add(new ProcessOrderResponse(orderId));
+        }
+        return responses;
+    }
+}
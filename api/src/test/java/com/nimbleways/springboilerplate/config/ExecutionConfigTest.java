@@ -0,0 +1,67 @@
+package com.nimbleways.springboilerplate.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("Execution Config Tests")
+class ExecutionConfigTest {
+
+    @Test
+    @DisplayName("Should create named daemon platform threads in platform mode")
+    void shouldCreatePlatformThreads() {
+        var factory = ExecutionConfig.threadFactory(ExecutionProperties.Mode.PLATFORM, "worker-");
+
+        var first = factory.newThread(() -> { });
+        var second = factory.newThread(() -> { });
+
+        assertEquals("worker-0", first.getName());
+        assertEquals("worker-1", second.getName());
+        assertTrue(first.isDaemon());
+    }
+
+    @Test
+    @DisplayName("Should run tasks on named virtual threads in virtual mode on JDK 21")
+    void shouldRunTasksInVirtualMode() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21);
+        var factory = ExecutionConfig.threadFactory(ExecutionProperties.Mode.VIRTUAL, "worker-");
+        var ran = new boolean[1];
+
+        var thread = factory.newThread(() -> ran[0] = true);
+        thread.start();
+        thread.join();
+
+        assertTrue(ran[0]);
+        assertEquals("worker-0", thread.getName());
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+
+    @Test
+    @DisplayName("Should start a new virtual thread per request task on JDK 21")
+    void shouldStartThreadPerTaskInVirtualMode() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21);
+        var executor = ExecutionConfig.virtualThreadPerTaskExecutor("request-");
+
+        var first = executor.submit(Thread::currentThread).get();
+        var second = executor.submit(Thread::currentThread).get();
+        assertNotSame(first, second);
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(first));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should refuse virtual mode before JDK 21 instead of falling back to platform threads")
+    void shouldRefuseVirtualModeBeforeJdk21() {
+        assumeTrue(Runtime.version().feature() < 21);
+
+        var error = assertThrows(IllegalStateException.class,
+                () -> ExecutionConfig.threadFactory(ExecutionProperties.Mode.VIRTUAL, "worker-"));
+        assertTrue(error.getMessage().contains("execution.mode=virtual"), error.getMessage());
+        assertThrows(IllegalStateException.class, () -> ExecutionConfig.virtualThreadPerTaskExecutor("request-"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=prometheus")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@DisplayName("Metrics Endpoint Integration Tests")
+class MetricsEndpointIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should expose order processing metrics in Prometheus format")
+    void shouldExposeProcessingMetrics() throws Exception {
+        Product inStock = productRepository.save(new Product(null, 10, 5, ProductType.NORMAL, "Cable", null, null, null));
+        Product outOfStock = productRepository.save(new Product(null, 15, 0, ProductType.NORMAL, "Dongle", null, null, null));
+        Order order = new Order();
+        order.setItems(Set.of(inStock, outOfStock));
+        order = orderRepository.save(order);
+
+        mockMvc.perform(post("/orders/{orderId}/processOrder", order.getId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "orders_items_processed_total{outcome=\"decremented\",type=\"NORMAL\",} 1.0")))
+                .andExpect(content().string(containsString(
+                        "orders_items_processed_total{outcome=\"delayed\",type=\"NORMAL\",} 1.0")))
+                .andExpect(content().string(containsString("notifications_sent_total{kind=\"delay\",} 1.0")))
+                .andExpect(content().string(containsString("orders_processing_seconds{mode=\"single\",quantile=\"0.99\",}")));
+    }
+}
@@ -0,0 +1,20 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * The stress scenario with the lock-free engine, which writes stock by compare-and-set on each product's version
+ * and retries the products written concurrently, so the shared products conflict on nearly every order. An order
+ * still conflicting once its retries are exhausted is answered 409 and sent again by the client; a few percent of
+ * the requests are, far fewer than one in ten.
+ */
+@SpringBootTest(properties = "stock.writes=optimistic")
+@DisplayName("Order Processing Stress Integration Tests with optimistic stock writes")
+class OptimisticOrderProcessingStressIntegrationTests extends OrderProcessingStressIntegrationTests {
+
+    @Override
+    protected double maxConflictRatio() {
+        return 0.1;
+    }
+}
@@ -0,0 +1,151 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.dto.product.CreateOrderRequest;
+import com.nimbleways.springboilerplate.dto.product.ProcessBatchRequest;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Order Codec Integration Tests")
+class OrderCodecIntegrationTests {
+
+    private static final CBORMapper CBOR = new CBORMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM processed_orders");
+    }
+
+    @Test
+    @DisplayName("Should answer in CBOR when the client accepts it")
+    void shouldWriteCborResponse() throws Exception {
+        Order order = givenOrder(givenProduct("Cable", 5));
+
+        var body = cbor(mockMvc.perform(post("/orders/{orderId}/processOrder", order.getId())
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk()));
+
+        assertEquals(order.getId(), body.get("id").asLong());
+    }
+
+    @Test
+    @DisplayName("Should read a CBOR batch and answer it in CBOR")
+    void shouldReadCborRequest() throws Exception {
+        Product cable = givenProduct("Cable", 5);
+        Order first = givenOrder(cable);
+        Order second = givenOrder(cable);
+
+        var body = cbor(mockMvc.perform(post("/orders/processBatch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(CBOR.writeValueAsBytes(new ProcessBatchRequest(List.of(first.getId(), second.getId())))))
+                .andExpect(status().isOk()));
+
+        assertEquals(2, body.size());
+        assertEquals(first.getId(), body.get(0).get("id").asLong());
+        assertEquals(3, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should create an order from a CBOR body")
+    void shouldCreateOrderFromCbor() throws Exception {
+        Product cable = givenProduct("Cable", 5);
+
+        var body = cbor(mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(CBOR.writeValueAsBytes(new CreateOrderRequest(List.of(cable.getId())))))
+                .andExpect(status().isCreated()));
+
+        assertEquals(orderRepository.findAll().get(0).getId(), body.get("id").asLong());
+    }
+
+    @Test
+    @DisplayName("Should write errors in CBOR too, with the same fields as in JSON")
+    void shouldWriteCborError() throws Exception {
+        var body = cbor(mockMvc.perform(post("/orders/{orderId}/processOrder", 999L)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isNotFound()));
+
+        assertEquals(404, body.get("status").asInt());
+        assertEquals(Set.of("status", "title", "message", "timestamp"), Set.copyOf(fieldNames(body)));
+    }
+
+    @Test
+    @DisplayName("Should keep answering in JSON by default")
+    void shouldDefaultToJson() throws Exception {
+        Order order = givenOrder(givenProduct("Cable", 5));
+
+        mockMvc.perform(post("/orders/{orderId}/processOrder", order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(order.getId()));
+    }
+
+    private static JsonNode cbor(ResultActions result) throws Exception {
+        var response = result.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse();
+        return CBOR.readTree(response.getContentAsByteArray());
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        var names = new ArrayList<String>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private Product givenProduct(String name, int available) {
+        return productRepository.save(new Product(null, 10, available, ProductType.NORMAL, name, null, null, null));
+    }
+
+    private Order givenOrder(Product... products) {
+        var order = new Order();
+        order.setItems(Set.of(products));
+        return orderRepository.save(order);
+    }
+}
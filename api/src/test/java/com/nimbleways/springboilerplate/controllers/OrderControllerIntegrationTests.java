@@ -1,5 +1,6 @@
 package com.nimbleways.springboilerplate.controllers;
 
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
 import com.nimbleways.springboilerplate.entities.Order;
 import com.nimbleways.springboilerplate.entities.Product;
 import com.nimbleways.springboilerplate.repositories.OrderRepository;
@@ -12,11 +13,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
@@ -58,7 +64,7 @@ class OrderControllerIntegrationTests {
     @DisplayName("Should process order with normal product successfully")
     void shouldProcessOrderWithNormalProduct() throws Exception {
         
-        Product product = createAndSaveProduct(10, 5, "NORMAL", "USB Cable", null, null, null);
+        Product product = createAndSaveProduct(10, 5, ProductType.NORMAL, "USB Cable", null, null, null);
         Order order = createAndSaveOrder(product);
 
         mockMvc.perform(post("/orders/{orderId}/processOrder", order.getId()))
@@ -74,7 +80,7 @@ class OrderControllerIntegrationTests {
     @DisplayName("Should notify delay when normal product out of stock")
     void shouldNotifyDelayWhenNormalProductOutOfStock() throws Exception {
         
-        Product product = createAndSaveProduct(15, 0, "NORMAL", "USB Dongle", null, null, null);
+        Product product = createAndSaveProduct(15, 0, ProductType.NORMAL, "USB Dongle", null, null, null);
         Order order = createAndSaveOrder(product);
 
         
@@ -90,7 +96,7 @@ class OrderControllerIntegrationTests {
     void shouldProcessSeasonalProductInSeason() throws Exception {
         
         LocalDate now = LocalDate.now();
-        Product product = createAndSaveProduct(20, 5, "SEASONAL", "Watermelon", null,
+        Product product = createAndSaveProduct(20, 5, ProductType.SEASONAL, "Watermelon", null,
                 now.minusDays(10), now.plusDays(30));
         Order order = createAndSaveOrder(product);
 
@@ -109,7 +115,7 @@ class OrderControllerIntegrationTests {
     void shouldNotifyUnavailabilityWhenSeasonalProductOutOfSeason() throws Exception {
         
         LocalDate now = LocalDate.now();
-        Product product = createAndSaveProduct(20, 5, "SEASONAL", "Grapes", null,
+        Product product = createAndSaveProduct(20, 5, ProductType.SEASONAL, "Grapes", null,
                 now.plusDays(180), now.plusDays(240));
         Order order = createAndSaveOrder(product);
 
@@ -126,7 +132,7 @@ class OrderControllerIntegrationTests {
     void shouldProcessExpirableProductNotExpired() throws Exception {
         
         LocalDate now = LocalDate.now();
-        Product product = createAndSaveProduct(10, 5, "EXPIRABLE", "Butter",
+        Product product = createAndSaveProduct(10, 5, ProductType.EXPIRABLE, "Butter",
                 now.plusDays(20), null, null);
         Order order = createAndSaveOrder(product);
 
@@ -145,7 +151,7 @@ class OrderControllerIntegrationTests {
     void shouldNotifyExpirationWhenExpired() throws Exception {
         
         LocalDate expiryDate = LocalDate.now().minusDays(2);
-        Product product = createAndSaveProduct(10, 5, "EXPIRABLE", "Milk",
+        Product product = createAndSaveProduct(10, 5, ProductType.EXPIRABLE, "Milk",
                 expiryDate, null, null);
         Order order = createAndSaveOrder(product);
 
@@ -162,10 +168,10 @@ class OrderControllerIntegrationTests {
     void shouldProcessOrderWithMultipleProducts() throws Exception {
         
         LocalDate now = LocalDate.now();
-        Product normalProduct = createAndSaveProduct(10, 5, "NORMAL", "Cable", null, null, null);
-        Product seasonalProduct = createAndSaveProduct(20, 3, "SEASONAL", "Melon", null,
+        Product normalProduct = createAndSaveProduct(10, 5, ProductType.NORMAL, "Cable", null, null, null);
+        Product seasonalProduct = createAndSaveProduct(20, 3, ProductType.SEASONAL, "Melon", null,
                 now.minusDays(5), now.plusDays(20));
-        Product expirableProduct = createAndSaveProduct(15, 2, "EXPIRABLE", "Milk",
+        Product expirableProduct = createAndSaveProduct(15, 2, ProductType.EXPIRABLE, "Milk",
                 now.plusDays(10), null, null);
 
         Set<Product> products = new HashSet<>();
@@ -188,7 +194,123 @@ class OrderControllerIntegrationTests {
         verifyNoInteractions(notificationService);
     }
 
-    private Product createAndSaveProduct(int leadTime, int available, String type, String name,
+    @Test
+    @DisplayName("Should answer a retried order with the original response without taking stock again")
+    void shouldNotReprocessRetriedOrder() throws Exception {
+        Product product = createAndSaveProduct(10, 5, ProductType.NORMAL, "USB Cable", null, null, null);
+        Order order = createAndSaveOrder(product);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            mockMvc.perform(post("/orders/{orderId}/processOrder", order.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(order.getId().toString()));
+        }
+
+        assertEquals(4, productRepository.findById(product.getId()).get().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should take stock once when the same order is retried concurrently")
+    void shouldProcessConcurrentRetriesOnce() throws Exception {
+        Product product = createAndSaveProduct(10, 50, ProductType.NORMAL, "USB Cable", null, null, null);
+        Order order = createAndSaveOrder(product);
+        var executor = Executors.newFixedThreadPool(8);
+        var statuses = new ArrayList<Future<Integer>>();
+
+        for (int attempt = 0; attempt < 8; attempt++) {
+            statuses.add(executor.submit(() -> mockMvc.perform(post("/orders/{orderId}/processOrder", order.getId()))
+                    .andReturn().getResponse().getStatus()));
+        }
+        executor.shutdown();
+
+        for (var status : statuses) {
+            assertEquals(200, status.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(49, productRepository.findById(product.getId()).get().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should process a batch of orders sharing products like sequential calls would")
+    void shouldProcessBatchSharingProducts() throws Exception {
+        Product cable = createAndSaveProduct(10, 2, ProductType.NORMAL, "Cable", null, null, null);
+        Product dongle = createAndSaveProduct(15, 5, ProductType.NORMAL, "Dongle", null, null, null);
+        Order first = createAndSaveOrder(cable, dongle);
+        Order second = createAndSaveOrder(cable);
+        Order third = createAndSaveOrder(cable);
+
+        mockMvc.perform(post("/orders/processBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchBody(first, second, third)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(jsonPath("$[1].id").value(second.getId()))
+                .andExpect(jsonPath("$[2].id").value(third.getId()));
+
+        assertEquals(0, productRepository.findById(cable.getId()).get().getAvailable());
+        assertEquals(4, productRepository.findById(dongle.getId()).get().getAvailable());
+        verify(notificationService, times(1)).sendDelayNotification(10, "Cable");
+    }
+
+    @Test
+    @DisplayName("Should take the stock of a batched order once, whether it is retried alone or in another batch")
+    void shouldProcessBatchedOrdersOnce() throws Exception {
+        Product cable = createAndSaveProduct(10, 5, ProductType.NORMAL, "Cable", null, null, null);
+        Order first = createAndSaveOrder(cable);
+        Order second = createAndSaveOrder(cable);
+
+        mockMvc.perform(post("/orders/processBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchBody(first, first)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(post("/orders/{orderId}/processOrder", first.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/orders/processBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchBody(first, second)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(jsonPath("$[1].id").value(second.getId()));
+
+        assertEquals(3, productRepository.findById(cable.getId()).get().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should return 404 and leave stock untouched when a batch contains an unknown order")
+    void shouldReturn404WhenBatchContainsUnknownOrder() throws Exception {
+        Product cable = createAndSaveProduct(10, 2, ProductType.NORMAL, "Cable", null, null, null);
+        Order order = createAndSaveOrder(cable);
+
+        mockMvc.perform(post("/orders/processBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\": [" + order.getId() + ", 999]}"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(2, productRepository.findById(cable.getId()).get().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when a batch is empty")
+    void shouldReturn400WhenBatchEmpty() throws Exception {
+        mockMvc.perform(post("/orders/processBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String batchBody(Order... orders) {
+        StringBuilder ids = new StringBuilder();
+        for (Order order : orders) {
+            if (ids.length() > 0) {
+                ids.append(", ");
+            }
+            ids.append(order.getId());
+        }
+        return "{\"orderIds\": [" + ids + "]}";
+    }
+
+    private Product createAndSaveProduct(int leadTime, int available, ProductType type, String name,
                                          LocalDate expiryDate, LocalDate seasonStart, LocalDate seasonEnd) {
         Product product = new Product(null, leadTime, available, type, name,
                 expiryDate, seasonStart, seasonEnd);
@@ -0,0 +1,207 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "orders.ingestion.chunk-size=100")
+@AutoConfigureMockMvc
+@DisplayName("Order Ingestion Integration Tests")
+class OrderIngestionIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM processed_orders");
+    }
+
+    @Test
+    @DisplayName("Should create an order without taking stock")
+    void shouldCreateOrder() throws Exception {
+        Product cable = givenProduct("Cable", 5);
+        Product dongle = givenProduct("Dongle", 5);
+
+        mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productIds\": [" + cable.getId() + ", " + dongle.getId() + ", " + cable.getId() + "]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.processed").value(false));
+
+        var order = orderRepository.findAll().get(0);
+        assertEquals(2, orderRepository.findItemRefsByOrderIdIn(List.of(order.getId())).size());
+        assertEquals(5, available(cable));
+    }
+
+    @Test
+    @DisplayName("Should create and process an order in one call, so processing it again only replays it")
+    void shouldCreateAndProcessOrder() throws Exception {
+        Product cable = givenProduct("Cable", 5);
+
+        mockMvc.perform(post("/orders")
+                        .param("process", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productIds\": [" + cable.getId() + "]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(jsonPath("$.processed").value(true));
+        var orderId = orderRepository.findAll().get(0).getId();
+        assertEquals(4, available(cable));
+
+        mockMvc.perform(post("/orders/{orderId}/processOrder", orderId))
+                .andExpect(status().isOk());
+
+        assertEquals(4, available(cable));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for an order without products or with an unknown one")
+    void shouldRejectInvalidOrder() throws Exception {
+        Product cable = givenProduct("Cable", 5);
+
+        mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productIds\": []}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productIds\": [" + cable.getId() + ", 999999]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown products: [999999]"));
+
+        assertEquals(0, orderRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should create every order of a stream spanning several chunks")
+    void shouldIngestStream() throws Exception {
+        Product cable = givenProduct("Cable", 5);
+        Product dongle = givenProduct("Dongle", 5);
+
+        mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(stream(250, cable, dongle)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.orders").value(250))
+                .andExpect(jsonPath("$.items").value(375))
+                .andExpect(jsonPath("$.processed").value(false));
+
+        assertEquals(250, orderRepository.count());
+        assertEquals(375, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Integer.class));
+        assertEquals(5, available(cable));
+    }
+
+    @Test
+    @DisplayName("Should create and process a stream, chunk by chunk, like a batch of the same orders")
+    void shouldIngestAndProcessStream() throws Exception {
+        Product cable = givenProduct("Cable", 200);
+        Product dongle = givenProduct("Dongle", 200);
+
+        mockMvc.perform(post("/orders")
+                        .param("process", "true")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(stream(250, cable, dongle)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.orders").value(250))
+                .andExpect(jsonPath("$.processed").value(true));
+
+        assertEquals(0, available(cable));
+        assertEquals(75, available(dongle));
+        verify(notificationService, times(50)).sendDelayNotification(10, "Cable");
+    }
+
+    @Test
+    @DisplayName("Should keep the chunks before an invalid line and report the orders they created")
+    void shouldRollBackChunkWithInvalidLine() throws Exception {
+        Product cable = givenProduct("Cable", 5);
+        var body = stream(150, cable, cable) + "{\"productIds\": \"cable\"}\n" + stream(10, cable, cable);
+
+        mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", startsWith("Line 151 ")))
+                .andExpect(jsonPath("$.orders").value(100))
+                .andExpect(jsonPath("$.items").value(100));
+
+        assertEquals(100, orderRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should keep the processed chunks before an unknown product and take only their stock")
+    void shouldKeepProcessedChunksBeforeUnknownProduct() throws Exception {
+        Product cable = givenProduct("Cable", 200);
+        var body = stream(100, cable, cable) + "{\"productIds\": [999999]}\n";
+
+        mockMvc.perform(post("/orders")
+                        .param("process", "true")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown products: [999999]"))
+                .andExpect(jsonPath("$.orders").value(100));
+
+        assertEquals(100, orderRepository.count());
+        assertEquals(100, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processed_orders", Integer.class));
+        assertEquals(100, available(cable));
+    }
+
+    /**
+     * Every order takes the first product, every other one the second product too.
+     */
+    private static String stream(int orders, Product first, Product second) {
+        var body = new StringBuilder();
+        for (int i = 0; i < orders; i++) {
+            body.append(i % 2 == 0
+                    ? "{\"productIds\": [" + first.getId() + ", " + second.getId() + "]}"
+                    : "{\"productIds\": [" + first.getId() + "]}");
+            body.append('\n');
+        }
+        return body.toString();
+    }
+
+    private Product givenProduct(String name, int available) {
+        return productRepository.save(new Product(null, 10, available, ProductType.NORMAL, name, null, null, null));
+    }
+
+    private int available(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getAvailable();
+    }
+}
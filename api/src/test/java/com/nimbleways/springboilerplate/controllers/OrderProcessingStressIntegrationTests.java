@@ -0,0 +1,256 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import com.nimbleways.springboilerplate.domain.catalog.StockLevel;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Thousands of orders over a handful of shared products, sent concurrently to {@code POST /orders/{id}/processOrder},
+ * every tenth one twice as a client retry would. Whatever the interleaving, each order is processed at most once and
+ * each of its items either takes a unit of stock or, once its product is sold out, sends one delay notification:
+ * <ul>
+ *     <li>no product ends below zero, and stock is never added, so none was ever committed below zero;</li>
+ *     <li>the stock a product lost equals the items that took it;</li>
+ *     <li>a product got as many delay notifications as it had items beyond its stock, and those only once sold out.</li>
+ * </ul>
+ * Every order must end processed. A client sends an order again after a 409, which leaves no trace; the conditional
+ * engine must never answer one, and engines that may must keep them to a small share of the requests.
+ * Throughput, response statuses and the contention the stock engine met are printed once the invariants hold.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+// the idempotency cache remembers thousands of order ids, which later tests may be given again
+@DirtiesContext
+@DisplayName("Order Processing Stress Integration Tests")
+class OrderProcessingStressIntegrationTests {
+
+    private static final int ORDERS = 2_000;
+    private static final int ITEMS_PER_ORDER = 3;
+    private static final int CLIENTS = 32;
+    private static final int RETRIED_EVERY = 10;
+    private static final int MAX_ATTEMPTS = 10;
+    /**
+     * Stock of the shared products; the last one never sells out, the others do about halfway through.
+     */
+    private static final int[] STOCK = {400, 500, 600, 700, 800, ORDERS * ITEMS_PER_ORDER};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProcessedOrderRepository processedOrderRepository;
+
+    @Autowired
+    private ProductStockLevels stockLevels;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM processed_orders");
+    }
+
+    @Test
+    @DisplayName("Should keep stock and notifications consistent under thousands of concurrent orders on shared products")
+    void shouldKeepInvariantsUnderConcurrentOrders() throws Exception {
+        var products = givenProducts();
+        var orders = givenOrders(products);
+        var contentionBefore = contention();
+
+        var statuses = new ConcurrentHashMap<Integer, AtomicInteger>();
+        var conflicts = new AtomicInteger();
+        var requests = new ArrayList<Long>(orders.size() + orders.size() / RETRIED_EVERY);
+        orders.keySet().forEach(orderId -> {
+            requests.add(orderId);
+            if (requests.size() % RETRIED_EVERY == 0) {
+                requests.add(orderId);
+            }
+        });
+        Collections.shuffle(requests, new Random(42));
+
+        var executor = Executors.newFixedThreadPool(CLIENTS);
+        var start = new CountDownLatch(1);
+        var calls = new ArrayList<Future<?>>(requests.size());
+        for (var orderId : requests) {
+            calls.add(executor.submit(() -> {
+                start.await();
+                int status = mockMvc.perform(post("/orders/{orderId}/processOrder", orderId))
+                        .andReturn().getResponse().getStatus();
+                for (int attempt = 1; status == 409 && attempt < MAX_ATTEMPTS; attempt++) {
+                    conflicts.incrementAndGet();
+                    status = mockMvc.perform(post("/orders/{orderId}/processOrder", orderId))
+                            .andReturn().getResponse().getStatus();
+                }
+                statuses.computeIfAbsent(status, key -> new AtomicInteger()).incrementAndGet();
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (var call : calls) {
+            call.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        assertEquals(Set.of(200), statuses.keySet(), statuses.toString());
+        assertTrue(conflicts.get() <= requests.size() * maxConflictRatio(),
+                conflicts + " conflicts for " + requests.size() + " requests");
+        var processed = processedOrderRepository.findProcessedIn(new ArrayList<>(orders.keySet()));
+        assertEquals(orders.keySet(), processed);
+
+        var demand = new HashMap<Long, Integer>();
+        long availableTotal = 0;
+        long outOfStock = 0;
+        processed.forEach(orderId -> orders.get(orderId).forEach(product -> demand.merge(product.getId(), 1, Integer::sum)));
+        for (var product : products) {
+            int available = productRepository.findById(product.getId()).orElseThrow().getAvailable();
+            int consumed = product.getAvailable() - available;
+            availableTotal += available;
+            outOfStock += available == 0 ? 1 : 0;
+            int requested = demand.getOrDefault(product.getId(), 0);
+            assertTrue(available >= 0, product.getName() + " ended at " + available);
+            assertEquals(Math.min(requested, product.getAvailable()), consumed, product.getName() + " stock taken");
+            verify(notificationService, times(requested - consumed))
+                    .sendDelayNotification(product.getLeadTime(), product.getName());
+            if (requested > consumed) {
+                assertEquals(0, available, product.getName() + " was notified as delayed while in stock");
+            }
+        }
+        // kept by the runs themselves rather than read back, the stock levels must end where the table did
+        assertEquals(List.of(new StockLevel(ProductType.NORMAL, null, products.size(), availableTotal,
+                outOfStock)), stockLevels.snapshot());
+        verify(notificationService, never()).sendOutOfStockNotification(anyString());
+        verify(notificationService, never()).sendExpirationNotification(anyString(), any());
+
+        var report = new LinkedHashMap<String, String>();
+        report.put("requests", Integer.toString(requests.size()));
+        report.put("ordersProcessed", Integer.toString(processed.size()));
+        report.put("statuses", new TreeMap<>(statuses).toString());
+        report.put("conflictsRetried", Integer.toString(conflicts.get()));
+        report.put("throughputPerSecond", Long.toString(requests.size() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos));
+        var contentionAfter = contention();
+        contentionAfter.forEach((name, value) -> report.put(name, format(value - contentionBefore.get(name))));
+        report.put("connectionWaitMaxMs", format(registry.get("orders.processing.phase").tag("phase", "connection_wait")
+                .timer().max(TimeUnit.MILLISECONDS)));
+        System.out.println(getClass().getSimpleName() + " " + report);
+    }
+
+    /**
+     * The share of requests the stock engine may answer with a 409 before the client's retry succeeds: none for
+     * the conditional engine, whose single-statement decrements never conflict.
+     */
+    protected double maxConflictRatio() {
+        return 0;
+    }
+
+    /**
+     * Cumulative counts of what made requests wait on, or retry after, one another.
+     */
+    private Map<String, Double> contention() {
+        var contention = new LinkedHashMap<String, Double>();
+        contention.put("replayedFromStore", count(registry.find("orders.replayed").tag("source", "store")));
+        contention.put("versionedWriteConflicts", count(registry.find("stock.versioned.writes").tag("result", "conflict")));
+        contention.put("stockRetries", count(registry.find("stock.conflict.retries").tag("outcome", "retried")));
+        contention.put("stockRetriesExhausted", count(registry.find("stock.conflict.retries").tag("outcome", "exhausted")));
+        contention.put("connectionWaitTotalMs", registry.get("orders.processing.phase").tag("phase", "connection_wait")
+                .timer().totalTime(TimeUnit.MILLISECONDS));
+        return contention;
+    }
+
+    private static double count(Search search) {
+        var counter = search.counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static String format(double value) {
+        return String.format("%.0f", value);
+    }
+
+    private List<Product> givenProducts() {
+        var products = new ArrayList<Product>(STOCK.length);
+        for (int i = 0; i < STOCK.length; i++) {
+            products.add(new Product(null, 10 + i, STOCK[i], ProductType.NORMAL, "Shared " + i, null, null, null));
+        }
+        return productRepository.saveAll(products);
+    }
+
+    /**
+     * @return each order's products by order id, every order on distinct products picked at random
+     */
+    private Map<Long, List<Product>> givenOrders(List<Product> products) {
+        var random = new Random(7);
+        var orders = new ArrayList<Order>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            var shuffled = new ArrayList<>(products);
+            Collections.shuffle(shuffled, random);
+            var order = new Order();
+            order.setItems(new HashSet<>(shuffled.subList(0, ITEMS_PER_ORDER)));
+            orders.add(order);
+        }
+        var itemsByOrder = new LinkedHashMap<Long, List<Product>>();
+        for (var order : orderRepository.saveAll(orders)) {
+            itemsByOrder.put(order.getId(), List.copyOf(order.getItems()));
+        }
+        return itemsByOrder;
+    }
+}
@@ -0,0 +1,146 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Product Stock Integration Tests")
+class ProductStockIntegrationTests {
+
+    private static final LocalDate EXPIRY = LocalDate.of(2099, 3, 15);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM processed_orders");
+    }
+
+    @Test
+    @DisplayName("Should sum the stock of saved products by type and by the month they expire")
+    void shouldServeLevelsOfSavedProducts() throws Exception {
+        givenProduct("Cable", 5, ProductType.NORMAL, null);
+        givenProduct("Dongle", 0, ProductType.NORMAL, null);
+        givenProduct("Milk", 4, ProductType.EXPIRABLE, EXPIRY);
+
+        stock()
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].type").value("NORMAL"))
+                .andExpect(jsonPath("$[0].closing").value(nullValue()))
+                .andExpect(jsonPath("$[0].products").value(2))
+                .andExpect(jsonPath("$[0].available").value(5))
+                .andExpect(jsonPath("$[0].outOfStock").value(1))
+                .andExpect(jsonPath("$[1].type").value("EXPIRABLE"))
+                .andExpect(jsonPath("$[1].closing").value("2099-03"))
+                .andExpect(jsonPath("$[1].available").value(4));
+    }
+
+    @Test
+    @DisplayName("Should take the stock of processed orders and batches off the levels")
+    void shouldTakeProcessedStockOffLevels() throws Exception {
+        Product cable = givenProduct("Cable", 2, ProductType.NORMAL, null);
+        Product milk = givenProduct("Milk", 4, ProductType.EXPIRABLE, EXPIRY);
+        Order first = givenOrder(cable, milk);
+        Order second = givenOrder(cable);
+        Order third = givenOrder(cable, milk);
+
+        mockMvc.perform(post("/orders/{orderId}/processOrder", first.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/orders/processBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\": [" + second.getId() + ", " + third.getId() + "]}"))
+                .andExpect(status().isOk());
+
+        stock()
+                .andExpect(jsonPath("$[0].available").value(0))
+                .andExpect(jsonPath("$[0].outOfStock").value(1))
+                .andExpect(jsonPath("$[1].available").value(2))
+                .andExpect(jsonPath("$[1].outOfStock").value(0));
+    }
+
+    @Test
+    @DisplayName("Should leave the levels untouched by a batch that failed")
+    void shouldIgnoreFailedBatch() throws Exception {
+        Product cable = givenProduct("Cable", 2, ProductType.NORMAL, null);
+        Order order = givenOrder(cable);
+
+        mockMvc.perform(post("/orders/processBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderIds\": [" + order.getId() + ", 999]}"))
+                .andExpect(status().isNotFound());
+
+        stock().andExpect(jsonPath("$[0].available").value(2));
+    }
+
+    @Test
+    @DisplayName("Should move a product to the level of its new expiry date and drop removed products")
+    void shouldFollowUpdatedAndRemovedProducts() throws Exception {
+        Product cable = givenProduct("Cable", 5, ProductType.NORMAL, null);
+        Product milk = givenProduct("Milk", 4, ProductType.EXPIRABLE, EXPIRY);
+
+        milk.setExpiryDate(EXPIRY.plusMonths(1));
+        milk.setAvailable(7);
+        productRepository.save(milk);
+        productRepository.delete(cable);
+
+        stock()
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].closing").value("2099-04"))
+                .andExpect(jsonPath("$[0].available").value(7));
+    }
+
+    private ResultActions stock() throws Exception {
+        return mockMvc.perform(get("/products/stock")).andExpect(status().isOk());
+    }
+
+    private Product givenProduct(String name, int available, ProductType type, LocalDate expiryDate) {
+        return productRepository.save(new Product(null, 10, available, type, name, expiryDate, null, null));
+    }
+
+    private Order givenOrder(Product... products) {
+        var order = new Order();
+        order.setItems(Set.of(products));
+        return orderRepository.save(order);
+    }
+}
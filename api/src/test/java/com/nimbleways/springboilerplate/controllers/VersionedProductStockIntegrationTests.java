@@ -0,0 +1,12 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * The same levels with runs that take stock by flushing managed products, which the entity listener also reports.
+ */
+@SpringBootTest(properties = "stock.writes=versioned")
+@DisplayName("Product Stock Integration Tests with versioned stock writes")
+class VersionedProductStockIntegrationTests extends ProductStockIntegrationTests {
+}
@@ -0,0 +1,61 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.orm.jpa.JpaSystemException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@DisplayName("Product Repository Integration Tests")
+class ProductRepositoryIntegrationTests {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Should take one unit when product is in stock")
+    void shouldDecrementWhenInStock() {
+        Product product = entityManager.persistFlushFind(new Product(null, 10, 2, ProductType.NORMAL, "Cable", null, null, null));
+
+        int updated = productRepository.decrementAvailable(product.getId());
+
+        entityManager.clear();
+        assertEquals(1, updated);
+        assertEquals(1, productRepository.findById(product.getId()).get().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should leave stock untouched when product is out of stock")
+    void shouldNotDecrementBelowZero() {
+        Product product = entityManager.persistFlushFind(new Product(null, 10, 1, ProductType.NORMAL, "Cable", null, null, null));
+
+        int first = productRepository.decrementAvailable(product.getId());
+        int second = productRepository.decrementAvailable(product.getId());
+
+        entityManager.clear();
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals(0, productRepository.findById(product.getId()).get().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should fail loading a product whose type has no strategy")
+    void shouldRejectUnknownProductType() {
+        entityManager.getEntityManager()
+                .createNativeQuery("insert into products (id, lead_time, available, type, name, version) "
+                        + "values (next value for products_seq, 10, 5, 'UNKNOWN', 'Mystery', 0)")
+                .executeUpdate();
+
+        assertThrows(JpaSystemException.class, () -> productRepository.findAll());
+    }
+}
@@ -0,0 +1,154 @@
+package com.nimbleways.springboilerplate.services.backlog;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.BacklogReplayCheckpoint;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.BacklogReplayCheckpointRepository;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.backlog.BacklogReplayReport.State;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "orders.backlog.chunk-size=2",
+        "orders.backlog.fetch-size=2",
+        "management.endpoints.web.exposure.include=backlogreplay"})
+@AutoConfigureMockMvc
+@DisplayName("Backlog Replay Job Integration Tests")
+class BacklogReplayJobIntegrationTests {
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private BacklogReplayJob backlogReplayJob;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProcessedOrderRepository processedOrderRepository;
+
+    @Autowired
+    private BacklogReplayCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        checkpointRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM processed_orders");
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should process every pending order in chunks and checkpoint the last one")
+    void shouldProcessPendingOrdersInChunks() {
+        Product cable = productRepository.save(new Product(null, 10, 10, ProductType.NORMAL, "Cable", null, null, null));
+        List<Order> orders = givenOrders(cable, 5);
+        processedOrderRepository.markProcessed(orders.get(1).getId(), Instant.now());
+
+        BacklogReplayReport report = backlogReplayJob.run("outage", 0L);
+
+        assertEquals(State.COMPLETED, report.state());
+        assertEquals(4, report.processedOrders());
+        assertEquals(2, report.chunks());
+        assertEquals(6, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+        BacklogReplayCheckpoint checkpoint = checkpointRepository.findById("outage").orElseThrow();
+        assertEquals(orders.get(4).getId(), checkpoint.getLastOrderId());
+        assertEquals(4, checkpoint.getProcessedOrders());
+    }
+
+    @Test
+    @DisplayName("Should resume after the checkpointed order")
+    void shouldResumeAfterCheckpoint() {
+        Product cable = productRepository.save(new Product(null, 10, 10, ProductType.NORMAL, "Cable", null, null, null));
+        List<Order> orders = givenOrders(cable, 4);
+        checkpointRepository.save(new BacklogReplayCheckpoint("outage", orders.get(1).getId(), 2L, Instant.now()));
+
+        BacklogReplayReport report = backlogReplayJob.run("outage", 0L);
+
+        assertEquals(2, report.processedOrders());
+        assertEquals(8, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+        assertEquals(4, checkpointRepository.findById("outage").orElseThrow().getProcessedOrders());
+        assertEquals(0, backlogReplayJob.run("outage", 0L).processedOrders());
+    }
+
+    @Test
+    @DisplayName("Should leave the orders up to the given one alone")
+    void shouldReplayOnlyAfterGivenOrder() {
+        Product cable = productRepository.save(new Product(null, 10, 10, ProductType.NORMAL, "Cable", null, null, null));
+        List<Order> orders = givenOrders(cable, 4);
+
+        BacklogReplayReport report = backlogReplayJob.run("outage", orders.get(1).getId());
+
+        assertEquals(2, report.processedOrders());
+        assertEquals(8, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+        assertEquals(Set.of(orders.get(2).getId(), orders.get(3).getId()), processedOrderRepository.findProcessedIn(
+                orders.stream().map(Order::getId).toList()));
+    }
+
+    @Test
+    @DisplayName("Should start a replay from the actuator endpoint and report its progress")
+    void shouldStartFromActuator() throws Exception {
+        Product cable = productRepository.save(new Product(null, 10, 10, ProductType.NORMAL, "Cable", null, null, null));
+        givenOrders(cable, 3);
+
+        mockMvc.perform(post("/actuator/backlogreplay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"job\": \"actuator\", \"afterOrderId\": 0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.job", is("actuator")));
+
+        for (int i = 0; i < 100 && backlogReplayJob.status().state() == State.RUNNING; i++) {
+            Thread.sleep(50);
+        }
+        mockMvc.perform(get("/actuator/backlogreplay"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("COMPLETED")))
+                .andExpect(jsonPath("$.processedOrders", is(3)));
+        assertEquals(7, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+    }
+
+    private List<Order> givenOrders(Product product, int count) {
+        var orders = new ArrayList<Order>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setItems(Set.of(product));
+            orders.add(orderRepository.save(order));
+        }
+        return orders;
+    }
+}
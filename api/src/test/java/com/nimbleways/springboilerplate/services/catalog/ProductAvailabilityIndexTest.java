@@ -0,0 +1,139 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.domain.catalog.Availability;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.catalog.ProductWindow;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Product Availability Index Tests")
+class ProductAvailabilityIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 1);
+
+    private ProductAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductAvailabilityIndex();
+    }
+
+    @Test
+    @DisplayName("Should classify an expirable product on each day around its lead time and expiry date")
+    void shouldClassifyExpirableProductAcrossDays() {
+        ProductMetadata milk = new ProductMetadata(1L, ProductType.EXPIRABLE, "Milk", 3, TODAY.plusDays(5), null, null);
+
+        assertEquals(Availability.DELIVERABLE, index.availability(milk, TODAY));
+        assertEquals(Availability.DELIVERABLE, index.availability(milk, TODAY.plusDays(1)));
+        assertEquals(Availability.SELLABLE, index.availability(milk, TODAY.plusDays(2)));
+        assertEquals(Availability.SELLABLE, index.availability(milk, TODAY.plusDays(4)));
+        assertEquals(Availability.EXPIRED, index.availability(milk, TODAY.plusDays(5)));
+        assertEquals(Availability.DELIVERABLE, index.availability(milk, TODAY));
+    }
+
+    @Test
+    @DisplayName("Should classify a seasonal product before, during and after its season")
+    void shouldClassifySeasonalProductAcrossDays() {
+        ProductMetadata melon = new ProductMetadata(2L, ProductType.SEASONAL, "Melon", 2, null,
+                TODAY.plusDays(1), TODAY.plusDays(4));
+
+        assertEquals(Availability.OUT_OF_SEASON, index.availability(melon, TODAY));
+        assertEquals(Availability.DELIVERABLE, index.availability(melon, TODAY.plusDays(1)));
+        assertEquals(Availability.SELLABLE, index.availability(melon, TODAY.plusDays(2)));
+        assertEquals(Availability.SELLABLE, index.availability(melon, TODAY.plusDays(3)));
+        assertEquals(Availability.OUT_OF_SEASON, index.availability(melon, TODAY.plusDays(4)));
+    }
+
+    @Test
+    @DisplayName("Should classify a product again once its metadata changed")
+    void shouldReclassifyChangedProduct() {
+        ProductMetadata milk = new ProductMetadata(1L, ProductType.EXPIRABLE, "Milk", 3, TODAY.plusDays(5), null, null);
+        ProductMetadata expired = new ProductMetadata(1L, ProductType.EXPIRABLE, "Milk", 3, TODAY, null, null);
+
+        assertEquals(Availability.DELIVERABLE, index.availability(milk, TODAY));
+        assertEquals(Availability.EXPIRED, index.availability(expired, TODAY));
+    }
+
+    @Test
+    @DisplayName("Should list the products whose window closes within the next days, soonest first")
+    void shouldListProductsClosingWithinDays() {
+        index.put(new ProductMetadata(1L, ProductType.EXPIRABLE, "Milk", 3, TODAY.plusDays(5), null, null));
+        index.put(new ProductMetadata(2L, ProductType.SEASONAL, "Melon", 2, null, TODAY.minusDays(9), TODAY.plusDays(2)));
+        index.put(new ProductMetadata(3L, ProductType.EXPIRABLE, "Butter", 3, TODAY, null, null));
+        index.put(new ProductMetadata(4L, ProductType.EXPIRABLE, "Cheese", 3, TODAY.plusDays(30), null, null));
+        index.put(new ProductMetadata(5L, ProductType.NORMAL, "Cable", 3, null, null, null));
+
+        assertEquals(List.of(
+                new ProductWindow(2L, ProductType.SEASONAL, "Melon", TODAY.plusDays(2)),
+                new ProductWindow(1L, ProductType.EXPIRABLE, "Milk", TODAY.plusDays(5))),
+                index.closingWithin(TODAY, 7));
+        assertEquals(List.of(), index.closingWithin(TODAY, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.closingWithin(TODAY, -1));
+    }
+
+    @Test
+    @DisplayName("Should move a product to its new closing day when updated, and drop it when removed")
+    void shouldFollowUpdatesAndRemovals() {
+        index.put(new ProductMetadata(1L, ProductType.EXPIRABLE, "Milk", 3, TODAY.plusDays(5), null, null));
+        index.put(new ProductMetadata(1L, ProductType.EXPIRABLE, "Milk", 3, TODAY.plusDays(1), null, null));
+
+        assertEquals(List.of(new ProductWindow(1L, ProductType.EXPIRABLE, "Milk", TODAY.plusDays(1))),
+                index.closingWithin(TODAY, 7));
+
+        index.remove(1L);
+
+        assertEquals(List.of(), index.closingWithin(TODAY, 7));
+    }
+
+    @Test
+    @DisplayName("Should roll today over at midnight in the zone of its clock")
+    void shouldRollTodayOverAtMidnight() {
+        var zone = ZoneId.of("Europe/Paris");
+        var clock = new MovableClock(TODAY.atTime(23, 59).atZone(zone).toInstant(), zone);
+        var index = new ProductAvailabilityIndex(clock);
+
+        assertEquals(TODAY, index.today());
+
+        clock.instant = clock.instant.plus(Duration.ofMinutes(1));
+
+        assertEquals(TODAY.plusDays(1), index.today());
+    }
+
+    private static final class MovableClock extends Clock {
+
+        private final ZoneId zone;
+        private Instant instant;
+
+        MovableClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MovableClock(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.config.ProductCacheProperties;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Metadata Cache Tests")
+class ProductMetadataCacheTest {
+
+    private static final ProductMetadata CABLE = new ProductMetadata(1L, ProductType.NORMAL, "Cable", 10, null, null, null);
+    private static final ProductMetadata DONGLE = new ProductMetadata(2L, ProductType.NORMAL, "Dongle", 15, null, null, null);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private SimpleMeterRegistry registry;
+
+    private ProductMetadataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new ProductMetadataCache(productRepository, new ProductCacheProperties(100, Duration.ofMinutes(10)),
+                registry);
+    }
+
+    @Test
+    @DisplayName("Should load all missing products in one query and serve them from memory afterwards")
+    void shouldLoadMissingProductsOnce() {
+        when(productRepository.findMetadataByIdIn(anyCollection())).thenReturn(List.of(CABLE, DONGLE));
+
+        var first = cache.getAll(List.of(1L, 2L));
+        var second = cache.getAll(List.of(2L, 1L));
+
+        assertEquals(Map.of(1L, CABLE, 2L, DONGLE), first);
+        assertEquals(first, second);
+        verify(productRepository, times(1)).findMetadataByIdIn(anyCollection());
+        assertEquals(2, gets("miss"));
+        assertEquals(2, gets("hit"));
+    }
+
+    @Test
+    @DisplayName("Should only query the products that are not cached yet")
+    void shouldOnlyLoadUncachedProducts() {
+        when(productRepository.findMetadataByIdIn(anyCollection()))
+                .thenReturn(List.of(CABLE))
+                .thenReturn(List.of(DONGLE));
+        cache.getAll(List.of(1L));
+
+        var result = cache.getAll(List.of(1L, 2L));
+
+        assertEquals(Map.of(1L, CABLE, 2L, DONGLE), result);
+        verify(productRepository).findMetadataByIdIn(List.of(2L));
+    }
+
+    @Test
+    @DisplayName("Should reload a product after it was evicted")
+    void shouldReloadAfterEviction() {
+        var renamed = new ProductMetadata(1L, ProductType.NORMAL, "USB Cable", 10, null, null, null);
+        when(productRepository.findMetadataByIdIn(anyCollection()))
+                .thenReturn(List.of(CABLE))
+                .thenReturn(List.of(renamed));
+        cache.getAll(List.of(1L));
+
+        cache.evict(1L);
+
+        assertEquals(Map.of(1L, renamed), cache.getAll(List.of(1L)));
+    }
+
+    @Test
+    @DisplayName("Should leave unknown products out of the result")
+    void shouldOmitUnknownProducts() {
+        when(productRepository.findMetadataByIdIn(anyCollection())).thenReturn(List.of());
+
+        assertEquals(Map.of(), cache.getAll(List.of(42L)));
+    }
+
+    private double gets(String result) {
+        return registry.get("cache.gets").tags("cache", ProductMetadataCache.CACHE_NAME, "result", result)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,82 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductWindow;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DisplayName("Product Metadata Invalidation Integration Tests")
+class ProductMetadataInvalidationIntegrationTests {
+
+    @Autowired
+    private ProductMetadataCache productMetadataCache;
+
+    @Autowired
+    private ProductAvailabilityIndex productAvailabilityIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should serve the new details after a product is updated through JPA")
+    void shouldEvictOnUpdate() {
+        Product product = productRepository.save(new Product(null, 10, 5, ProductType.NORMAL, "Cable", null, null, null));
+        productMetadataCache.getAll(List.of(product.getId()));
+
+        product.setLeadTime(30);
+        productRepository.save(product);
+
+        assertEquals(30, productMetadataCache.getAll(List.of(product.getId())).get(product.getId()).leadTime());
+    }
+
+    @Test
+    @DisplayName("Should forget a product once it is deleted")
+    void shouldEvictOnRemove() {
+        Product product = productRepository.save(new Product(null, 10, 5, ProductType.NORMAL, "Cable", null, null, null));
+        productMetadataCache.getAll(List.of(product.getId()));
+
+        productRepository.delete(product);
+
+        assertTrue(productMetadataCache.getAll(List.of(product.getId())).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep the closing day of a product in the availability index as it is saved and removed")
+    void shouldIndexClosingDays() {
+        LocalDate today = LocalDate.now();
+        Product milk = productRepository.save(
+                new Product(null, 10, 5, ProductType.EXPIRABLE, "Milk", today.plusDays(20), null, null));
+        assertEquals(List.of(), closingWithinWeek(milk));
+
+        milk.setExpiryDate(today.plusDays(3));
+        milk = productRepository.save(milk);
+        assertEquals(List.of(today.plusDays(3)), closingWithinWeek(milk));
+
+        productRepository.delete(milk);
+        assertEquals(List.of(), closingWithinWeek(milk));
+    }
+
+    private List<LocalDate> closingWithinWeek(Product product) {
+        return productAvailabilityIndex.closingWithin(LocalDate.now(), 7).stream()
+                .filter(window -> window.productId().equals(product.getId()))
+                .map(ProductWindow::closes)
+                .toList();
+    }
+}
@@ -0,0 +1,64 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.catalog.StockLevel;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DisplayName("Product Stock Levels Refresher Tests")
+class ProductStockLevelsRefresherTest {
+
+    private static final ThreadFactory REFRESHER_THREADS = runnable -> new Thread(runnable, "stock-levels-refresher");
+    private static final ProductMetadata CABLE =
+            new ProductMetadata(1L, ProductType.NORMAL, "Cable", 10, null, null, null);
+
+    private final Map<ProductMetadata, Integer> table = new ConcurrentHashMap<>(Map.of(CABLE, 5));
+    private final ProductStockLevels levels = new ProductStockLevels();
+
+    private ProductStockLevelsRefresher refresher;
+
+    @AfterEach
+    void cleanup() {
+        if (refresher != null) {
+            refresher.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should catch up with the stock taken by another instance")
+    void shouldCatchUpWithOtherInstances() throws InterruptedException {
+        levels.load(table::forEach);
+        refresher = new ProductStockLevelsRefresher(levels, table::forEach, Duration.ofMillis(10), REFRESHER_THREADS);
+        refresher.start();
+
+        table.put(CABLE, 0);
+
+        var expected = List.of(new StockLevel(ProductType.NORMAL, null, 1, 0, 1));
+        for (int i = 0; i < 100 && !expected.equals(levels.snapshot()); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, levels.snapshot());
+    }
+
+    @Test
+    @DisplayName("Should not refresh when its interval is zero")
+    void shouldNotRefreshWithZeroInterval() {
+        refresher = new ProductStockLevelsRefresher(levels, table::forEach, Duration.ZERO, REFRESHER_THREADS);
+
+        refresher.start();
+
+        assertFalse(refresher.isRunning());
+        assertEquals(List.of(), levels.snapshot());
+    }
+}
@@ -0,0 +1,159 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.catalog.StockLevel;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Product Stock Levels Tests")
+class ProductStockLevelsTest {
+
+    private static final ProductMetadata CABLE =
+            new ProductMetadata(1L, ProductType.NORMAL, "Cable", 10, null, null, null);
+    private static final ProductMetadata DONGLE =
+            new ProductMetadata(2L, ProductType.NORMAL, "Dongle", 10, null, null, null);
+    private static final ProductMetadata MILK = new ProductMetadata(3L, ProductType.EXPIRABLE, "Milk", 3,
+            LocalDate.of(2024, 6, 20), null, null);
+    private static final ProductMetadata CHEESE = new ProductMetadata(4L, ProductType.EXPIRABLE, "Cheese", 3,
+            LocalDate.of(2024, 7, 2), null, null);
+    private static final ProductMetadata MELON = new ProductMetadata(5L, ProductType.SEASONAL, "Melon", 2, null,
+            LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30));
+
+    private ProductStockLevels levels;
+
+    @BeforeEach
+    void setUp() {
+        levels = new ProductStockLevels();
+        levels.load(products -> {
+            products.accept(CABLE, 5);
+            products.accept(DONGLE, 0);
+            products.accept(MILK, 4);
+            products.accept(CHEESE, 6);
+            products.accept(MELON, 8);
+        });
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should sum the stock by type and by the month products expire or their season ends")
+    void shouldSumStockByTypeAndClosingMonth() {
+        assertEquals(List.of(
+                new StockLevel(ProductType.NORMAL, null, 2, 5, 1),
+                new StockLevel(ProductType.SEASONAL, YearMonth.of(2024, 6), 1, 8, 0),
+                new StockLevel(ProductType.EXPIRABLE, YearMonth.of(2024, 6), 1, 4, 0),
+                new StockLevel(ProductType.EXPIRABLE, YearMonth.of(2024, 7), 1, 6, 0)), levels.snapshot());
+    }
+
+    @Test
+    @DisplayName("Should take decrements off the levels, never below zero, and ignore unknown products")
+    void shouldApplyDecrements() {
+        levels.recordDecrements(Map.of(CABLE.id(), 2, MILK.id(), 9, 99L, 1));
+
+        assertEquals(new StockLevel(ProductType.NORMAL, null, 2, 3, 1), level(ProductType.NORMAL, null));
+        assertEquals(new StockLevel(ProductType.EXPIRABLE, YearMonth.of(2024, 6), 1, 0, 1),
+                level(ProductType.EXPIRABLE, YearMonth.of(2024, 6)));
+    }
+
+    @Test
+    @DisplayName("Should move a written product to its new level and drop levels left empty")
+    void shouldMoveWrittenProduct() {
+        var extended = new ProductMetadata(MILK.id(), ProductType.EXPIRABLE, "Milk", 3, LocalDate.of(2024, 7, 5),
+                null, null);
+
+        levels.recordWritten(extended, 10);
+        levels.recordRemoved(CHEESE.id());
+
+        assertEquals(List.of(
+                new StockLevel(ProductType.NORMAL, null, 2, 5, 1),
+                new StockLevel(ProductType.SEASONAL, YearMonth.of(2024, 6), 1, 8, 0),
+                new StockLevel(ProductType.EXPIRABLE, YearMonth.of(2024, 7), 1, 10, 0)), levels.snapshot());
+    }
+
+    @Test
+    @DisplayName("Should apply the changes of a transaction only once it has committed")
+    void shouldApplyChangesAfterCommit() {
+        var before = levels.snapshot();
+        TransactionSynchronizationManager.initSynchronization();
+
+        levels.recordDecrements(Map.of(CABLE.id(), 1));
+        levels.recordDecrements(Map.of(CABLE.id(), 1));
+
+        assertSame(before, levels.snapshot());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(3, level(ProductType.NORMAL, null).available());
+    }
+
+    @Test
+    @DisplayName("Should drop the changes of a transaction that rolled back")
+    void shouldDropChangesOnRollback() {
+        var before = levels.snapshot();
+        TransactionSynchronizationManager.initSynchronization();
+
+        levels.recordDecrements(Map.of(CABLE.id(), 1));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertSame(before, levels.snapshot());
+        assertNull(TransactionSynchronizationManager.getResource(levels));
+    }
+
+    @Test
+    @DisplayName("Should keep the stock a product was written with over the decrements of the same transaction")
+    void shouldNotCountWrittenProductTwice() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        levels.recordWritten(CABLE, 4);
+        levels.recordDecrements(Map.of(CABLE.id(), 1));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(4, level(ProductType.NORMAL, null).available());
+    }
+
+    @Test
+    @DisplayName("Should hand out a snapshot that cannot be changed")
+    void shouldHandOutImmutableSnapshot() {
+        var snapshot = levels.snapshot();
+
+        levels.recordDecrements(Map.of(CABLE.id(), 1));
+
+        assertEquals(5, snapshot.get(0).available());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0));
+    }
+
+    private StockLevel level(ProductType type, YearMonth closing) {
+        return levels.snapshot().stream()
+                .filter(level -> level.type() == type && Objects.equals(level.closing(), closing))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void complete(int status) {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
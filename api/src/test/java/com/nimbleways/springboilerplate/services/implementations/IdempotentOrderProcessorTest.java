@@ -0,0 +1,122 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.OrderIdempotencyProperties;
+import com.nimbleways.springboilerplate.config.OrderTracingProperties;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
+import com.nimbleways.springboilerplate.exceptions.OrderNotFoundException;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.metrics.ProcessingTracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Idempotent Order Processor Tests")
+class IdempotentOrderProcessorTest {
+
+    @Mock
+    private OrderProcessingService orderProcessingService;
+
+    @Mock
+    private ProcessedOrderRepository processedOrderRepository;
+
+    private SimpleMeterRegistry registry;
+
+    private IdempotentOrderProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        processor = new IdempotentOrderProcessor(orderProcessingService, processedOrderRepository,
+                TransactionOperations.withoutTransaction(), new OrderProcessingMetrics(registry),
+                new ProcessingTracer(new OrderTracingProperties(Duration.ofSeconds(1)), registry),
+                new OrderIdempotencyProperties(100, Duration.ofMinutes(5)));
+    }
+
+    @Test
+    @DisplayName("Should process an order once and answer retries from memory")
+    void shouldAnswerRetriesFromMemory() {
+        var first = processor.processOrder(1L);
+        var retry = processor.processOrder(1L);
+
+        assertEquals(new ProcessOrderResponse(1L), first);
+        assertEquals(first, retry);
+        verify(processedOrderRepository, times(1)).markProcessed(eq(1L), any());
+        verify(orderProcessingService, times(1)).processOrder(1L);
+        assertEquals(1, replays("cache"));
+    }
+
+    @Test
+    @DisplayName("Should not process an order the database already records as processed")
+    void shouldNotReprocessOrderRecordedInStore() {
+        doThrow(new DuplicateKeyException("processed_orders")).when(processedOrderRepository)
+                .markProcessed(eq(1L), any());
+
+        var response = processor.processOrder(1L);
+
+        assertEquals(new ProcessOrderResponse(1L), response);
+        verifyNoInteractions(orderProcessingService);
+        assertEquals(1, replays("store"));
+    }
+
+    @Test
+    @DisplayName("Should let a failed order be processed again")
+    void shouldRetryFailedOrder() {
+        when(orderProcessingService.processOrder(1L)).thenThrow(new OrderNotFoundException(1L)).thenReturn(null);
+
+        assertThrows(OrderNotFoundException.class, () -> processor.processOrder(1L));
+        processor.processOrder(1L);
+
+        verify(orderProcessingService, times(2)).processOrder(1L);
+    }
+
+    @Test
+    @DisplayName("Should claim and process only the orders of a batch not processed yet")
+    void shouldProcessOnlyUnclaimedOrdersOfBatch() {
+        processor.processOrder(1L);
+        when(processedOrderRepository.findProcessedIn(List.of(2L, 3L))).thenReturn(Set.of(2L));
+
+        var responses = processor.processOrders(List.of(1L, 2L, 3L, 3L));
+
+        assertEquals(List.of(1L, 2L, 3L, 3L), responses.stream().map(ProcessOrderResponse::id).toList());
+        verify(processedOrderRepository).markAllProcessed(eq(List.of(3L)), any());
+        verify(orderProcessingService).processOrders(List.of(3L));
+        assertEquals(1, replays("cache"));
+        assertEquals(1, replays("store"));
+    }
+
+    @Test
+    @DisplayName("Should retry a batch without the orders a concurrent call claimed first")
+    void shouldRetryBatchAfterConcurrentClaim() {
+        when(processedOrderRepository.findProcessedIn(List.of(1L, 2L))).thenReturn(Set.of()).thenReturn(Set.of(1L));
+        doThrow(new DuplicateKeyException("processed_orders")).when(processedOrderRepository)
+                .markAllProcessed(eq(List.of(1L, 2L)), any());
+
+        processor.processOrders(List.of(1L, 2L));
+
+        verify(orderProcessingService, never()).processOrders(List.of(1L, 2L));
+        verify(orderProcessingService).processOrders(List.of(2L));
+        assertEquals(1, replays("store"));
+    }
+
+    private double replays(String source) {
+        return registry.get("orders.replayed").tag("source", source).counter().count();
+    }
+}
@@ -0,0 +1,104 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Order Processing Query Count Integration Tests")
+class OrderProcessingQueryCountIntegrationTests {
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should load an order and its item ids in a single statement")
+    void shouldLoadOrderWithItemIdsInOneStatement() {
+        Order order = createOrderWithThreeItems();
+        statistics.clear();
+
+        var itemRefs = orderRepository.findItemRefsByOrderIdIn(List.of(order.getId()));
+
+        assertEquals(3, itemRefs.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should issue one load, one metadata load and one stock statement per item on a cold cache")
+    void shouldBoundStatementsWhenProcessingOrder() {
+        Order order = createOrderWithThreeItems();
+        statistics.clear();
+
+        orderProcessingService.processOrder(order.getId());
+
+        assertEquals(1 + 1 + 3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should only read the order and write stock once product metadata is cached")
+    void shouldSkipProductReadsWhenMetadataCached() {
+        Order order = createOrderWithThreeItems();
+        orderProcessingService.processOrder(order.getId());
+        statistics.clear();
+
+        orderProcessingService.processOrder(order.getId());
+
+        assertEquals(1 + 3, statistics.getPrepareStatementCount());
+    }
+
+    private Order createOrderWithThreeItems() {
+        LocalDate now = LocalDate.now();
+        Product normal = productRepository.save(new Product(null, 10, 5, ProductType.NORMAL, "Cable", null, null, null));
+        Product seasonal = productRepository.save(new Product(null, 20, 0, ProductType.SEASONAL, "Melon", null,
+                now.minusDays(5), now.plusDays(20)));
+        Product expirable = productRepository.save(new Product(null, 15, 2, ProductType.EXPIRABLE, "Milk",
+                now.plusDays(10), null, null));
+
+        Order order = new Order();
+        order.setItems(Set.of(normal, seasonal, expirable));
+        return orderRepository.save(order);
+    }
+}
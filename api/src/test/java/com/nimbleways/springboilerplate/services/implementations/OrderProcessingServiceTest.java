@@ -1,10 +1,28 @@
 package com.nimbleways.springboilerplate.services.implementations;
 
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
 import com.nimbleways.springboilerplate.domain.strategy.ProductProcessingStrategy;
 import com.nimbleways.springboilerplate.entities.Order;
-import com.nimbleways.springboilerplate.entities.Product;
 import com.nimbleways.springboilerplate.exceptions.OrderNotFoundException;
+import com.nimbleways.springboilerplate.repositories.OrderItemRef;
 import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.repositories.StockVersion;
+import com.nimbleways.springboilerplate.services.catalog.ProductMetadataCache;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.notification.NotificationOutbox;
+import com.nimbleways.springboilerplate.services.processing.SequentialItemProcessor;
+import com.nimbleways.springboilerplate.services.stock.DatabaseStockEngine;
+import com.nimbleways.springboilerplate.services.stock.ImmediateStockGateway;
+import com.nimbleways.springboilerplate.services.stock.OptimisticStockEngine;
+import com.nimbleways.springboilerplate.services.stock.StockRetryPolicy;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,11 +30,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +54,18 @@ class OrderProcessingServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private ProductMetadataCache productMetadataCache;
+
+    @Mock
+    private ImmediateStockGateway immediateStockGateway;
+
+    @Mock
+    private ProductStockRepository productStockRepository;
+
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
     @Mock
     private ProductProcessingStrategy normalStrategy;
 
@@ -35,16 +75,28 @@ class OrderProcessingServiceTest {
     @Mock
     private ProductProcessingStrategy expirableStrategy;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private OrderProcessingService service;
 
     @BeforeEach
     void setUp() {
-        Map<String, ProductProcessingStrategy> strategies = new HashMap<>();
-        strategies.put("NORMAL", normalStrategy);
-        strategies.put("SEASONAL", seasonalStrategy);
-        strategies.put("EXPIRABLE", expirableStrategy);
-
-        service = new OrderProcessingService(orderRepository, strategies);
+        when(normalStrategy.type()).thenReturn(ProductType.NORMAL);
+        when(seasonalStrategy.type()).thenReturn(ProductType.SEASONAL);
+        when(expirableStrategy.type()).thenReturn(ProductType.EXPIRABLE);
+        var strategyList = List.of(normalStrategy, seasonalStrategy, expirableStrategy);
+        for (ProductProcessingStrategy strategy : strategyList) {
+            lenient().when(strategy.process(any(), any())).thenReturn(ProcessingOutcome.DECREMENTED);
+        }
+        var strategies = new ProductStrategyRegistry(strategyList);
+
+        meterRegistry = new SimpleMeterRegistry();
+        var metrics = new OrderProcessingMetrics(meterRegistry);
+        var stockEngine = new DatabaseStockEngine(immediateStockGateway, productStockRepository, metrics);
+        service = new OrderProcessingService(orderRepository, productMetadataCache, strategies,
+                new SequentialItemProcessor(), stockEngine,
+                new StockRetryPolicy(3, Duration.ZERO, Duration.ZERO, metrics), notificationOutbox,
+                new ProductStockLevels(), metrics, Clock.systemDefaultZone());
     }
 
     @Test
@@ -52,11 +104,12 @@ class OrderProcessingServiceTest {
     void shouldThrowOrderNotFoundExceptionWhenOrderDoesNotExist() {
         
         Long orderId = 999L;
-        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+        when(orderRepository.findItemRefsByOrderIdIn(List.of(orderId))).thenReturn(List.of());
 
 
         assertThrows(OrderNotFoundException.class, () -> service.processOrder(orderId));
-        verify(orderRepository, times(1)).findById(orderId);
+        verify(orderRepository, times(1)).findItemRefsByOrderIdIn(List.of(orderId));
+        verifyNoInteractions(productMetadataCache);
     }
 
     @Test
@@ -64,15 +117,8 @@ class OrderProcessingServiceTest {
     void shouldProcessOrderWithNormalProduct() {
         
         Long orderId = 1L;
-        Product normalProduct = new Product(null, 10, 5, "NORMAL", "Cable", null, null, null);
-        Set<Product> products = new HashSet<>();
-        products.add(normalProduct);
-
-        Order order = new Order();
-        order.setId(orderId);
-        order.setItems(products);
-
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        ProductMetadata normalProduct = new ProductMetadata(1L, ProductType.NORMAL, "Cable", 10, null, null, null);
+        givenOrder(orderId, normalProduct);
 
         
         Order result = service.processOrder(orderId);
@@ -80,8 +126,9 @@ class OrderProcessingServiceTest {
         
         assertNotNull(result);
         assertEquals(orderId, result.getId());
-        verify(normalStrategy, times(1)).process(normalProduct);
-        verifyNoInteractions(seasonalStrategy, expirableStrategy);
+        verify(normalStrategy, times(1)).process(eq(normalProduct), any(ProcessingContext.class));
+        verify(seasonalStrategy, never()).process(any(), any());
+        verify(expirableStrategy, never()).process(any(), any());
     }
 
     @Test
@@ -90,24 +137,18 @@ class OrderProcessingServiceTest {
         
         Long orderId = 2L;
         LocalDate now = LocalDate.now();
-        Product seasonalProduct = new Product(null, 20, 3, "SEASONAL", "Watermelon", null,
+        ProductMetadata seasonalProduct = new ProductMetadata(1L, ProductType.SEASONAL, "Watermelon", 20, null,
                 now.minusDays(10), now.plusDays(30));
-        Set<Product> products = new HashSet<>();
-        products.add(seasonalProduct);
-
-        Order order = new Order();
-        order.setId(orderId);
-        order.setItems(products);
-
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        givenOrder(orderId, seasonalProduct);
 
         
         Order result = service.processOrder(orderId);
 
         
         assertNotNull(result);
-        verify(seasonalStrategy, times(1)).process(seasonalProduct);
-        verifyNoInteractions(normalStrategy, expirableStrategy);
+        verify(seasonalStrategy, times(1)).process(eq(seasonalProduct), any(ProcessingContext.class));
+        verify(normalStrategy, never()).process(any(), any());
+        verify(expirableStrategy, never()).process(any(), any());
     }
 
     @Test
@@ -116,24 +157,18 @@ class OrderProcessingServiceTest {
         
         Long orderId = 3L;
         LocalDate now = LocalDate.now();
-        Product expirableProduct = new Product(null, 15, 2, "EXPIRABLE", "Milk",
-                now.plusDays(10), null, null);
-        Set<Product> products = new HashSet<>();
-        products.add(expirableProduct);
-
-        Order order = new Order();
-        order.setId(orderId);
-        order.setItems(products);
-
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        ProductMetadata expirableProduct = new ProductMetadata(1L, ProductType.EXPIRABLE, "Milk", 15, now.plusDays(10),
+                null, null);
+        givenOrder(orderId, expirableProduct);
 
         
         Order result = service.processOrder(orderId);
 
         
         assertNotNull(result);
-        verify(expirableStrategy, times(1)).process(expirableProduct);
-        verifyNoInteractions(normalStrategy, seasonalStrategy);
+        verify(expirableStrategy, times(1)).process(eq(expirableProduct), any(ProcessingContext.class));
+        verify(normalStrategy, never()).process(any(), any());
+        verify(seasonalStrategy, never()).process(any(), any());
     }
 
     @Test
@@ -143,67 +178,217 @@ class OrderProcessingServiceTest {
         Long orderId = 4L;
         LocalDate now = LocalDate.now();
 
-        Product normalProduct = new Product(null, 10, 5, "NORMAL", "Cable", null, null, null);
-        Product seasonalProduct = new Product(null, 20, 3, "SEASONAL", "Melon", null,
+        ProductMetadata normalProduct = new ProductMetadata(1L, ProductType.NORMAL, "Cable", 10, null, null, null);
+        ProductMetadata seasonalProduct = new ProductMetadata(2L, ProductType.SEASONAL, "Melon", 20, null,
                 now.minusDays(5), now.plusDays(20));
-        Product expirableProduct = new Product(null, 15, 2, "EXPIRABLE", "Milk",
-                now.plusDays(10), null, null);
+        ProductMetadata expirableProduct = new ProductMetadata(3L, ProductType.EXPIRABLE, "Milk", 15, now.plusDays(10),
+                null, null);
+        givenOrder(orderId, normalProduct, seasonalProduct, expirableProduct);
 
-        Set<Product> products = new HashSet<>();
-        products.add(normalProduct);
-        products.add(seasonalProduct);
-        products.add(expirableProduct);
+        
+        Order result = service.processOrder(orderId);
 
-        Order order = new Order();
-        order.setId(orderId);
-        order.setItems(products);
+        
+        assertNotNull(result);
+        verify(normalStrategy, times(1)).process(eq(normalProduct), any(ProcessingContext.class));
+        verify(seasonalStrategy, times(1)).process(eq(seasonalProduct), any(ProcessingContext.class));
+        verify(expirableStrategy, times(1)).process(eq(expirableProduct), any(ProcessingContext.class));
+        verify(productMetadataCache, times(1)).getAll(Set.of(1L, 2L, 3L));
+        assertEquals(1, meterRegistry.get("orders.processing").tag("mode", "single").timer().count());
+        assertEquals(1, meterRegistry.get("orders.items.processed")
+                .tags("type", "SEASONAL", "outcome", "decremented").counter().count());
+    }
 
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+    @Test
+    @DisplayName("Should handle empty order")
+    void shouldHandleEmptyOrder() {
+        
+        Long orderId = 6L;
+        givenOrder(orderId);
 
         
         Order result = service.processOrder(orderId);
 
         
         assertNotNull(result);
-        verify(normalStrategy, times(1)).process(normalProduct);
-        verify(seasonalStrategy, times(1)).process(seasonalProduct);
-        verify(expirableStrategy, times(1)).process(expirableProduct);
+        verify(normalStrategy, never()).process(any(), any());
+        verify(seasonalStrategy, never()).process(any(), any());
+        verify(expirableStrategy, never()).process(any(), any());
     }
 
     @Test
-    @DisplayName("Should throw IllegalArgumentException when strategy not found for product type")
-    void shouldThrowIllegalArgumentExceptionWhenStrategyNotFound() {
-        
-        Long orderId = 5L;
-        Product unknownProduct = new Product(null, 10, 5, "UNKNOWN", "Mystery", null, null, null);
-        Set<Product> products = new HashSet<>();
-        products.add(unknownProduct);
+    @DisplayName("Should process every order of a batch in the requested sequence")
+    void shouldProcessBatchInRequestedSequence() {
+        ProductMetadata cable = new ProductMetadata(1L, ProductType.NORMAL, "Cable", 10, null, null, null);
+        ProductMetadata milk = new ProductMetadata(2L, ProductType.EXPIRABLE, "Milk", 15, LocalDate.now().plusDays(10),
+                null, null);
+        Order first = order(10L);
+        Order second = order(20L);
+        givenBatch(Map.of(1L, 5, 2L, 2), List.of(cable, milk),
+                new OrderItemRef(second, milk.id()), new OrderItemRef(first, cable.id()));
+
+        List<Order> result = service.processOrders(List.of(10L, 20L));
+
+        assertEquals(List.of(first, second), result);
+        var inOrder = inOrder(normalStrategy, expirableStrategy);
+        inOrder.verify(normalStrategy).process(eq(cable), any(ProcessingContext.class));
+        inOrder.verify(expirableStrategy).process(eq(milk), any(ProcessingContext.class));
+        verify(productStockRepository, times(1)).decrementAll(anyMap());
+        verifyNoInteractions(immediateStockGateway);
+    }
 
-        Order order = new Order();
-        order.setId(orderId);
-        order.setItems(products);
+    @Test
+    @DisplayName("Should share deferred stock across the orders of a batch and write it once")
+    void shouldShareDeferredStockAcrossBatch() {
+        ProductMetadata cable = new ProductMetadata(1L, ProductType.NORMAL, "Cable", 10, null, null, null);
+        Order first = order(10L);
+        Order second = order(20L);
+        givenBatch(Map.of(1L, 1), List.of(cable),
+                new OrderItemRef(first, cable.id()), new OrderItemRef(second, cable.id()));
+        List<Boolean> decremented = new ArrayList<>();
+        doAnswer(invocation -> {
+            decremented.add(invocation.<ProcessingContext>getArgument(1).stock().tryDecrement(cable));
+            return ProcessingOutcome.DECREMENTED;
+        }).when(normalStrategy).process(eq(cable), any(ProcessingContext.class));
+
+        service.processOrders(List.of(10L, 20L));
+
+        assertEquals(List.of(true, false), decremented);
+        verify(productStockRepository, times(1)).decrementAll(Map.of(1L, 1));
+    }
 
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+    @Test
+    @DisplayName("Should reject the whole batch when one order does not exist")
+    void shouldRejectBatchWhenOrderMissing() {
+        when(orderRepository.findItemRefsByOrderIdIn(anyCollection()))
+                .thenReturn(List.of(new OrderItemRef(order(10L), 1L)));
+
+        assertThrows(OrderNotFoundException.class, () -> service.processOrders(List.of(10L, 99L)));
+        verify(normalStrategy, never()).process(any(), any());
+        verifyNoInteractions(productStockRepository, productMetadataCache);
+    }
 
-        assertThrows(IllegalArgumentException.class, () -> service.processOrder(orderId));
+    @Test
+    @DisplayName("Should hand the notifications of the run to the outbox instead of sending them")
+    void shouldPublishRunNotificationsThroughOutbox() {
+        ProductMetadata dongle = new ProductMetadata(1L, ProductType.NORMAL, "Dongle", 15, null, null, null);
+        givenOrder(7L, dongle);
+        when(normalStrategy.process(eq(dongle), any(ProcessingContext.class))).thenAnswer(invocation -> {
+            invocation.<ProcessingContext>getArgument(1).enqueue(NotificationEvent.delay(15, "Dongle"));
+            return ProcessingOutcome.DELAYED;
+        });
+
+        service.processOrder(7L);
+
+        verify(notificationOutbox, times(1)).publishAfterCommit(List.of(NotificationEvent.delay(15, "Dongle")));
     }
 
     @Test
-    @DisplayName("Should handle empty order")
-    void shouldHandleEmptyOrder() {
-        
-        Long orderId = 6L;
-        Order order = new Order();
-        order.setId(orderId);
-        order.setItems(new HashSet<>());
+    @DisplayName("Should process again only the items of products changed concurrently, from their fresh stock")
+    void shouldRetryOnlyConflictingItems() {
+        ProductMetadata cable = new ProductMetadata(1L, ProductType.NORMAL, "Cable", 10, null, null, null);
+        ProductMetadata dongle = new ProductMetadata(2L, ProductType.NORMAL, "Dongle", 10, null, null, null);
+        givenOrder(7L, cable, dongle, cable);
+        when(productStockRepository.findStock(anyCollection()))
+                .thenReturn(Map.of(1L, new StockVersion(5, 1), 2L, new StockVersion(5, 1)))
+                .thenReturn(Map.of(1L, new StockVersion(1, 2)));
+        when(productStockRepository.compareAndSetAll(anyMap())).thenReturn(Set.of(1L)).thenReturn(Set.of());
+        doAnswer(invocation -> {
+            ProductMetadata product = invocation.getArgument(0);
+            ProcessingContext context = invocation.getArgument(1);
+            if (context.stock().tryDecrement(product)) {
+                return ProcessingOutcome.DECREMENTED;
+            }
+            context.enqueue(NotificationEvent.outOfStock(product.name()));
+            return ProcessingOutcome.OUT_OF_STOCK;
+        }).when(normalStrategy).process(any(), any(ProcessingContext.class));
+        var metrics = new OrderProcessingMetrics(meterRegistry);
+        var optimistic = new OrderProcessingService(orderRepository, productMetadataCache,
+                new ProductStrategyRegistry(List.of(normalStrategy, seasonalStrategy, expirableStrategy)),
+                new SequentialItemProcessor(), new OptimisticStockEngine(productStockRepository, metrics),
+                new StockRetryPolicy(3, Duration.ZERO, Duration.ZERO, metrics), notificationOutbox,
+                new ProductStockLevels(), metrics, Clock.systemDefaultZone());
+
+        optimistic.processOrder(7L);
+
+        verify(normalStrategy, times(4)).process(eq(cable), any(ProcessingContext.class));
+        verify(normalStrategy, times(1)).process(eq(dongle), any(ProcessingContext.class));
+        var inOrder = inOrder(productStockRepository);
+        inOrder.verify(productStockRepository).compareAndSetAll(
+                Map.of(1L, new StockVersion(3, 1), 2L, new StockVersion(4, 1)));
+        inOrder.verify(productStockRepository).compareAndSetAll(Map.of(1L, new StockVersion(0, 2)));
+        verify(notificationOutbox).publishAfterCommit(List.of(NotificationEvent.outOfStock("Cable")));
+        assertEquals(2.0, meterRegistry.get("orders.items.processed").tag("outcome", "decremented").counter().count());
+        assertEquals(1.0, meterRegistry.get("stock.conflict.retries").tag("outcome", "resolved").counter().count());
+        assertEquals(1.0, meterRegistry.get("stock.versioned.writes").tag("result", "conflict").counter().count());
+    }
 
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+    @Test
+    @DisplayName("Should process every item of a run as of the day the run started, even across midnight")
+    void shouldProcessRunAsOfOneDay() {
+        var zone = ZoneOffset.UTC;
+        var start = LocalDate.of(2024, 6, 1).atTime(23, 59).toInstant(zone);
+        var reads = new int[1];
+        var clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return zone;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Instant instant() {
+                return start.plus(Duration.ofMinutes(reads[0]++));
+            }
+        };
+        var metrics = new OrderProcessingMetrics(meterRegistry);
+        var dated = new OrderProcessingService(orderRepository, productMetadataCache,
+                new ProductStrategyRegistry(List.of(normalStrategy, seasonalStrategy, expirableStrategy)),
+                new SequentialItemProcessor(),
+                new DatabaseStockEngine(immediateStockGateway, productStockRepository, metrics),
+                new StockRetryPolicy(3, Duration.ZERO, Duration.ZERO, metrics), notificationOutbox,
+                new ProductStockLevels(), metrics, clock);
+        ProductMetadata cable = new ProductMetadata(1L, ProductType.NORMAL, "Cable", 10, null, null, null);
+        ProductMetadata dongle = new ProductMetadata(2L, ProductType.NORMAL, "Dongle", 10, null, null, null);
+        givenOrder(7L, cable, dongle, cable);
+        List<LocalDate> days = new ArrayList<>();
+        doAnswer(invocation -> {
+            days.add(invocation.<ProcessingContext>getArgument(1).today());
+            clock.instant();
+            return ProcessingOutcome.DECREMENTED;
+        }).when(normalStrategy).process(any(), any(ProcessingContext.class));
+
+        dated.processOrder(7L);
+
+        assertEquals(Collections.nCopies(3, LocalDate.of(2024, 6, 1)), days);
+    }
 
-        
-        Order result = service.processOrder(orderId);
+    private void givenOrder(Long orderId, ProductMetadata... products) {
+        Order order = order(orderId);
+        List<OrderItemRef> itemRefs = products.length == 0
+                ? List.of(new OrderItemRef(order, null))
+                : Arrays.stream(products).map(product -> new OrderItemRef(order, product.id())).toList();
+        when(orderRepository.findItemRefsByOrderIdIn(List.of(orderId))).thenReturn(itemRefs);
+        lenient().when(productMetadataCache.getAll(anyCollection())).thenReturn(byId(List.of(products)));
+    }
 
-        
-        assertNotNull(result);
-        verifyNoInteractions(normalStrategy, seasonalStrategy, expirableStrategy);
+    private void givenBatch(Map<Long, Integer> available, List<ProductMetadata> products, OrderItemRef... itemRefs) {
+        when(orderRepository.findItemRefsByOrderIdIn(anyCollection())).thenReturn(List.of(itemRefs));
+        when(productMetadataCache.getAll(anyCollection())).thenReturn(byId(products));
+        when(productStockRepository.findAvailable(anyCollection())).thenReturn(available);
+    }
+
+    private static Map<Long, ProductMetadata> byId(List<ProductMetadata> products) {
+        return products.stream().collect(Collectors.toMap(ProductMetadata::id, Function.identity(), (first, same) -> first));
+    }
+
+    private static Order order(Long orderId) {
+        Order order = new Order();
+        order.setId(orderId);
+        return order;
     }
-}
\ No newline at end of file
+}
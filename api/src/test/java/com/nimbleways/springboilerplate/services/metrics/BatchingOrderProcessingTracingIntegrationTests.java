@@ -0,0 +1,18 @@
+package com.nimbleways.springboilerplate.services.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * The tracing tests with notifications sent by the batching dispatcher, as configured in production: the calls it
+ * makes after the order has been processed must still be in the order's trace.
+ */
+@SpringBootTest(properties = {
+        "orders.tracing.slow-threshold=0ms",
+        "logging.level.com.nimbleways.springboilerplate.services.metrics.ProcessingTracer=WARN",
+        "notifications.dispatch.mode=batching",
+        "notifications.dispatch.window=20ms"
+})
+@DisplayName("Order Processing Tracing Integration Tests with batched notifications")
+class BatchingOrderProcessingTracingIntegrationTests extends OrderProcessingTracingIntegrationTests {
+}
@@ -0,0 +1,69 @@
+package com.nimbleways.springboilerplate.services.metrics;
+
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics.ReplaySource;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics.ReservationStep;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Order Processing Metrics Tests")
+class OrderProcessingMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private OrderProcessingMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new OrderProcessingMetrics(registry);
+    }
+
+    @Test
+    @DisplayName("Should count items by product type and outcome")
+    void shouldCountItemsByTypeAndOutcome() {
+        metrics.recordItem(ProductType.NORMAL, ProcessingOutcome.DECREMENTED);
+        metrics.recordItem(ProductType.NORMAL, ProcessingOutcome.DECREMENTED);
+        metrics.recordItem(ProductType.SEASONAL, ProcessingOutcome.OUT_OF_STOCK);
+
+        assertEquals(2, itemCount("NORMAL", "decremented"));
+        assertEquals(0, itemCount("NORMAL", "delayed"));
+        assertEquals(1, itemCount("SEASONAL", "out_of_stock"));
+    }
+
+    @Test
+    @DisplayName("Should time single orders and batches separately")
+    void shouldTimeOrdersAndBatches() {
+        metrics.recordOrder(metrics.startTimer());
+        metrics.recordBatch(metrics.startTimer(), 25);
+
+        assertEquals(1, registry.get("orders.processing").tag("mode", "single").timer().count());
+        assertEquals(1, registry.get("orders.processing").tag("mode", "batch").timer().count());
+        assertEquals(25, registry.get("orders.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should count replays, reservation steps and ingested orders on meters registered up front")
+    void shouldCountOnPreRegisteredMeters() {
+        assertEquals(0, registry.get("orders.replayed").tag("source", "cache").counter().count());
+        assertEquals(0, registry.get("stock.reservations").tag("outcome", "expired").counter().count());
+
+        metrics.recordReplay(ReplaySource.CACHE);
+        metrics.recordReservations(ReservationStep.APPLIED, 3);
+        metrics.recordIngestedOrders(5, true);
+
+        assertEquals(1, registry.get("orders.replayed").tag("source", "cache").counter().count());
+        assertEquals(3, registry.get("stock.reservations").tag("outcome", "applied").counter().count());
+        assertEquals(5, registry.get("orders.ingested").tag("mode", "processed").counter().count());
+        assertEquals(0, registry.get("orders.ingested").tag("mode", "created").counter().count());
+    }
+
+    private double itemCount(String type, String outcome) {
+        return registry.get("orders.items.processed").tags("type", type, "outcome", outcome).counter().count();
+    }
+}
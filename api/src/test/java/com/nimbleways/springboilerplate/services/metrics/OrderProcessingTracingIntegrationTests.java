@@ -0,0 +1,112 @@
+package com.nimbleways.springboilerplate.services.metrics;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.IdempotentOrderProcessor;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.utils.StaticLogbackAppender;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "orders.tracing.slow-threshold=0ms",
+        "logging.level.com.nimbleways.springboilerplate.services.metrics.ProcessingTracer=WARN"
+})
+@DisplayName("Order Processing Tracing Integration Tests")
+class OrderProcessingTracingIntegrationTests {
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private IdempotentOrderProcessor idempotentOrderProcessor;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        StaticLogbackAppender.clearEvents();
+    }
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        StaticLogbackAppender.clearEvents();
+    }
+
+    @Test
+    @DisplayName("Should trace the connection wait, strategy and notification calls of a processOrder call")
+    void shouldTraceProcessOrder() throws InterruptedException {
+        Product inStock = productRepository.save(new Product(null, 10, 5, ProductType.NORMAL, "Cable", null, null, null));
+        Product outOfStock = productRepository.save(new Product(null, 15, 0, ProductType.NORMAL, "Dongle", null, null, null));
+        Order order = new Order();
+        order.setItems(Set.of(inStock, outOfStock));
+        Long orderId = orderRepository.save(order).getId();
+        long connectionWaits = phase("connection_wait").count();
+
+        idempotentOrderProcessor.processOrder(orderId);
+
+        var traces = awaitTraces(orderId);
+        assertEquals(connectionWaits + 1, phase("connection_wait").count());
+        assertTrue(phase("transaction").max(TimeUnit.NANOSECONDS) > 0);
+        assertEquals(1, traces.size());
+        assertTrue(traces.get(0).contains("connections=1 "), traces.get(0));
+        assertTrue(traces.get(0).contains("strategyCalls=[NORMAL:2/"), traces.get(0));
+        assertTrue(traces.get(0).contains("notificationCalls=[delay:1/"), traces.get(0));
+    }
+
+    @Test
+    @DisplayName("Should expose the gauges of the connection pool")
+    void shouldExposePoolGauges() {
+        assertNotNull(registry.find("hikaricp.connections.active").gauge());
+        assertNotNull(registry.find("hikaricp.connections.pending").gauge());
+        assertNotNull(registry.find("hikaricp.connections.acquire").timer());
+    }
+
+    /**
+     * Waits for the trace of the order to be recorded and logged, which batched notifications defer until they are
+     * sent.
+     */
+    private static List<String> awaitTraces(Long orderId) throws InterruptedException {
+        List<String> traces = List.of();
+        for (int i = 0; i < 100 && traces.isEmpty(); i++) {
+            if (i > 0) {
+                Thread.sleep(50);
+            }
+            traces = StaticLogbackAppender.getEvents().stream()
+                    .map(event -> event.getFormattedMessage())
+                    .filter(message -> message.contains("orderId=" + orderId + " "))
+                    .toList();
+        }
+        return traces;
+    }
+
+    private io.micrometer.core.instrument.Timer phase(String phase) {
+        return registry.get("orders.processing.phase").tag("phase", phase).timer();
+    }
+}
@@ -0,0 +1,28 @@
+package com.nimbleways.springboilerplate.services.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * The tracing scenarios against Postgres, skipped where no Docker daemon is available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Order Processing Tracing Integration Tests on Postgres")
+class PostgresOrderProcessingTracingIntegrationTests extends OrderProcessingTracingIntegrationTests {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry properties) {
+        properties.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        properties.add("spring.datasource.username", POSTGRES::getUsername);
+        properties.add("spring.datasource.password", POSTGRES::getPassword);
+        properties.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+        properties.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQL10Dialect");
+    }
+}
@@ -0,0 +1,102 @@
+package com.nimbleways.springboilerplate.services.metrics;
+
+import com.nimbleways.springboilerplate.config.OrderTracingProperties;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.utils.StaticLogbackAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Processing Tracer Tests")
+class ProcessingTracerTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        StaticLogbackAppender.clearEvents();
+    }
+
+    @AfterEach
+    void tearDown() {
+        StaticLogbackAppender.clearEvents();
+    }
+
+    @Test
+    @DisplayName("Should record every phase of a call and log its trace when it is slow")
+    void shouldRecordPhasesAndLogSlowCalls() {
+        var tracer = new ProcessingTracer(new OrderTracingProperties(Duration.ZERO), registry);
+
+        var trace = tracer.start(7L);
+        trace.recordConnectionWait(TimeUnit.MILLISECONDS.toNanos(3));
+        trace.transactionStarted();
+        ProcessingTrace.current().recordStrategyCall(ProductType.NORMAL, TimeUnit.MILLISECONDS.toNanos(2));
+        ProcessingTrace.current().recordStrategyCall(ProductType.NORMAL, TimeUnit.MILLISECONDS.toNanos(4));
+        ProcessingTrace.current().recordNotificationCall(NotificationEvent.Kind.DELAY, TimeUnit.MILLISECONDS.toNanos(5));
+        tracer.finish(trace);
+
+        assertNull(ProcessingTrace.current());
+        assertEquals(3, phase("connection_wait").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(6, phase("strategies").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(5, phase("notifications").totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, phase("transaction").count());
+
+        var events = StaticLogbackAppender.getEvents();
+        assertEquals(1, events.size());
+        var message = events.get(0).getFormattedMessage();
+        assertTrue(message.contains("orderId=7 "), message);
+        assertTrue(message.contains("connectionWaitUs=3000 connections=1"), message);
+        assertTrue(message.contains("strategyCalls=[NORMAL:2/6000/4000]"), message);
+        assertTrue(message.contains("notificationCalls=[delay:1/5000/5000]"), message);
+    }
+
+    @Test
+    @DisplayName("Should not log calls faster than the threshold")
+    void shouldNotLogFastCalls() {
+        var tracer = new ProcessingTracer(new OrderTracingProperties(Duration.ofHours(1)), registry);
+
+        tracer.finish(tracer.start(7L));
+
+        assertEquals(1, phase("transaction").count());
+        assertEquals(0, phase("transaction").totalTime(TimeUnit.NANOSECONDS));
+        assertTrue(StaticLogbackAppender.getEvents().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should expose the trace of a call to the workers it runs tasks on")
+    void shouldPropagateTraceToWorkers() throws Exception {
+        var tracer = new ProcessingTracer(new OrderTracingProperties(Duration.ofHours(1)), registry);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var trace = tracer.start(7L);
+            var seen = executor.submit(() -> {
+                var within = new ProcessingTrace[1];
+                ProcessingTrace.runWithin(trace, () -> within[0] = ProcessingTrace.current());
+                return new ProcessingTrace[] {within[0], ProcessingTrace.current()};
+            }).get(5, TimeUnit.SECONDS);
+            tracer.finish(trace);
+
+            assertSame(trace, seen[0]);
+            assertNull(seen[1]);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private io.micrometer.core.instrument.Timer phase(String phase) {
+        return registry.get("orders.processing.phase").tag("phase", phase).timer();
+    }
+}
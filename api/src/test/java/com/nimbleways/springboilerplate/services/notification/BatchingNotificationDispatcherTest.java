@@ -0,0 +1,185 @@
+package com.nimbleways.springboilerplate.services.notification;
+
+import com.nimbleways.springboilerplate.config.NotificationDispatchProperties;
+import com.nimbleways.springboilerplate.config.OrderTracingProperties;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.services.metrics.ProcessingTracer;
+import com.nimbleways.springboilerplate.utils.StaticLogbackAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Batching Notification Dispatcher Tests")
+class BatchingNotificationDispatcherTest {
+
+    private static final ThreadFactory DISPATCHER_THREADS = runnable -> new Thread(runnable, "notification-dispatcher");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ProcessingTracer tracer = new ProcessingTracer(new OrderTracingProperties(Duration.ZERO), registry);
+
+    private BatchingNotificationDispatcher dispatcher;
+
+    @AfterEach
+    void cleanup() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+        StaticLogbackAppender.clearEvents();
+    }
+
+    @Test
+    @DisplayName("Should send one notification per distinct event within a window")
+    void shouldCoalesceDuplicatesWithinWindow() {
+        var sink = new RecordingSink(0);
+        dispatcher = new BatchingNotificationDispatcher(sink, tracer, properties(100), DISPATCHER_THREADS, registry);
+        dispatcher.start();
+        var delay = NotificationEvent.delay(10, "Cable");
+        var expiration = NotificationEvent.expiration("Milk", LocalDate.of(2024, 1, 1));
+
+        dispatcher.dispatch(List.of(delay, delay, expiration));
+        dispatcher.dispatch(List.of(delay));
+        dispatcher.stop();
+
+        assertEquals(List.of(delay, expiration), sink.sent);
+        assertEquals(2, registry.get("notifications.coalesced").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should record a send in the trace of every order that dispatched it, once it is sent")
+    void shouldRecordSendsInTracesOfDispatchingOrders() {
+        var sink = new RecordingSink(0);
+        dispatcher = new BatchingNotificationDispatcher(sink, tracer, properties(100), DISPATCHER_THREADS, registry);
+        var delay = NotificationEvent.delay(10, "Cable");
+        StaticLogbackAppender.clearEvents();
+
+        for (long orderId = 1; orderId <= 2; orderId++) {
+            var trace = tracer.start(orderId);
+            dispatcher.dispatch(List.of(delay));
+            tracer.finish(trace);
+        }
+        assertEquals(0, notificationsPhase().count());
+
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(List.of(delay), sink.sent);
+        assertEquals(2, notificationsPhase().count());
+        var traces = StaticLogbackAppender.getEvents().stream().map(event -> event.getFormattedMessage()).toList();
+        assertEquals(2, traces.size());
+        for (var trace : traces) {
+            assertTrue(trace.contains("notificationCalls=[delay:1/"), trace);
+        }
+    }
+
+    @Test
+    @DisplayName("Should retry a failing sink and count the retries")
+    void shouldRetryFailedSends() {
+        var sink = new RecordingSink(2);
+        dispatcher = new BatchingNotificationDispatcher(sink, tracer, properties(100), DISPATCHER_THREADS, registry);
+        dispatcher.start();
+        var outOfStock = NotificationEvent.outOfStock("Grapes");
+
+        dispatcher.dispatch(List.of(outOfStock));
+        dispatcher.stop();
+
+        assertEquals(List.of(outOfStock), sink.sent);
+        assertEquals(2, registry.get("notifications.retries").counter().count());
+        assertEquals(0, registry.get("notifications.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should drop events once the queue stays full")
+    void shouldDropWhenQueueFull() {
+        var sink = new RecordingSink(0);
+        dispatcher = new BatchingNotificationDispatcher(sink, tracer, properties(1), DISPATCHER_THREADS, registry);
+
+        dispatcher.dispatch(List.of(NotificationEvent.outOfStock("Grapes"), NotificationEvent.outOfStock("Plum")));
+
+        assertEquals(1, registry.get("notifications.enqueued").counter().count());
+        assertEquals(1, registry.get("notifications.dropped").counter().count());
+        assertEquals(1, registry.get("notifications.queue.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should wait at most one offer timeout for a whole list while the queue stays full")
+    void shouldBoundWaitPerList() {
+        var sink = new RecordingSink(0);
+        dispatcher = new BatchingNotificationDispatcher(sink, tracer, properties(1, Duration.ofMillis(50)),
+                DISPATCHER_THREADS, registry);
+        var events = new ArrayList<NotificationEvent>();
+        for (int i = 0; i < 20; i++) {
+            events.add(NotificationEvent.outOfStock("Product " + i));
+        }
+
+        long start = System.nanoTime();
+        dispatcher.dispatch(events);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 500, "dispatch blocked for " + elapsedMillis + " ms");
+        assertEquals(1, registry.get("notifications.enqueued").counter().count());
+        assertEquals(19, registry.get("notifications.dropped").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should count every event not queued when interrupted")
+    void shouldCountRestAsDroppedWhenInterrupted() {
+        var sink = new RecordingSink(0);
+        dispatcher = new BatchingNotificationDispatcher(sink, tracer, properties(1, Duration.ofSeconds(10)),
+                DISPATCHER_THREADS, registry);
+
+        Thread.currentThread().interrupt();
+        try {
+            dispatcher.dispatch(List.of(NotificationEvent.outOfStock("Grapes"), NotificationEvent.outOfStock("Plum"),
+                    NotificationEvent.outOfStock("Pear")));
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+
+        assertEquals(0, registry.get("notifications.enqueued").counter().count());
+        assertEquals(3, registry.get("notifications.dropped").counter().count());
+    }
+
+    private io.micrometer.core.instrument.Timer notificationsPhase() {
+        return registry.get("orders.processing.phase").tag("phase", "notifications").timer();
+    }
+
+    private static NotificationDispatchProperties properties(int capacity) {
+        return properties(capacity, Duration.ofMillis(1));
+    }
+
+    private static NotificationDispatchProperties properties(int capacity, Duration offerTimeout) {
+        return new NotificationDispatchProperties(NotificationDispatchProperties.Mode.BATCHING, capacity,
+                Duration.ofMillis(50), offerTimeout, 3, Duration.ofMillis(1));
+    }
+
+    private static final class RecordingSink implements NotificationSink {
+
+        private final List<NotificationEvent> sent = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failuresLeft;
+
+        private RecordingSink(int failures) {
+            this.failuresLeft = new AtomicInteger(failures);
+        }
+
+        @Override
+        public void send(NotificationEvent event) {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("notification backend unavailable");
+            }
+            sent.add(event);
+        }
+    }
+}
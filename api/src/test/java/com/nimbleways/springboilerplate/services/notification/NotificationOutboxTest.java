@@ -0,0 +1,69 @@
+package com.nimbleways.springboilerplate.services.notification;
+
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Notification Outbox Tests")
+class NotificationOutboxTest {
+
+    private static final List<NotificationEvent> EVENTS = List.of(NotificationEvent.outOfStock("Grapes"));
+
+    @Mock
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should dispatch only after the transaction commits")
+    void shouldDispatchAfterCommit() {
+        var outbox = new NotificationOutbox(dispatcher);
+        TransactionSynchronizationManager.initSynchronization();
+
+        outbox.publishAfterCommit(new ArrayList<>(EVENTS));
+
+        verifyNoInteractions(dispatcher);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(dispatcher, times(1)).dispatch(EVENTS);
+    }
+
+    @Test
+    @DisplayName("Should never dispatch when the transaction rolls back")
+    void shouldDiscardOnRollback() {
+        var outbox = new NotificationOutbox(dispatcher);
+        TransactionSynchronizationManager.initSynchronization();
+
+        outbox.publishAfterCommit(EVENTS);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verifyNoInteractions(dispatcher);
+    }
+
+    @Test
+    @DisplayName("Should dispatch right away outside of a transaction")
+    void shouldDispatchImmediatelyWithoutTransaction() {
+        var outbox = new NotificationOutbox(dispatcher);
+
+        outbox.publishAfterCommit(EVENTS);
+
+        verify(dispatcher, times(1)).dispatch(EVENTS);
+    }
+}
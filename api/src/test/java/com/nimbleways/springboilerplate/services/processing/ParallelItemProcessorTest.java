@@ -0,0 +1,103 @@
+package com.nimbleways.springboilerplate.services.processing;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
+import com.nimbleways.springboilerplate.services.catalog.ProductAvailabilityIndex;
+import com.nimbleways.springboilerplate.services.stock.DeferredStockGateway;
+import com.nimbleways.springboilerplate.services.strategy.ExpirableProductStrategy;
+import com.nimbleways.springboilerplate.services.strategy.NormalProductStrategy;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+import com.nimbleways.springboilerplate.services.strategy.SeasonalProductStrategy;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.lifecycle.AfterContainer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Label("Parallel Item Processor Tests")
+class ParallelItemProcessorTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 1);
+    private static final ProductAvailabilityIndex AVAILABILITY = new ProductAvailabilityIndex();
+    private static final ProductStrategyRegistry STRATEGIES = new ProductStrategyRegistry(List.of(
+            new NormalProductStrategy(), new SeasonalProductStrategy(AVAILABILITY),
+            new ExpirableProductStrategy(AVAILABILITY)));
+    private static final SequentialItemProcessor SEQUENTIAL = new SequentialItemProcessor();
+    private static final ParallelItemProcessor PARALLEL =
+            new ParallelItemProcessor(4, 2, Executors.defaultThreadFactory());
+
+    @AfterContainer
+    static void shutdown() {
+        PARALLEL.close();
+    }
+
+    @Property(tries = 300)
+    @Label("Should produce the outcomes, notifications and stock writes of sequential processing")
+    void shouldMatchSequentialProcessing(@ForAll("runs") Run run) {
+        var sequential = process(SEQUENTIAL, run);
+        var parallel = process(PARALLEL, run);
+
+        assertEquals(sequential, parallel);
+    }
+
+    private static Result process(ItemProcessor processor, Run run) {
+        var writes = new ArrayList<Map<Long, Integer>>();
+        var stock = new DeferredStockGateway(run.available().keySet(), productIds -> run.available(), decrements -> {
+            writes.add(decrements);
+            return Set.of();
+        });
+        var context = new ProcessingContext(stock, TODAY);
+
+        var items = processor.process(run.items(), context, STRATEGIES);
+        stock.complete();
+
+        return new Result(items, writes);
+    }
+
+    @Provide
+    Arbitrary<Run> runs() {
+        return product().list().uniqueElements(ProductMetadata::id).ofMinSize(1).ofMaxSize(20).flatMap(catalog -> Combinators.combine(
+                        Arbitraries.integers().between(0, catalog.size() - 1).list().ofMaxSize(200),
+                        Arbitraries.integers().between(0, 3).list().ofSize(catalog.size()))
+                .as((items, stock) -> {
+                    var available = new HashMap<Long, Integer>();
+                    for (int i = 0; i < catalog.size(); i++) {
+                        available.put(catalog.get(i).id(), stock.get(i));
+                    }
+                    return new Run(items.stream().map(catalog::get).toList(), available);
+                }));
+    }
+
+    private static Arbitrary<ProductMetadata> product() {
+        return Combinators.combine(
+                        Arbitraries.longs().between(1, 1_000),
+                        Arbitraries.of(ProductType.class),
+                        Arbitraries.integers().between(1, 30),
+                        Arbitraries.integers().between(-5, 5),
+                        Arbitraries.integers().between(-40, 10),
+                        Arbitraries.integers().between(0, 40))
+                .as((id, type, leadTime, expiry, seasonStart, seasonLength) -> new ProductMetadata(id, type,
+                        "Product " + id, leadTime, TODAY.plusDays(expiry), TODAY.plusDays(seasonStart),
+                        TODAY.plusDays(seasonStart + seasonLength)));
+    }
+
+    record Run(List<ProductMetadata> items, Map<Long, Integer> available) {
+    }
+
+    record Result(List<ItemResult> items, List<Map<Long, Integer>> writes) {
+    }
+}
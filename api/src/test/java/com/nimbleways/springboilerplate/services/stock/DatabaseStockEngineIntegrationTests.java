@@ -0,0 +1,77 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.stock.RetryableStockGateway;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.exceptions.StockConflictException;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DisplayName("Database Stock Engine Integration Tests")
+class DatabaseStockEngineIntegrationTests {
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private DatabaseStockEngine databaseStockEngine;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should write the batch decrements still covered and report only the products short, until reloaded")
+    void shouldReportOnlyShortProducts() {
+        Product cable = productRepository.save(new Product(null, 10, 2, ProductType.NORMAL, "Cable", null, null, null));
+        Product dongle = productRepository.save(new Product(null, 10, 5, ProductType.NORMAL, "Dongle", null, null, null));
+        var transaction = new TransactionTemplate(transactionManager);
+        var concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transaction.executeWithoutResult(status -> {
+            var stock = (RetryableStockGateway) databaseStockEngine.forBatch(List.of(cable.getId(), dongle.getId()));
+            assertTrue(stock.tryDecrement(ProductMetadata.of(cable)));
+            assertTrue(stock.tryDecrement(ProductMetadata.of(cable)));
+            assertTrue(stock.tryDecrement(ProductMetadata.of(dongle)));
+            concurrent.executeWithoutResult(inner -> productRepository.decrementAvailable(cable.getId()));
+
+            var error = assertThrows(StockConflictException.class, stock::complete);
+            assertEquals(Set.of(cable.getId()), error.getProductIds());
+
+            stock.reload(error.getProductIds());
+            assertTrue(stock.tryDecrement(ProductMetadata.of(cable)));
+            assertFalse(stock.tryDecrement(ProductMetadata.of(cable)));
+            stock.complete();
+        });
+
+        assertEquals(0, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+        assertEquals(4, productRepository.findById(dongle.getId()).orElseThrow().getAvailable());
+    }
+}
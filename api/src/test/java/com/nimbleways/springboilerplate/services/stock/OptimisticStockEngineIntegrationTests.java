@@ -0,0 +1,114 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.stock.RetryableStockGateway;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.exceptions.StockConflictException;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.services.implementations.OrderProcessingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "stock.writes=optimistic")
+@DisplayName("Optimistic Stock Engine Integration Tests")
+class OptimisticStockEngineIntegrationTests {
+
+    private static final int ITEMS = 120;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private OptimisticStockEngine optimisticStockEngine;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should write the stock of every product of an order as a new version")
+    void shouldWriteStockAsNewVersions() {
+        List<Product> products = givenProducts(ITEMS);
+        Order order = new Order();
+        order.setItems(new HashSet<>(products));
+        order = orderRepository.save(order);
+
+        orderProcessingService.processOrder(order.getId());
+
+        for (Product product : products) {
+            Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+            assertEquals(4, reloaded.getAvailable());
+            assertEquals(product.getVersion() + 1, reloaded.getVersion());
+        }
+    }
+
+    @Test
+    @DisplayName("Should write unchanged products and report only those written concurrently, until reloaded")
+    void shouldReportOnlyConflictingProducts() {
+        List<Product> products = givenProducts(2);
+        Product cable = products.get(0);
+        Product dongle = products.get(1);
+        var transaction = new TransactionTemplate(transactionManager);
+        var concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transaction.executeWithoutResult(status -> {
+            var stock = (RetryableStockGateway) optimisticStockEngine.forOrder(List.of(cable.getId(), dongle.getId()));
+            assertTrue(stock.tryDecrement(ProductMetadata.of(cable)));
+            assertTrue(stock.tryDecrement(ProductMetadata.of(dongle)));
+            concurrent.executeWithoutResult(inner -> productRepository.decrementAvailable(cable.getId()));
+
+            var error = assertThrows(StockConflictException.class, stock::complete);
+            assertEquals(Set.of(cable.getId()), error.getProductIds());
+
+            stock.reload(error.getProductIds());
+            assertTrue(stock.tryDecrement(ProductMetadata.of(cable)));
+            stock.complete();
+        });
+
+        assertEquals(3, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+        assertEquals(4, productRepository.findById(dongle.getId()).orElseThrow().getAvailable());
+    }
+
+    private List<Product> givenProducts(int count) {
+        var products = new ArrayList<Product>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(new Product(null, 10, 5, ProductType.NORMAL, "Product " + i, null, null, null));
+        }
+        return productRepository.saveAll(products);
+    }
+}
@@ -0,0 +1,107 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.stock.RetryableStockGateway;
+import com.nimbleways.springboilerplate.domain.stock.StockGateway;
+import com.nimbleways.springboilerplate.exceptions.StockConflictException;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Stock Retry Policy Tests")
+class StockRetryPolicyTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderProcessingMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new OrderProcessingMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should draw pauses below an exponential backoff that stops growing at the cap")
+    void shouldBoundBackoff() {
+        var policy = new StockRetryPolicy(10, Duration.ofMillis(5), Duration.ofMillis(30), metrics);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(policy.backoffNanos(1) <= Duration.ofMillis(5).toNanos());
+            assertTrue(policy.backoffNanos(2) <= Duration.ofMillis(10).toNanos());
+            assertTrue(policy.backoffNanos(9) <= Duration.ofMillis(30).toNanos());
+            assertTrue(policy.backoffNanos(Integer.MAX_VALUE) >= 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should give up on the last attempt with the products still conflicting")
+    void shouldGiveUpAfterMaxAttempts() {
+        var policy = new StockRetryPolicy(3, Duration.ZERO, Duration.ZERO, metrics);
+        var gateway = new ConflictingGateway();
+        var replayed = new ArrayList<Set<Long>>();
+
+        var error = assertThrows(StockConflictException.class, () -> policy.complete(gateway, replayed::add));
+
+        assertEquals(Set.of(1L), error.getProductIds());
+        assertEquals(3, gateway.completions);
+        assertEquals(List.of(Set.of(1L), Set.of(1L)), gateway.reloads);
+        assertEquals(gateway.reloads, replayed);
+        assertEquals(2.0, meterRegistry.get("stock.conflict.retries").tag("outcome", "retried").counter().count());
+        assertEquals(1.0, meterRegistry.get("stock.conflict.retries").tag("outcome", "exhausted").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not retry a gateway that cannot reload its products")
+    void shouldNotRetryOtherGateways() {
+        var policy = new StockRetryPolicy(3, Duration.ZERO, Duration.ZERO, metrics);
+        StockGateway gateway = new StockGateway() {
+            @Override
+            public boolean tryDecrement(ProductMetadata product) {
+                return true;
+            }
+
+            @Override
+            public void complete() {
+                throw new StockConflictException(1L);
+            }
+        };
+
+        assertThrows(StockConflictException.class, () -> policy.complete(gateway, productIds -> {
+            throw new AssertionError("No product should be processed again");
+        }));
+        assertEquals(0.0, meterRegistry.get("stock.conflict.retries").tag("outcome", "retried").counter().count());
+    }
+
+    private static final class ConflictingGateway implements RetryableStockGateway {
+
+        private final List<Set<Long>> reloads = new ArrayList<>();
+        private int completions;
+
+        @Override
+        public boolean tryDecrement(ProductMetadata product) {
+            return true;
+        }
+
+        @Override
+        public void complete() {
+            completions++;
+            throw new StockConflictException(Set.of(1L));
+        }
+
+        @Override
+        public void reload(Set<Long> productIds) {
+            reloads.add(productIds);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.nimbleways.springboilerplate.services.stock;
+
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.services.implementations.OrderProcessingService;
+import com.nimbleways.springboilerplate.utils.JdbcRoundTrips;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import com.nimbleways.springboilerplate.exceptions.StockConflictException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "stock.writes=versioned",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        JdbcRoundTrips.PROPERTY})
+@DisplayName("Versioned Stock Engine Integration Tests")
+class VersionedStockEngineIntegrationTests {
+
+    private static final int ITEMS = 120;
+    private static final int BATCH_SIZE = 50;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private VersionedStockEngine versionedStockEngine;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanup() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should write the stock of a whole order in JDBC batches of versioned updates")
+    void shouldBatchStockUpdates() {
+        List<Product> products = givenProducts(ITEMS);
+        Order order = new Order();
+        order.setItems(new HashSet<>(products));
+        order = orderRepository.save(order);
+        statistics.clear();
+        JdbcRoundTrips.reset();
+
+        orderProcessingService.processOrder(order.getId());
+
+        assertEquals(ITEMS, statistics.getEntityUpdateCount());
+        // item ids, product metadata and managed products, then the updates
+        assertEquals(3, JdbcRoundTrips.statements());
+        assertEquals((ITEMS + BATCH_SIZE - 1) / BATCH_SIZE, JdbcRoundTrips.batches());
+        Product reloaded = productRepository.findById(products.get(0).getId()).orElseThrow();
+        assertEquals(4, reloaded.getAvailable());
+        assertEquals(products.get(0).getVersion() + 1, reloaded.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should fail the flush when a product was written concurrently")
+    void shouldDetectConcurrentWrite() {
+        Product cable = givenProducts(1).get(0);
+        var transaction = new TransactionTemplate(transactionManager);
+        var concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        var error = assertThrows(StockConflictException.class, () ->
+                transaction.executeWithoutResult(status -> {
+                    var stock = versionedStockEngine.forOrder(List.of(cable.getId()));
+                    assertTrue(stock.tryDecrement(ProductMetadata.of(cable)));
+                    concurrent.executeWithoutResult(inner -> productRepository.decrementAvailable(cable.getId()));
+                    stock.complete();
+                }));
+
+        assertTrue(error.getMessage().startsWith("Stock changed concurrently"));
+        assertEquals(4, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+    }
+
+    private List<Product> givenProducts(int count) {
+        var products = new ArrayList<Product>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(new Product(null, 10, 5, ProductType.NORMAL, "Product " + i, null, null, null));
+        }
+        return productRepository.saveAll(products);
+    }
+}
@@ -0,0 +1,128 @@
+package com.nimbleways.springboilerplate.services.stock.ledger;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.services.implementations.OrderProcessingService;
+import com.nimbleways.springboilerplate.services.stock.reservation.StockReservations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {"stock.ledger.enabled=true", "stock.ledger.flush-interval=1h",
+        "stock.reservations.sweep-interval=1h"})
+@DisplayName("Ledger Stock Engine Integration Tests")
+class LedgerStockEngineIntegrationTests {
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private LedgerStockEngine ledgerStockEngine;
+
+    @Autowired
+    private StockReservations stockReservations;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws Exception {
+        Path directory = Files.createTempDirectory("stock-ledger");
+        registry.add("stock.ledger.journal-directory", directory::toString);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM stock_reservations");
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should take stock in memory and write it to the products table on flush")
+    void shouldWriteReservationsOnFlush() {
+        Product cable = productRepository.save(new Product(null, 10, 5, ProductType.NORMAL, "Cable", null, null, null));
+        Order order = new Order();
+        order.setItems(Set.of(cable));
+        order = orderRepository.save(order);
+
+        orderProcessingService.processOrder(order.getId());
+        orderProcessingService.processOrder(order.getId());
+
+        assertEquals(5, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+        ledgerStockEngine.stop();
+        ledgerStockEngine.start();
+        assertEquals(3, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should hold reserved stock in the ledger, so orders cannot take it and applying takes it once")
+    void shouldHoldReservationsInLedger() {
+        Product cable = productRepository.save(new Product(null, 10, 2, ProductType.NORMAL, "Cable", null, null, null));
+        Order reserved = saveOrder(cable);
+        Order processed = saveOrder(cable);
+
+        stockReservations.reserve(reserved.getId());
+        orderProcessingService.processOrder(processed.getId());
+        orderProcessingService.processOrder(processed.getId());
+        assertEquals(0, stockLedger.available(cable.getId()));
+
+        stockReservations.confirm(reserved.getId());
+        assertEquals(1, stockReservations.applyConfirmed());
+        ledgerStockEngine.stop();
+        ledgerStockEngine.start();
+
+        assertEquals(0, productRepository.findById(cable.getId()).orElseThrow().getAvailable());
+        assertEquals(0, productRepository.findById(cable.getId()).orElseThrow().getHeld());
+    }
+
+    @Test
+    @DisplayName("Should give the stock of an expired reservation back to the ledger")
+    void shouldReleaseExpiredReservationsToLedger() {
+        Product cable = productRepository.save(new Product(null, 10, 2, ProductType.NORMAL, "Cable", null, null, null));
+        Order order = saveOrder(cable);
+
+        stockReservations.reserve(order.getId());
+        assertEquals(1, stockLedger.available(cable.getId()));
+        jdbcTemplate.update("UPDATE stock_reservations SET expires_at = ?", Timestamp.from(Instant.EPOCH));
+
+        assertEquals(1, stockReservations.releaseExpired());
+        assertEquals(2, stockLedger.available(cable.getId()));
+    }
+
+    private Order saveOrder(Product product) {
+        Order order = new Order();
+        order.setItems(Set.of(product));
+        return orderRepository.save(order);
+    }
+}
@@ -0,0 +1,95 @@
+package com.nimbleways.springboilerplate.services.stock.ledger;
+
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.repositories.StockLedgerCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Ledger Stock Holds Tests")
+class LedgerStockHoldsTest {
+
+    private static final long CABLE = 1L;
+    private static final long DONGLE = 2L;
+
+    @TempDir
+    Path journalDirectory;
+
+    @Mock
+    private ProductStockRepository productStockRepository;
+
+    @Mock
+    private StockLedgerCheckpointRepository checkpointRepository;
+
+    private StockLedger ledger;
+    private LedgerStockHolds holds;
+
+    @BeforeEach
+    void setUp() {
+        when(productStockRepository.findAvailable(anyCollection())).thenReturn(Map.of(CABLE, 5, DONGLE, 1));
+        when(checkpointRepository.findById("products")).thenReturn(Optional.empty());
+        ledger = StockLedger.create("products", journalDirectory, 8, productStockRepository, checkpointRepository,
+                TransactionOperations.withoutTransaction());
+        ledger.recover();
+        holds = new LedgerStockHolds(ledger);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should give back the units of a short hold outside a transaction")
+    void shouldReleaseShortHoldWithoutTransaction() {
+        var shortProductIds = holds.hold(Map.of(CABLE, 2, DONGLE, 2));
+
+        assertEquals(Set.of(DONGLE), shortProductIds);
+        assertEquals(5, ledger.available(CABLE));
+        assertEquals(1, ledger.available(DONGLE));
+    }
+
+    @Test
+    @DisplayName("Should give back the units of a short hold at once within a transaction")
+    void shouldReleaseShortHoldWithinTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        var shortProductIds = holds.hold(Map.of(CABLE, 2, DONGLE, 2));
+
+        assertEquals(Set.of(DONGLE), shortProductIds);
+        assertEquals(5, ledger.available(CABLE));
+        assertEquals(1, ledger.available(DONGLE));
+    }
+
+    @Test
+    @DisplayName("Should keep the units of a hold that is covered")
+    void shouldKeepCoveredHold() {
+        var shortProductIds = holds.hold(Map.of(CABLE, 2, DONGLE, 1));
+
+        assertEquals(Set.of(), shortProductIds);
+        assertEquals(3, ledger.available(CABLE));
+        assertEquals(0, ledger.available(DONGLE));
+    }
+}
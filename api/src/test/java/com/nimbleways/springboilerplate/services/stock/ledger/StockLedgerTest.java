@@ -0,0 +1,203 @@
+package com.nimbleways.springboilerplate.services.stock.ledger;
+
+import com.nimbleways.springboilerplate.entities.StockLedgerCheckpoint;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.repositories.StockLedgerCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Stock Ledger Tests")
+class StockLedgerTest {
+
+    private static final long CABLE = 1L;
+
+    @TempDir
+    Path journalDirectory;
+
+    @Mock
+    private ProductStockRepository productStockRepository;
+
+    @Mock
+    private StockLedgerCheckpointRepository checkpointRepository;
+
+    @BeforeEach
+    void setUp() {
+        when(productStockRepository.findAvailable(anyCollection())).thenReturn(Map.of(CABLE, 100));
+        when(checkpointRepository.findById("products")).thenReturn(Optional.empty());
+    }
+
+    @Test
+    @DisplayName("Should never hand out more units than available under contention")
+    void shouldReserveExactlyUnderContention() throws InterruptedException {
+        var ledger = startedLedger();
+        var taken = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                if (ledger.tryReserve(CABLE)) {
+                    taken.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, taken.get());
+        assertEquals(0, ledger.available(CABLE));
+        assertFalse(ledger.tryReserve(CABLE));
+    }
+
+    @Test
+    @DisplayName("Should hand out the units of every stripe before reporting a product out of stock")
+    void shouldTakeFromEveryStripe() {
+        when(productStockRepository.findAvailable(anyCollection())).thenReturn(Map.of(CABLE, 3));
+        var ledger = startedLedger();
+
+        assertTrue(ledger.tryReserve(CABLE));
+        assertTrue(ledger.tryReserve(CABLE));
+        assertTrue(ledger.tryReserve(CABLE));
+        assertFalse(ledger.tryReserve(CABLE));
+        assertEquals(0, ledger.available(CABLE));
+
+        ledger.release(CABLE);
+        assertEquals(1, ledger.available(CABLE));
+        assertTrue(ledger.tryReserve(CABLE));
+    }
+
+    @Test
+    @DisplayName("Should flush the net delta once and record the segment as applied")
+    void shouldFlushNetDeltaOnce() {
+        var ledger = startedLedger();
+        ledger.tryReserve(CABLE);
+        ledger.tryReserve(CABLE);
+        ledger.tryReserve(CABLE);
+        ledger.release(CABLE);
+        ledger.commit(Map.of(CABLE, 2));
+
+        ledger.flush();
+        ledger.flush();
+
+        verify(productStockRepository, times(1)).applyDeltas(Map.of(CABLE, -2L));
+        verify(checkpointRepository, times(1)).save(any(StockLedgerCheckpoint.class));
+        assertEquals(98, ledger.available(CABLE));
+    }
+
+    @Test
+    @DisplayName("Should replay the journal of a crashed run on recovery")
+    void shouldReplayJournalAfterCrash() {
+        var crashed = startedLedger();
+        crashed.tryReserve(CABLE);
+        crashed.tryReserve(CABLE);
+        crashed.commit(Map.of(CABLE, 2));
+
+        startedLedger();
+
+        verify(productStockRepository, times(1)).applyDeltas(Map.of(CABLE, -2L));
+    }
+
+    @Test
+    @DisplayName("Should not replay the units of a transaction that had not committed, whoever else committed")
+    void shouldNotReplayUncommittedUnits() throws IOException {
+        var crashed = startedLedger();
+        // one transaction takes a unit and never commits, while another commits two
+        crashed.tryReserve(CABLE);
+        crashed.tryReserve(CABLE);
+        crashed.tryReserve(CABLE);
+        crashed.commit(Map.of(CABLE, 2));
+        // a third was cut off mid-write, before its commit marker
+        try (var files = Files.list(journalDirectory)) {
+            var segment = files.findFirst().orElseThrow();
+            Files.write(segment, ByteBuffer.allocate(12).putLong(CABLE).putInt(-5).array(), StandardOpenOption.APPEND);
+        }
+
+        startedLedger();
+
+        verify(productStockRepository, times(1)).applyDeltas(Map.of(CABLE, -2L));
+    }
+
+    @Test
+    @DisplayName("Should give back units whose commit was journaled before the transaction failed")
+    void shouldRestoreJournaledUnits() {
+        var ledger = startedLedger();
+        ledger.tryReserve(CABLE);
+        ledger.commit(Map.of(CABLE, 1));
+
+        ledger.restore(Map.of(CABLE, 1));
+        ledger.flush();
+
+        assertEquals(100, ledger.available(CABLE));
+        verify(productStockRepository, never()).applyDeltas(Map.of(CABLE, -1L));
+        verify(productStockRepository, times(1)).applyDeltas(Map.of(CABLE, 0L));
+    }
+
+    @Test
+    @DisplayName("Should skip segments the checkpoint says were already applied")
+    void shouldSkipAppliedSegmentsOnRecovery() throws IOException {
+        var crashed = startedLedger();
+        crashed.tryReserve(CABLE);
+        crashed.commit(Map.of(CABLE, 1));
+        when(checkpointRepository.findById("products"))
+                .thenReturn(Optional.of(new StockLedgerCheckpoint("products", 0L)));
+
+        var recovered = startedLedger();
+        recovered.flush();
+
+        verify(productStockRepository, never()).applyDeltas(any());
+        try (var files = Files.list(journalDirectory)) {
+            assertEquals(1, files.count(), "only the open segment should be left");
+        }
+    }
+
+    @Test
+    @DisplayName("Should number new segments after the checkpoint when the journal directory was lost")
+    void shouldNumberAfterCheckpointWithEmptyDirectory() {
+        when(checkpointRepository.findById("products"))
+                .thenReturn(Optional.of(new StockLedgerCheckpoint("products", 41L)));
+        var ledger = startedLedger();
+        ledger.tryReserve(CABLE);
+        ledger.commit(Map.of(CABLE, 1));
+
+        ledger.flush();
+
+        verify(productStockRepository, times(1)).applyDeltas(Map.of(CABLE, -1L));
+        var checkpoint = ArgumentCaptor.forClass(StockLedgerCheckpoint.class);
+        verify(checkpointRepository).save(checkpoint.capture());
+        assertEquals(42L, checkpoint.getValue().getLastSegment());
+    }
+
+    private StockLedger startedLedger() {
+        var ledger = StockLedger.create("products", journalDirectory, 8, productStockRepository, checkpointRepository,
+                TransactionOperations.withoutTransaction());
+        ledger.recover();
+        return ledger;
+    }
+}
@@ -0,0 +1,280 @@
+package com.nimbleways.springboilerplate.services.stock.reservation;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.exceptions.ReservationNotFoundException;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.repositories.ProductStockRepository;
+import com.nimbleways.springboilerplate.repositories.StockReservationRepository;
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.services.catalog.ProductMetadataCache;
+import com.nimbleways.springboilerplate.services.catalog.ProductStockLevels;
+import com.nimbleways.springboilerplate.services.metrics.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.strategy.ProductStrategyRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "stock.reservations.sweep-interval=1h")
+@AutoConfigureMockMvc
+@DisplayName("Stock Reservation Integration Tests")
+class StockReservationIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @Autowired
+    private StockReservations stockReservations;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockRepository productStockRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private ProcessedOrderRepository processedOrderRepository;
+
+    @Autowired
+    private ProductMetadataCache productMetadataCache;
+
+    @Autowired
+    private ProductStrategyRegistry strategies;
+
+    @Autowired
+    private ProductStockLevels stockLevels;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderProcessingMetrics metrics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM stock_reservations");
+        jdbcTemplate.update("DELETE FROM processed_orders");
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should hold stock on reserve and take it once the confirmed reservation is applied")
+    void shouldTakeStockOfConfirmedReservations() throws Exception {
+        Product cable = saveProduct("Cable", 1);
+        Product dongle = saveProduct("Dongle", 5);
+        Order first = saveOrder(cable, dongle);
+        Order second = saveOrder(cable);
+
+        mockMvc.perform(post("/orders/{orderId}/reserve", first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(first.getId()))
+                .andExpect(jsonPath("$.confirmed").value(false));
+        mockMvc.perform(post("/orders/{orderId}/reserve", second.getId()))
+                .andExpect(status().isConflict());
+        assertEquals(1, available(cable));
+
+        mockMvc.perform(post("/orders/{orderId}/confirm", first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.confirmed").value(true));
+        assertEquals(1, available(cable));
+
+        assertEquals(1, stockReservations.applyConfirmed());
+
+        assertEquals(0, available(cable));
+        assertEquals(4, available(dongle));
+        assertEquals(0, held(cable.getId()));
+        assertEquals(0, reservationRows());
+        mockMvc.perform(post("/orders/{orderId}/reserve", second.getId()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Should return 404 when confirming an order that was never reserved")
+    void shouldReturn404WhenConfirmingUnreservedOrder() throws Exception {
+        Order order = saveOrder(saveProduct("Cable", 1));
+
+        mockMvc.perform(post("/orders/{orderId}/confirm", order.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should release expired reservations without touching stock")
+    void shouldReleaseExpiredReservations() {
+        var expiring = reservations(Duration.ZERO);
+        Product cable = saveProduct("Cable", 1);
+        Order order = saveOrder(cable);
+
+        expiring.reserve(order.getId());
+
+        assertThrows(ReservationNotFoundException.class, () -> expiring.confirm(order.getId()));
+        assertEquals(1, held(cable.getId()));
+        assertEquals(1, expiring.releaseExpired());
+        assertEquals(0, held(cable.getId()));
+        assertEquals(1, available(cable));
+        assertEquals(0, reservationRows());
+    }
+
+    @Test
+    @DisplayName("Should confirm and apply a reservation made by another instance")
+    void shouldShareReservationsAcrossInstances() {
+        Product cable = saveProduct("Cable", 3);
+        Order order = saveOrder(cable);
+        var first = reservations(Duration.ofMinutes(5));
+        var second = reservations(Duration.ofMinutes(5));
+
+        first.reserve(order.getId());
+
+        assertEquals(order.getId(), second.reserve(order.getId()).orderId());
+        assertEquals(1, held(cable.getId()));
+        second.confirm(order.getId());
+        assertEquals(1, first.applyConfirmed());
+        assertEquals(0, second.applyConfirmed());
+        assertEquals(2, available(cable));
+        assertEquals(0, held(cable.getId()));
+    }
+
+    @Test
+    @DisplayName("Should keep held stock from orders processed directly")
+    void shouldKeepHeldStockFromProcessedOrders() throws Exception {
+        Product cable = saveProduct("Cable", 1);
+        Order reserved = saveOrder(cable);
+        Order processed = saveOrder(cable);
+
+        stockReservations.reserve(reserved.getId());
+        mockMvc.perform(post("/orders/{orderId}/processOrder", processed.getId()))
+                .andExpect(status().isOk());
+
+        assertEquals(1, available(cable));
+        stockReservations.confirm(reserved.getId());
+        assertEquals(1, stockReservations.applyConfirmed());
+        assertEquals(0, available(cable));
+        assertEquals(0, held(cable.getId()));
+    }
+
+    @Test
+    @DisplayName("Should take stock once when an order is processed after its reservation was applied")
+    void shouldNotProcessAppliedReservationAgain() throws Exception {
+        Product cable = saveProduct("Cable", 3);
+        Order order = saveOrder(cable);
+
+        stockReservations.reserve(order.getId());
+        stockReservations.confirm(order.getId());
+        assertEquals(1, stockReservations.applyConfirmed());
+        mockMvc.perform(post("/orders/{orderId}/processOrder", order.getId()))
+                .andExpect(status().isOk());
+
+        assertEquals(2, available(cable));
+        mockMvc.perform(post("/orders/{orderId}/reserve", order.getId()))
+                .andExpect(status().isConflict());
+        assertEquals(0, held(cable.getId()));
+    }
+
+    @Test
+    @DisplayName("Should release a confirmed reservation whose order was processed before it was applied")
+    void shouldReleaseReservationOfProcessedOrder() throws Exception {
+        Product cable = saveProduct("Cable", 3);
+        Order order = saveOrder(cable);
+
+        stockReservations.reserve(order.getId());
+        stockReservations.confirm(order.getId());
+        mockMvc.perform(post("/orders/{orderId}/processOrder", order.getId()))
+                .andExpect(status().isOk());
+        assertEquals(1, stockReservations.applyConfirmed());
+
+        assertEquals(2, available(cable));
+        assertEquals(0, held(cable.getId()));
+        assertEquals(0, reservationRows());
+    }
+
+    @Test
+    @DisplayName("Should hold only the items processing would sell")
+    void shouldNotHoldExpiredProducts() throws Exception {
+        Product cable = saveProduct("Cable", 3);
+        Product milk = productRepository.save(new Product(null, 10, 3, ProductType.EXPIRABLE, "Milk",
+                LocalDate.now().minusDays(1), null, null));
+        Order order = saveOrder(cable, milk);
+        Order expiredOnly = saveOrder(milk);
+
+        var reservation = stockReservations.reserve(order.getId());
+
+        assertEquals(Map.of(cable.getId(), 1), reservation.quantities());
+        assertEquals(1, held(cable.getId()));
+        assertEquals(0, held(milk.getId()));
+        mockMvc.perform(post("/orders/{orderId}/reserve", expiredOnly.getId()))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, held(milk.getId()));
+    }
+
+    @Test
+    @DisplayName("Should reject the reservation of an order without items")
+    void shouldRejectEmptyOrder() throws Exception {
+        Order order = orderRepository.save(new Order());
+
+        mockMvc.perform(post("/orders/{orderId}/reserve", order.getId()))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, reservationRows());
+    }
+
+    private StockReservations reservations(Duration ttl) {
+        return new StockReservations(orderRepository, processedOrderRepository, productMetadataCache, strategies,
+                new DatabaseStockHolds(productStockRepository), reservationRepository, stockLevels,
+                transactionTemplate, metrics, Clock.systemUTC(), ttl, 100);
+    }
+
+    private int held(Long productId) {
+        return productStockRepository.findHeld(productId);
+    }
+
+    private int reservationRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_reservations", Integer.class);
+    }
+
+    private int available(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getAvailable();
+    }
+
+    private Product saveProduct(String name, int available) {
+        return productRepository.save(new Product(null, 10, available, ProductType.NORMAL, name, null, null, null));
+    }
+
+    private Order saveOrder(Product... products) {
+        Order order = new Order();
+        order.setItems(Set.of(products));
+        return orderRepository.save(order);
+    }
+}
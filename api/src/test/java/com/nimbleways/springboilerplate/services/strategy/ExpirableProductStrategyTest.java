@@ -1,8 +1,13 @@
 package com.nimbleways.springboilerplate.services.strategy;
 
-import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
 import com.nimbleways.springboilerplate.repositories.ProductRepository;
-import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.services.catalog.ProductAvailabilityIndex;
+import com.nimbleways.springboilerplate.services.stock.ImmediateStockGateway;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,8 +18,10 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -26,15 +33,15 @@ class ExpirableProductStrategyTest {
     @Mock
     private ProductRepository productRepository;
 
-    @Mock
-    private NotificationService notificationService;
-
     private ExpirableProductStrategy strategy;
 
+    private ProcessingContext context;
+
     @BeforeEach
     void setUp() {
-        strategy = new ExpirableProductStrategy(productRepository, notificationService);
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        strategy = new ExpirableProductStrategy(new ProductAvailabilityIndex());
+        context = new ProcessingContext(new ImmediateStockGateway(productRepository), LocalDate.now());
+        when(productRepository.decrementAvailable(any())).thenReturn(1);
     }
 
     @Test
@@ -42,16 +49,15 @@ class ExpirableProductStrategyTest {
     void shouldDecrementStockWhenNotExpiredAndAvailable() {
         
         LocalDate now = LocalDate.now();
-        Product product = new Product(null, 10, 5, "EXPIRABLE", "Butter",
-                now.plusDays(20), null, null);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.EXPIRABLE, "Butter", 10, now.plusDays(20), null, null);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        assertEquals(4, product.getAvailable());
-        verify(productRepository, times(1)).save(product);
-        verifyNoInteractions(notificationService);
+        assertEquals(ProcessingOutcome.DECREMENTED, outcome);
+        verify(productRepository, times(1)).decrementAvailable(product.id());
+        assertTrue(context.notifications().isEmpty());
     }
 
     @Test
@@ -59,16 +65,15 @@ class ExpirableProductStrategyTest {
     void shouldNotifyExpirationWhenExpired() {
         
         LocalDate expiryDate = LocalDate.now().minusDays(2);
-        Product product = new Product(null, 10, 5, "EXPIRABLE", "Milk",
-                expiryDate, null, null);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.EXPIRABLE, "Milk", 10, expiryDate, null, null);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        assertEquals(5, product.getAvailable());
-        verify(notificationService, times(1)).sendExpirationNotification("Milk", expiryDate);
-        verify(productRepository, never()).save(product);
+        assertEquals(ProcessingOutcome.EXPIRED, outcome);
+        assertEquals(List.of(NotificationEvent.expiration("Milk", expiryDate)), context.notifications());
+        verify(productRepository, never()).decrementAvailable(any());
     }
 
     @Test
@@ -76,15 +81,15 @@ class ExpirableProductStrategyTest {
     void shouldNotifyExpirationWhenExpiringToday() {
         
         LocalDate today = LocalDate.now();
-        Product product = new Product(null, 10, 5, "EXPIRABLE", "Yogurt",
-                today, null, null);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.EXPIRABLE, "Yogurt", 10, today, null, null);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        verify(notificationService, times(1)).sendExpirationNotification("Yogurt", today);
-        verify(productRepository, never()).save(product);
+        assertEquals(ProcessingOutcome.EXPIRED, outcome);
+        assertEquals(List.of(NotificationEvent.expiration("Yogurt", today)), context.notifications());
+        verify(productRepository, never()).decrementAvailable(any());
     }
 
     @Test
@@ -92,16 +97,16 @@ class ExpirableProductStrategyTest {
     void shouldNotifyDelayWhenDeliveryBeforeExpiry() {
         
         LocalDate now = LocalDate.now();
-        Product product = new Product(null, 10, 0, "EXPIRABLE", "Cheese",
-                now.plusDays(20), null, null);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.EXPIRABLE, "Cheese", 10, now.plusDays(20), null, null);
+        when(productRepository.decrementAvailable(1L)).thenReturn(0);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        verify(notificationService, times(1)).sendDelayNotification(10, "Cheese");
-        verify(notificationService, never()).sendExpirationNotification(any(), any());
-        verify(productRepository, never()).save(product);
+        assertEquals(ProcessingOutcome.DELAYED, outcome);
+        assertEquals(List.of(NotificationEvent.delay(10, "Cheese")), context.notifications());
+        verify(productRepository, times(1)).decrementAvailable(1L);
     }
 
     @Test
@@ -109,16 +114,16 @@ class ExpirableProductStrategyTest {
     void shouldNotifyExpirationWhenDeliveryAfterExpiry() {
         
         LocalDate expiryDate = LocalDate.now().plusDays(5);
-        Product product = new Product(null, 10, 0, "EXPIRABLE", "Cream",
-                expiryDate, null, null);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.EXPIRABLE, "Cream", 10, expiryDate, null, null);
+        when(productRepository.decrementAvailable(1L)).thenReturn(0);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        verify(notificationService, times(1)).sendExpirationNotification("Cream", expiryDate);
-        verify(notificationService, never()).sendDelayNotification(anyInt(), any());
-        verify(productRepository, never()).save(product);
+        assertEquals(ProcessingOutcome.EXPIRED, outcome);
+        assertEquals(List.of(NotificationEvent.expiration("Cream", expiryDate)), context.notifications());
+        verify(productRepository, times(1)).decrementAvailable(1L);
     }
 
     @Test
@@ -126,16 +131,15 @@ class ExpirableProductStrategyTest {
     void shouldHandleExpiresTomorrow() {
         
         LocalDate tomorrow = LocalDate.now().plusDays(1);
-        Product product = new Product(null, 10, 5, "EXPIRABLE", "Eggs",
-                tomorrow, null, null);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.EXPIRABLE, "Eggs", 10, tomorrow, null, null);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        assertEquals(4, product.getAvailable());
-        verify(productRepository, times(1)).save(product);
-        verifyNoInteractions(notificationService);
+        assertEquals(ProcessingOutcome.DECREMENTED, outcome);
+        verify(productRepository, times(1)).decrementAvailable(product.id());
+        assertTrue(context.notifications().isEmpty());
     }
 
     @Test
@@ -143,15 +147,27 @@ class ExpirableProductStrategyTest {
     void shouldHandleLongShelfLife() {
         
         LocalDate futureDate = LocalDate.now().plusYears(2);
-        Product product = new Product(null, 30, 100, "EXPIRABLE", "Canned Food",
-                futureDate, null, null);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.EXPIRABLE, "Canned Food", 30, futureDate, null, null);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        assertEquals(99, product.getAvailable());
-        verify(productRepository, times(1)).save(product);
-        verifyNoInteractions(notificationService);
+        assertEquals(ProcessingOutcome.DECREMENTED, outcome);
+        verify(productRepository, times(1)).decrementAvailable(product.id());
+        assertTrue(context.notifications().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should judge expiry as of the run's date rather than the current date")
+    void shouldUseRunDate() {
+        LocalDate runDate = LocalDate.of(2024, 6, 1);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.EXPIRABLE, "Milk", 10, runDate.plusDays(1), null, null);
+        var runContext = new ProcessingContext(new ImmediateStockGateway(productRepository), runDate);
+
+        ProcessingOutcome outcome = strategy.process(product, runContext);
+
+        assertEquals(ProcessingOutcome.DECREMENTED, outcome);
+        verify(productRepository, times(1)).decrementAvailable(product.id());
     }
-}
\ No newline at end of file
+}
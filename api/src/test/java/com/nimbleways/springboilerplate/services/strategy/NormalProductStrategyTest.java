@@ -1,8 +1,12 @@
 package com.nimbleways.springboilerplate.services.strategy;
 
-import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
 import com.nimbleways.springboilerplate.repositories.ProductRepository;
-import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.services.stock.ImmediateStockGateway;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,7 +16,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -24,58 +32,59 @@ class NormalProductStrategyTest {
     @Mock
     private ProductRepository productRepository;
 
-    @Mock
-    private NotificationService notificationService;
-
     private NormalProductStrategy strategy;
 
+    private ProcessingContext context;
+
     @BeforeEach
     void setUp() {
-        strategy = new NormalProductStrategy(productRepository, notificationService);
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        strategy = new NormalProductStrategy();
+        context = new ProcessingContext(new ImmediateStockGateway(productRepository), LocalDate.now());
+        when(productRepository.decrementAvailable(any())).thenReturn(1);
     }
 
     @Test
     @DisplayName("Should decrement stock when product has available stock")
     void shouldDecrementStockWhenAvailable() {
         
-        Product product = new Product(null, 10, 5, "NORMAL", "USB Cable", null, null, null);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.NORMAL, "USB Cable", 10, null, null, null);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        assertEquals(4, product.getAvailable());
-        verify(productRepository, times(1)).save(product);
-        verifyNoInteractions(notificationService);
+        assertEquals(ProcessingOutcome.DECREMENTED, outcome);
+        verify(productRepository, times(1)).decrementAvailable(product.id());
+        assertTrue(context.notifications().isEmpty());
     }
 
     @Test
     @DisplayName("Should notify delay when product is out of stock")
     void shouldNotifyDelayWhenOutOfStock() {
         
-        Product product = new Product(null, 15, 0, "NORMAL", "USB Dongle", null, null, null);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.NORMAL, "USB Dongle", 15, null, null, null);
+        when(productRepository.decrementAvailable(1L)).thenReturn(0);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        assertEquals(0, product.getAvailable());
-        verify(notificationService, times(1)).sendDelayNotification(15, "USB Dongle");
-        verify(productRepository, never()).save(product);
+        assertEquals(ProcessingOutcome.DELAYED, outcome);
+        assertEquals(List.of(NotificationEvent.delay(15, "USB Dongle")), context.notifications());
+        verify(productRepository, times(1)).decrementAvailable(1L);
     }
 
     @Test
     @DisplayName("Should decrement stock from multiple units")
     void shouldDecrementMultipleStock() {
         
-        Product product = new Product(null, 20, 100, "NORMAL", "HDMI Cable", null, null, null);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.NORMAL, "HDMI Cable", 20, null, null, null);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        assertEquals(99, product.getAvailable());
-        verify(productRepository, times(1)).save(product);
+        assertEquals(ProcessingOutcome.DECREMENTED, outcome);
+        verify(productRepository, times(1)).decrementAvailable(product.id());
     }
 }
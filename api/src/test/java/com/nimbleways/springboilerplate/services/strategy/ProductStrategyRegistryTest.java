@@ -0,0 +1,48 @@
+package com.nimbleways.springboilerplate.services.strategy;
+
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.services.catalog.ProductAvailabilityIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Product Strategy Registry Tests")
+class ProductStrategyRegistryTest {
+
+    private final NormalProductStrategy normal = new NormalProductStrategy();
+    private final SeasonalProductStrategy seasonal = new SeasonalProductStrategy(new ProductAvailabilityIndex());
+    private final ExpirableProductStrategy expirable = new ExpirableProductStrategy(new ProductAvailabilityIndex());
+
+    @Test
+    @DisplayName("Should resolve each product type to the strategy declaring it")
+    void shouldResolveStrategyByType() {
+        var registry = new ProductStrategyRegistry(List.of(expirable, normal, seasonal));
+
+        assertSame(normal, registry.get(ProductType.NORMAL));
+        assertSame(seasonal, registry.get(ProductType.SEASONAL));
+        assertSame(expirable, registry.get(ProductType.EXPIRABLE));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start when a product type has no strategy")
+    void shouldRejectMissingStrategy() {
+        var error = assertThrows(IllegalStateException.class,
+                () -> new ProductStrategyRegistry(List.of(normal, seasonal)));
+
+        assertTrue(error.getMessage().contains("EXPIRABLE"));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start when two strategies claim the same product type")
+    void shouldRejectDuplicateStrategy() {
+        var error = assertThrows(IllegalStateException.class,
+                () -> new ProductStrategyRegistry(List.of(normal, seasonal, expirable, new NormalProductStrategy())));
+
+        assertTrue(error.getMessage().contains("NORMAL"));
+    }
+}
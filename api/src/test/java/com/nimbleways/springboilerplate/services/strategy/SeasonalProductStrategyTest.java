@@ -1,8 +1,13 @@
 package com.nimbleways.springboilerplate.services.strategy;
 
-import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.domain.catalog.ProductMetadata;
+import com.nimbleways.springboilerplate.domain.enums.ProcessingOutcome;
+import com.nimbleways.springboilerplate.domain.enums.ProductType;
+import com.nimbleways.springboilerplate.domain.notification.NotificationEvent;
+import com.nimbleways.springboilerplate.domain.strategy.ProcessingContext;
 import com.nimbleways.springboilerplate.repositories.ProductRepository;
-import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import com.nimbleways.springboilerplate.services.catalog.ProductAvailabilityIndex;
+import com.nimbleways.springboilerplate.services.stock.ImmediateStockGateway;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,8 +18,10 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -26,15 +33,15 @@ class SeasonalProductStrategyTest {
     @Mock
     private ProductRepository productRepository;
 
-    @Mock
-    private NotificationService notificationService;
-
     private SeasonalProductStrategy strategy;
 
+    private ProcessingContext context;
+
     @BeforeEach
     void setUp() {
-        strategy = new SeasonalProductStrategy(productRepository, notificationService);
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        strategy = new SeasonalProductStrategy(new ProductAvailabilityIndex());
+        context = new ProcessingContext(new ImmediateStockGateway(productRepository), LocalDate.now());
+        when(productRepository.decrementAvailable(any())).thenReturn(1);
     }
 
     @Test
@@ -42,16 +49,16 @@ class SeasonalProductStrategyTest {
     void shouldDecrementStockWhenInSeasonAndAvailable() {
         
         LocalDate now = LocalDate.now();
-        Product product = new Product(null, 20, 5, "SEASONAL", "Watermelon", null,
-                now.minusDays(10), now.plusDays(30));
+        ProductMetadata product = new ProductMetadata(1L, ProductType.SEASONAL, "Watermelon", 20,
+                null, now.minusDays(10), now.plusDays(30));
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        assertEquals(4, product.getAvailable());
-        verify(productRepository, times(1)).save(product);
-        verifyNoInteractions(notificationService);
+        assertEquals(ProcessingOutcome.DECREMENTED, outcome);
+        verify(productRepository, times(1)).decrementAvailable(product.id());
+        assertTrue(context.notifications().isEmpty());
     }
 
     @Test
@@ -59,16 +66,16 @@ class SeasonalProductStrategyTest {
     void shouldNotifyUnavailabilityWhenBeforeSeason() {
         
         LocalDate now = LocalDate.now();
-        Product product = new Product(null, 20, 5, "SEASONAL", "Grapes", null,
-                now.plusDays(180), now.plusDays(240));
+        ProductMetadata product = new ProductMetadata(1L, ProductType.SEASONAL, "Grapes", 20,
+                null, now.plusDays(180), now.plusDays(240));
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        assertEquals(5, product.getAvailable());
-        verify(notificationService, times(1)).sendOutOfStockNotification("Grapes");
-        verify(productRepository, never()).save(product);
+        assertEquals(ProcessingOutcome.OUT_OF_STOCK, outcome);
+        assertEquals(List.of(NotificationEvent.outOfStock("Grapes")), context.notifications());
+        verify(productRepository, never()).decrementAvailable(any());
     }
 
     @Test
@@ -76,15 +83,16 @@ class SeasonalProductStrategyTest {
     void shouldNotifyUnavailabilityWhenAfterSeason() {
         
         LocalDate now = LocalDate.now();
-        Product product = new Product(null, 20, 5, "SEASONAL", "Strawberries", null,
-                now.minusDays(100), now.minusDays(10));
+        ProductMetadata product = new ProductMetadata(1L, ProductType.SEASONAL, "Strawberries", 20,
+                null, now.minusDays(100), now.minusDays(10));
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        verify(notificationService, times(1)).sendOutOfStockNotification("Strawberries");
-        verify(productRepository, never()).save(product);
+        assertEquals(ProcessingOutcome.OUT_OF_STOCK, outcome);
+        assertEquals(List.of(NotificationEvent.outOfStock("Strawberries")), context.notifications());
+        verify(productRepository, never()).decrementAvailable(any());
     }
 
     @Test
@@ -92,16 +100,17 @@ class SeasonalProductStrategyTest {
     void shouldNotifyDelayWhenDeliveryBeforeSeasonEnd() {
         
         LocalDate now = LocalDate.now();
-        Product product = new Product(null, 10, 0, "SEASONAL", "Peach", null,
-                now.minusDays(10), now.plusDays(30));
+        ProductMetadata product = new ProductMetadata(1L, ProductType.SEASONAL, "Peach", 10,
+                null, now.minusDays(10), now.plusDays(30));
+        when(productRepository.decrementAvailable(1L)).thenReturn(0);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        verify(notificationService, times(1)).sendDelayNotification(10, "Peach");
-        verify(notificationService, never()).sendOutOfStockNotification(any());
-        verify(productRepository, never()).save(product);
+        assertEquals(ProcessingOutcome.DELAYED, outcome);
+        assertEquals(List.of(NotificationEvent.delay(10, "Peach")), context.notifications());
+        verify(productRepository, times(1)).decrementAvailable(1L);
     }
 
     @Test
@@ -109,16 +118,17 @@ class SeasonalProductStrategyTest {
     void shouldNotifyUnavailabilityWhenDeliveryAfterSeasonEnd() {
         
         LocalDate now = LocalDate.now();
-        Product product = new Product(null, 50, 0, "SEASONAL", "Mango", null,
-                now.minusDays(10), now.plusDays(20));
+        ProductMetadata product = new ProductMetadata(1L, ProductType.SEASONAL, "Mango", 50,
+                null, now.minusDays(10), now.plusDays(20));
+        when(productRepository.decrementAvailable(1L)).thenReturn(0);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        verify(notificationService, times(1)).sendOutOfStockNotification("Mango");
-        verify(notificationService, never()).sendDelayNotification(anyInt(), any());
-        verify(productRepository, never()).save(product);
+        assertEquals(ProcessingOutcome.OUT_OF_STOCK, outcome);
+        assertEquals(List.of(NotificationEvent.outOfStock("Mango")), context.notifications());
+        verify(productRepository, times(1)).decrementAvailable(1L);
     }
 
     @Test
@@ -126,16 +136,15 @@ class SeasonalProductStrategyTest {
     void shouldHandleFirstDayOfSeason() {
         
         LocalDate now = LocalDate.now();
-        Product product = new Product(null, 10, 5, "SEASONAL", "Cherry", null,
-                now, now.plusDays(30));
+        ProductMetadata product = new ProductMetadata(1L, ProductType.SEASONAL, "Cherry", 10, null, now, now.plusDays(30));
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        assertEquals(4, product.getAvailable());
-        verify(productRepository, times(1)).save(product);
-        verifyNoInteractions(notificationService);
+        assertEquals(ProcessingOutcome.DECREMENTED, outcome);
+        verify(productRepository, times(1)).decrementAvailable(product.id());
+        assertTrue(context.notifications().isEmpty());
     }
 
     @Test
@@ -143,14 +152,14 @@ class SeasonalProductStrategyTest {
     void shouldHandleLastDayOfSeason() {
         
         LocalDate now = LocalDate.now();
-        Product product = new Product(null, 10, 5, "SEASONAL", "Plum", null,
-                now.minusDays(30), now);
+        ProductMetadata product = new ProductMetadata(1L, ProductType.SEASONAL, "Plum", 10, null, now.minusDays(30), now);
 
         
-        strategy.process(product);
+        ProcessingOutcome outcome = strategy.process(product, context);
 
         
-        verify(notificationService, times(1)).sendOutOfStockNotification("Plum");
-        verify(productRepository, never()).save(product);
+        assertEquals(ProcessingOutcome.OUT_OF_STOCK, outcome);
+        assertEquals(List.of(NotificationEvent.outOfStock("Plum")), context.notifications());
+        verify(productRepository, never()).decrementAvailable(any());
     }
 }
\ No newline at end of file
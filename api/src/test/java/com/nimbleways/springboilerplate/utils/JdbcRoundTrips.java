@@ -0,0 +1,42 @@
+package com.nimbleways.springboilerplate.utils;
+
+import org.hibernate.BaseSessionEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the JDBC executions Hibernate makes, a batch counting once however many rows it carries. Enabled by
+ * adding {@link #PROPERTY} to the context; the counts are global to the JVM.
+ */
+public class JdbcRoundTrips extends BaseSessionEventListener {
+
+    public static final String PROPERTY =
+            "spring.jpa.properties.hibernate.session.events.auto=com.nimbleways.springboilerplate.utils.JdbcRoundTrips";
+
+    private static final long serialVersionUID = 1L;
+    private static final AtomicLong STATEMENTS = new AtomicLong();
+    private static final AtomicLong BATCHES = new AtomicLong();
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        STATEMENTS.incrementAndGet();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        BATCHES.incrementAndGet();
+    }
+
+    public static void reset() {
+        STATEMENTS.set(0);
+        BATCHES.set(0);
+    }
+
+    public static long statements() {
+        return STATEMENTS.get();
+    }
+
+    public static long batches() {
+        return BATCHES.get();
+    }
+}